@@ -0,0 +1,113 @@
+package services.MetadonneesExtractor;
+
+import services.mime.CacheMimeChecker;
+import services.mime.MimeChecker;
+import services.mime.SignatureMimeAnalyzer;
+import services.systeme.SignatureMimeDetector;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Mesure du coût par fichier d'une extraction projetée face à l'extraction complète.
+ *
+ * JMH n'étant pas résolu par le build, ce banc est un simple programme. Pour chaque
+ * extracteur (jaudiotagger seul, puis lecteur natif avec repli jaudiotagger), il mesure
+ * sur les fichiers MP3 d'un répertoire :
+ * <ul>
+ *     <li>l'extraction complète et la projection de l'export de playlists
+ *     ({@link ChampMetadata#pourPlaylist()}) ;</li>
+ *     <li>les tags bruts complets et la projection sur quelques tags.</li>
+ * </ul>
+ * Chaque mesure est répétée et la meilleure passe est retenue (fichiers dans le cache
+ * du système) ; les octets alloués sont lus par {@code com.sun.management.ThreadMXBean}.
+ * Aucun cache de tags ni de métadonnées n'est utilisé.
+ *
+ * Exécution, après {@code mvn compile} (jaudiotagger dans le classpath) :
+ * <pre>
+ * javac -cp target/classes:jaudiotagger.jar -d target/bench src/bench/java/services/MetadonneesExtractor/BenchProjection.java
+ * java -cp target/classes:target/bench:jaudiotagger.jar services.MetadonneesExtractor.BenchProjection &lt;repertoire&gt;
+ * </pre>
+ */
+public final class BenchProjection {
+
+    private static final int ITERATIONS = 5;
+
+    /** Tags bruts demandés par la projection mesurée. */
+    private static final Set<String> TAGS_PROJETES = Set.of("TITLE", "ARTIST");
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private BenchProjection() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage : BenchProjection <repertoire de fichiers MP3>");
+            System.exit(2);
+        }
+
+        List<Path> fichiers;
+        try (Stream<Path> flux = Files.walk(Paths.get(args[0]))) {
+            fichiers = flux.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().toLowerCase().endsWith(".mp3"))
+                    .collect(Collectors.toList());
+        }
+        if (fichiers.isEmpty()) {
+            System.err.println("Aucun fichier MP3 dans " + args[0]);
+            System.exit(1);
+        }
+
+        MimeChecker mime = new CacheMimeChecker(new SignatureMimeAnalyzer(new SignatureMimeDetector()));
+        LibraryMetadataExtractor library = new LibraryMetadataExtractor(mime, new ExternalId3LibraryAdapter());
+        NativeId3MetadataExtractor natif = new NativeId3MetadataExtractor(mime, library);
+        Set<ChampMetadata> tous = ChampMetadata.tous();
+        Set<ChampMetadata> playlist = ChampMetadata.pourPlaylist();
+
+        System.out.println(fichiers.size() + " fichiers");
+        for (MetadataExtractor extracteur : new MetadataExtractor[]{library, natif}) {
+            String nom = extracteur.getClass().getSimpleName();
+            System.out.println(nom);
+            mesurer("complete", fichiers, p -> extracteur.extraire(p, tous));
+            mesurer("playlist", fichiers, p -> extracteur.extraire(p, playlist));
+            mesurer("tags bruts", fichiers, extracteur::extraireTagsBruts);
+            mesurer("tags " + TAGS_PROJETES.size(), fichiers, p -> extracteur.extraireTagsBruts(p, TAGS_PROJETES));
+        }
+    }
+
+    private static void mesurer(String nom, List<Path> fichiers, Lecture lecture) {
+        long tid = Thread.currentThread().threadId();
+        long meilleure = Long.MAX_VALUE;
+        long alloues = 0;
+        int echecs = 0;
+        for (int k = 0; k < ITERATIONS; k++) {
+            echecs = 0;
+            long a0 = THREADS.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            for (Path fichier : fichiers) {
+                try {
+                    lecture.lire(fichier);
+                } catch (RuntimeException e) {
+                    echecs++;
+                }
+            }
+            meilleure = Math.min(meilleure, System.nanoTime() - t0);
+            alloues = THREADS.getThreadAllocatedBytes(tid) - a0;
+        }
+        System.out.printf("  %-12s %8.1f us/fichier  %8.1f Ko alloues/fichier%s%n",
+                nom, meilleure / 1e3 / fichiers.size(), alloues / 1024.0 / fichiers.size(),
+                echecs > 0 ? "  (" + echecs + " echecs)" : "");
+    }
+
+    private interface Lecture {
+        Object lire(Path fichier);
+    }
+}
@@ -0,0 +1,126 @@
+package services.MetadonneesExtractor;
+
+import modele.metadonnees.CoverImage;
+import modele.metadonnees.Metadata;
+import services.mime.CacheMimeChecker;
+import services.mime.MimeChecker;
+import services.mime.SignatureMimeAnalyzer;
+import services.systeme.SignatureMimeDetector;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Vérifie que {@link NativeId3MetadataExtractor} produit les mêmes métadonnées
+ * que {@link LibraryMetadataExtractor} sur les fichiers MP3 d'un répertoire.
+ *
+ * Tous les champs sont comparés, pochette comprise (type MIME, taille, dimensions,
+ * empreinte) ; la durée est comparée au centième de seconde près, les deux lectures
+ * pouvant arrondir différemment le nombre d'échantillons. Chaque écart est affiché
+ * et le programme se termine avec le code 1 si au moins un fichier diffère.
+ *
+ * Exécution, après {@code mvn compile} (jaudiotagger dans le classpath) :
+ * <pre>
+ * javac -cp target/classes:jaudiotagger.jar -d target/bench src/bench/java/services/MetadonneesExtractor/VerificationExtracteurs.java
+ * java -cp target/classes:target/bench:jaudiotagger.jar services.MetadonneesExtractor.VerificationExtracteurs &lt;repertoire&gt;
+ * </pre>
+ */
+public final class VerificationExtracteurs {
+
+    private static final double TOLERANCE_DUREE = 0.01;
+
+    private VerificationExtracteurs() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage : VerificationExtracteurs <repertoire de fichiers MP3>");
+            System.exit(2);
+        }
+
+        List<Path> fichiers;
+        try (Stream<Path> flux = Files.walk(Paths.get(args[0]))) {
+            fichiers = flux.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().toLowerCase().endsWith(".mp3"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        MimeChecker mime = new CacheMimeChecker(new SignatureMimeAnalyzer(new SignatureMimeDetector()));
+        MagasinPochettes magasin = new MagasinPochettes();
+        LibraryMetadataExtractor reference = new LibraryMetadataExtractor(mime, new ExternalId3LibraryAdapter(), magasin);
+        NativeId3MetadataExtractor natif = new NativeId3MetadataExtractor(mime, reference, magasin);
+
+        int differents = 0;
+        int echecs = 0;
+        for (Path fichier : fichiers) {
+            Metadata attendu;
+            Metadata obtenu;
+            try {
+                attendu = reference.extraire(fichier);
+                obtenu = natif.extraire(fichier);
+            } catch (RuntimeException e) {
+                echecs++;
+                System.out.println(fichier + " : " + e);
+                continue;
+            }
+
+            List<String> ecarts = comparer(attendu, obtenu);
+            if (!ecarts.isEmpty()) {
+                differents++;
+                System.out.println(fichier);
+                for (String ecart : ecarts) {
+                    System.out.println("  " + ecart);
+                }
+            }
+        }
+
+        System.out.println(fichiers.size() + " fichiers, " + differents + " differents, " + echecs + " echecs");
+        if (differents > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static List<String> comparer(Metadata attendu, Metadata obtenu) {
+        List<String> ecarts = new ArrayList<>();
+        comparer(ecarts, "titre", attendu.getTitre(), obtenu.getTitre());
+        comparer(ecarts, "artiste", attendu.getArtiste(), obtenu.getArtiste());
+        comparer(ecarts, "album", attendu.getAlbum(), obtenu.getAlbum());
+        comparer(ecarts, "genre", attendu.getGenre(), obtenu.getGenre());
+        comparer(ecarts, "annee", attendu.getAnnee(), obtenu.getAnnee());
+        comparer(ecarts, "piste", attendu.getNumeroDePiste(), obtenu.getNumeroDePiste());
+        comparer(ecarts, "debit", attendu.getBitrateKbps(), obtenu.getBitrateKbps());
+        comparer(ecarts, "frequence", attendu.getSampleRateHz(), obtenu.getSampleRateHz());
+        comparer(ecarts, "canaux", attendu.getChannels(), obtenu.getChannels());
+        comparer(ecarts, "format", attendu.getFormat(), obtenu.getFormat());
+        comparer(ecarts, "encodage", attendu.getEncodingType(), obtenu.getEncodingType());
+        if (Math.abs(attendu.getDureeSeconde() - obtenu.getDureeSeconde()) > TOLERANCE_DUREE) {
+            ecarts.add("duree : " + attendu.getDureeSeconde() + " / " + obtenu.getDureeSeconde());
+        }
+
+        CoverImage a = attendu.getPochette();
+        CoverImage o = obtenu.getPochette();
+        comparer(ecarts, "pochette", a != null, o != null);
+        if (a != null && o != null) {
+            comparer(ecarts, "pochette type", a.getTypeMime(), o.getTypeMime());
+            comparer(ecarts, "pochette taille", a.getTaille(), o.getTaille());
+            comparer(ecarts, "pochette largeur", a.getLargeur(), o.getLargeur());
+            comparer(ecarts, "pochette hauteur", a.getHauteur(), o.getHauteur());
+            comparer(ecarts, "pochette empreinte", a.getEmpreinte(), o.getEmpreinte());
+        }
+        return ecarts;
+    }
+
+    private static void comparer(List<String> ecarts, String champ, Object attendu, Object obtenu) {
+        if (!Objects.equals(attendu, obtenu)) {
+            ecarts.add(champ + " : " + attendu + " / " + obtenu);
+        }
+    }
+}
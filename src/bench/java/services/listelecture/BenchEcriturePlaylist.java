@@ -0,0 +1,175 @@
+package services.listelecture;
+
+import modele.audio.AbstractAudioFile;
+import modele.audio.AudioFormat;
+import modele.metadonnees.Metadata;
+import modele.metadonnees.MetadataBuilder;
+import modele.playlist.PisteAudio;
+import modele.playlist.Playable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mesure du débit et des allocations de l'écriture des playlists.
+ *
+ * JMH n'étant pas résolu par le build, ce banc est un simple programme : il écrit
+ * {@value #ENTREES} entrées préconstruites avec chaque format, puis compare
+ * l'échappement actuel ({@link Echappement}) à l'ancien (l'ancienne méthode {@code nettoyer}
+ * suivie d'un échappement vers un {@code StringBuilder}, reproduits ici) sur les mêmes valeurs.
+ * Les octets alloués sont lus par {@code com.sun.management.ThreadMXBean}.
+ *
+ * Exécution, après {@code mvn compile} :
+ * <pre>
+ * javac -cp target/classes -d target/bench src/bench/java/services/listelecture/BenchEcriturePlaylist.java
+ * java -cp target/classes:target/bench services.listelecture.BenchEcriturePlaylist [speciaux]
+ * </pre>
+ * Avec l'argument {@code speciaux}, les titres et chemins contiennent des caractères à échapper.
+ */
+public final class BenchEcriturePlaylist {
+
+    private static final int ENTREES = 200_000;
+    private static final int ITERATIONS = 8;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private BenchEcriturePlaylist() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean speciaux = args.length > 0 && args[0].equals("speciaux");
+        List<Playable> entrees = construireEntrees(speciaux);
+
+        Path sortie = Files.createTempFile("bench-playlist", ".tmp");
+        try {
+            System.out.println("Ecriture complete (" + ENTREES + " entrees" + (speciaux ? ", caracteres speciaux" : "") + ")");
+            for (PlaylistWriter writer : new PlaylistWriter[]{new M3U8Writer(), new XSPFWriter(), new JSPFWriter()}) {
+                mesurer(writer.getClass().getSimpleName(), () -> writer.ecrire("Bench", entrees.iterator(), sortie));
+            }
+        } finally {
+            Files.deleteIfExists(sortie);
+        }
+
+        Writer puits = Writer.nullWriter();
+        System.out.println("Echappement seul (emplacement + titre)");
+        mesurer("xml avant", () -> {
+            for (Playable p : entrees) {
+                puits.write(ancienXml(nettoyer(p.obtenirEmplacement())));
+                puits.write(ancienXml(nettoyer(p.obtenirTitreAffichage())));
+            }
+        });
+        mesurer("xml apres", () -> {
+            for (Playable p : entrees) {
+                Echappement.xml(puits, p.obtenirEmplacement());
+                Echappement.xml(puits, p.obtenirTitreAffichage());
+            }
+        });
+        mesurer("json avant", () -> {
+            for (Playable p : entrees) {
+                puits.write(ancienJson(nettoyer(p.obtenirEmplacement())));
+                puits.write(ancienJson(nettoyer(p.obtenirTitreAffichage())));
+            }
+        });
+        mesurer("json apres", () -> {
+            for (Playable p : entrees) {
+                Echappement.json(puits, p.obtenirEmplacement());
+                Echappement.json(puits, p.obtenirTitreAffichage());
+            }
+        });
+    }
+
+    private static List<Playable> construireEntrees(boolean speciaux) {
+        List<Playable> entrees = new ArrayList<>(ENTREES);
+        for (int i = 0; i < ENTREES; i++) {
+            Path chemin = Paths.get("/musique/Artiste " + (i % 500) + "/Album " + (i % 50) + "/"
+                    + i + (speciaux ? " Rock & Roll.mp3" : " Titre.mp3"));
+            Metadata meta = new MetadataBuilder()
+                    .avecTitre(speciaux ? "Piste \"n\" " + i + " <live>" : "Piste numero " + i)
+                    .construire();
+            PisteAudio piste = new PisteAudio(new Fichier(chemin, meta, 215.3));
+            piste.obtenirEmplacement();
+            entrees.add(piste);
+        }
+        return entrees;
+    }
+
+    private static void mesurer(String nom, Travail travail) throws Exception {
+        long tid = Thread.currentThread().threadId();
+        double meilleur = 0;
+        long alloues = 0;
+        for (int k = 0; k < ITERATIONS; k++) {
+            long a0 = THREADS.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            travail.executer();
+            long duree = System.nanoTime() - t0;
+            alloues = THREADS.getThreadAllocatedBytes(tid) - a0;
+            meilleur = Math.max(meilleur, ENTREES / (duree / 1e9));
+        }
+        System.out.printf("  %-12s %6.2f M entrees/s  %7.1f octets alloues/entree%n",
+                nom, meilleur / 1e6, (double) alloues / ENTREES);
+    }
+
+    /** Ancien nettoyage commun à tous les formats, retiré de {@link AbstractPlaylistWriter}. */
+    private static String nettoyer(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        return texte
+                .replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;");
+    }
+
+    /** Ancien échappement XML, appliqué après {@code nettoyer}. */
+    private static String ancienXml(String valeur) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            switch (c) {
+                case '&': sb.append("&amp;"); break;
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '"': sb.append("&quot;"); break;
+                case '\'': sb.append("&apos;"); break;
+                default: sb.append(c); break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Ancien échappement JSON, appliqué après {@code nettoyer}. */
+    private static String ancienJson(String valeur) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '"': sb.append("\\\""); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default: sb.append(c); break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private interface Travail {
+        void executer() throws IOException, PlaylistWriteException;
+    }
+
+    private static final class Fichier extends AbstractAudioFile {
+        Fichier(Path chemin, Metadata metadonnees, double duree) {
+            super(chemin, AudioFormat.MP3);
+            definirMetadonnees(metadonnees);
+            definirDureeSecondes(duree);
+        }
+    }
+}
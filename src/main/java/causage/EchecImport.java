@@ -0,0 +1,49 @@
+package causage;
+
+import java.nio.file.Path;
+
+/**
+ * Échec de l’import d’un fichier : chemin concerné et erreur rencontrée.
+ * Un échec n’interrompt pas l’import des autres fichiers.
+ *
+ * @version 1.0
+ */
+public class EchecImport {
+
+    private final Path chemin;
+    private final Exception cause;
+
+    /**
+     * Construit un échec d’import.
+     *
+     * @param chemin fichier dont l’import a échoué
+     * @param cause erreur rencontrée
+     */
+    public EchecImport(Path chemin, Exception cause) {
+        this.chemin = chemin;
+        this.cause = cause;
+    }
+
+    /** Retourne le fichier dont l’import a échoué. */
+    public Path getChemin() {
+        return chemin;
+    }
+
+    /** Retourne l’erreur rencontrée. */
+    public Exception getCause() {
+        return cause;
+    }
+
+    /** Retourne le message de l’erreur (ou son type si elle n’en a pas). */
+    public String getMessage() {
+        if (cause == null) {
+            return "";
+        }
+        return (cause.getMessage() != null) ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    @Override
+    public String toString() {
+        return chemin + " : " + getMessage();
+    }
+}
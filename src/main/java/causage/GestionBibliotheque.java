@@ -1,18 +1,40 @@
 package causage;
 
 import modele.audio.AudioFile;
+import modele.audio.DiffuseurBibliotheque;
 import modele.audio.MP3File;
+import modele.metadonnees.ID3TagSet;
+import modele.metadonnees.Metadata;
+import services.MetadonneesExtractor.CacheMetadataExtractor;
+import services.MetadonneesExtractor.ChampMetadata;
 import services.MetadonneesExtractor.MetadataExtractor;
 import services.scan.DirectoryScanner;
+import services.scan.InstantaneScan;
+import services.systeme.EntreeRepertoire;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Cas d’usage d’importation d’une bibliothèque musicale.
  * Coordonne le scan d’un répertoire et le chargement des métadonnées audio.
+ *
+ * Les fichiers importés sont aussi signalés au {@link DiffuseurBibliotheque} du gestionnaire :
+ * une playlist filtrée qui y est inscrite se remplit au fil de l’import, sans refiltrage.
  * @version 1.0
  */
 public class GestionBibliotheque {
@@ -27,6 +49,15 @@ public class GestionBibliotheque {
      */
     private MetadataExtractor extracteur;
 
+    /**
+     * Diffuseur des fichiers importés, ajoutés, modifiés ou supprimés.
+     */
+    private final DiffuseurBibliotheque diffuseur = new DiffuseurBibliotheque();
+
+    /** Projection complète, utilisée par le réimport incrémental. */
+    private static final Set<ChampMetadata> TOUS_LES_CHAMPS =
+            Collections.unmodifiableSet(ChampMetadata.tous());
+
     /**
      * Initialise le gestionnaire avec les services requis.
      *
@@ -45,6 +76,16 @@ public class GestionBibliotheque {
         this.extracteur = extracteur;
     }
 
+    /**
+     * Retourne le diffuseur auquel inscrire les écouteurs (playlists filtrées...)
+     * à tenir informés des imports. Les écouteurs sont notifiés sur le thread de l’import.
+     *
+     * @return diffuseur du gestionnaire
+     */
+    public DiffuseurBibliotheque getDiffuseur() {
+        return diffuseur;
+    }
+
     /**
      * Importe un répertoire de musique et charge les métadonnées des fichiers MP3.
      *
@@ -64,8 +105,397 @@ public class GestionBibliotheque {
             MP3File mp3 = new MP3File(chemin);
             mp3.chargerMetadonnees(extracteur);
             fichiers.add(mp3);
+            diffuseur.fichierAjoute(mp3);
         }
 
         return fichiers;
     }
+
+    /**
+     * Importe un répertoire de musique en flux : chaque fichier MP3 est transmis
+     * au consommateur dès que ses métadonnées sont chargées, sans attendre la fin du scan.
+     *
+     * @param repertoire répertoire à analyser
+     * @param consommateur action appelée pour chaque fichier importé (non nulle)
+     * @return nombre de fichiers importés
+     * @throws IOException en cas d’erreur d’entrée/sortie
+     */
+    public int importerDossier(Path repertoire, Consumer<AudioFile> consommateur) throws IOException {
+        if (repertoire == null) {
+            throw new IllegalArgumentException("Le répertoire ne doit pas être nul.");
+        }
+        if (consommateur == null) {
+            throw new IllegalArgumentException("Le consommateur ne doit pas être nul.");
+        }
+
+        int total = 0;
+
+        try (Stream<Path> chemins = scanner.scannerEnFlux(repertoire)) {
+            for (Path chemin : (Iterable<Path>) chemins::iterator) {
+                MP3File mp3 = new MP3File(chemin);
+                mp3.chargerMetadonnees(extracteur);
+                diffuseur.fichierAjoute(mp3);
+                consommateur.accept(mp3);
+                total++;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Importe un répertoire sous forme de flux paresseux : chaque fichier MP3 n’est créé
+     * et ses champs chargés qu’au moment où le flux le consomme. Aucune liste n’est
+     * construite, ce qui permet par exemple d’écrire une playlist pendant le scan.
+     * Le flux doit être fermé après usage.
+     *
+     * @param repertoire répertoire à analyser
+     * @param champs champs à extraire
+     * @return flux des fichiers importés, dans l’ordre du scan
+     * @throws IOException en cas d’erreur d’entrée/sortie à l’ouverture du scan
+     */
+    public Stream<AudioFile> importerEnFlux(Path repertoire, Set<ChampMetadata> champs) throws IOException {
+        if (repertoire == null) {
+            throw new IllegalArgumentException("Le répertoire ne doit pas être nul.");
+        }
+        if (champs == null) {
+            throw new IllegalArgumentException("Les champs demandés ne doivent pas être nuls.");
+        }
+        return scanner.scannerEnFlux(repertoire).map(chemin -> {
+            AudioFile fichier = chargerFichier(chemin, champs);
+            diffuseur.fichierAjoute(fichier);
+            return fichier;
+        });
+    }
+
+    /**
+     * Importe un répertoire en répartissant l’extraction des métadonnées
+     * sur autant de threads que de processeurs disponibles.
+     *
+     * @param repertoire répertoire à analyser
+     * @return fichiers importés (dans l’ordre du scan) et fichiers en échec
+     * @throws IOException en cas d’erreur d’entrée/sortie lors du scan
+     * @see #importerDossierEnParallele(Path, int)
+     */
+    public ResultatImport importerDossierEnParallele(Path repertoire) throws IOException {
+        return importerDossierEnParallele(repertoire, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Importe un répertoire en parallèle : les métadonnées sont extraites par un pool
+     * borné de {@code concurrence} threads, ce qui recouvre les temps d’accès disque
+     * et occupe plusieurs cœurs.
+     *
+     * La liste retournée respecte l’ordre du scan. Une erreur d’extraction sur un fichier
+     * (par exemple une {@code MetadataException}) n’interrompt pas l’import :
+     * le fichier est simplement reporté dans les échecs du résultat.
+     *
+     * @param repertoire répertoire à analyser
+     * @param concurrence nombre maximal d’extractions simultanées (doit être >= 1)
+     * @return fichiers importés (dans l’ordre du scan) et fichiers en échec
+     * @throws IOException en cas d’erreur d’entrée/sortie lors du scan,
+     *                     ou si l’import est interrompu
+     */
+    public ResultatImport importerDossierEnParallele(Path repertoire, int concurrence) throws IOException {
+        return importerDossierEnParallele(repertoire, concurrence, ChampMetadata.tous());
+    }
+
+    /**
+     * Importe un répertoire en parallèle en n’extrayant que les champs demandés,
+     * par exemple {@link ChampMetadata#pourPlaylist()} pour générer une playlist
+     * sans lire les pochettes ni les champs inutiles.
+     *
+     * @param repertoire répertoire à analyser
+     * @param concurrence nombre maximal d’extractions simultanées (doit être >= 1)
+     * @param champs champs à extraire
+     * @return fichiers importés (dans l’ordre du scan) et fichiers en échec
+     * @throws IOException en cas d’erreur d’entrée/sortie lors du scan,
+     *                     ou si l’import est interrompu
+     * @see #importerDossierEnParallele(Path, int)
+     */
+    public ResultatImport importerDossierEnParallele(Path repertoire, int concurrence,
+                                                     Set<ChampMetadata> champs) throws IOException {
+        if (repertoire == null) {
+            throw new IllegalArgumentException("Le répertoire ne doit pas être nul.");
+        }
+        if (concurrence < 1) {
+            throw new IllegalArgumentException("Le niveau de concurrence doit être >= 1.");
+        }
+        if (champs == null) {
+            throw new IllegalArgumentException("Les champs demandés ne doivent pas être nuls.");
+        }
+
+        List<Path> chemins = scanner.scanner(repertoire);
+        List<AudioFile> fichiers = new ArrayList<>(chemins.size());
+        List<EchecImport> echecs = new ArrayList<>();
+
+        if (chemins.isEmpty()) {
+            return new ResultatImport(fichiers, echecs);
+        }
+
+        ExecutorService executeur = Executors.newFixedThreadPool(
+                Math.min(concurrence, chemins.size()), tache -> {
+                    Thread t = new Thread(tache, "import-metadonnees");
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        try {
+            List<Future<AudioFile>> taches = new ArrayList<>(chemins.size());
+            for (Path chemin : chemins) {
+                taches.add(executeur.submit(() -> chargerFichier(chemin, champs)));
+            }
+
+            // Collecte dans l’ordre de soumission : l’ordre du scan est conservé
+            for (int i = 0; i < taches.size(); i++) {
+                try {
+                    AudioFile fichier = taches.get(i).get();
+                    fichiers.add(fichier);
+                    diffuseur.fichierAjoute(fichier);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    echecs.add(new EchecImport(chemins.get(i), (Exception) cause));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrompu : " + repertoire, e);
+        } finally {
+            executeur.shutdownNow();
+        }
+
+        return new ResultatImport(fichiers, echecs);
+    }
+
+    /**
+     * Crée le fichier MP3 et charge les champs demandés de ses métadonnées.
+     *
+     * @param chemin chemin du fichier
+     * @param champs champs à extraire
+     * @return fichier audio chargé
+     */
+    private AudioFile chargerFichier(Path chemin, Set<ChampMetadata> champs) {
+        MP3File mp3 = new MP3File(chemin);
+        mp3.chargerMetadonnees(extracteur, champs);
+        return mp3;
+    }
+
+    /**
+     * Reconstitue la bibliothèque d’un répertoire à partir du cache de métadonnées,
+     * sans parcourir le disque ni relire les tags.
+     *
+     * Les fichiers retournés reflètent l’état du dernier import : ils doivent ensuite
+     * être validés par un import passant par le même cache
+     * (seuls les fichiers modifiés ou nouveaux sont alors relus).
+     *
+     * @param repertoire répertoire de la bibliothèque
+     * @param cache cache de métadonnées (non nul)
+     * @return fichiers connus du cache sous ce répertoire, triés par chemin
+     */
+    public List<AudioFile> chargerDepuisCache(Path repertoire, CacheMetadataExtractor cache) {
+        if (repertoire == null) {
+            throw new IllegalArgumentException("Le répertoire ne doit pas être nul.");
+        }
+        if (cache == null) {
+            throw new IllegalArgumentException("Le cache de métadonnées ne doit pas être nul.");
+        }
+
+        MetadataExtractor lecture = new MetadataExtractor() {
+            @Override
+            public Metadata extraire(Path chemin) {
+                return cache.lireSansValidation(chemin);
+            }
+
+            @Override
+            public ID3TagSet extraireTagsBruts(Path chemin) {
+                return cache.extraireTagsBruts(chemin);
+            }
+        };
+
+        List<Path> chemins = cache.chemins(repertoire);
+        List<AudioFile> fichiers = new ArrayList<>(chemins.size());
+        for (Path chemin : chemins) {
+            MP3File mp3 = new MP3File(chemin);
+            mp3.chargerMetadonnees(lecture);
+            fichiers.add(mp3);
+        }
+        return fichiers;
+    }
+
+    /**
+     * Réimporte un répertoire de manière incrémentale.
+     *
+     * @param repertoire répertoire à analyser
+     * @param precedents fichiers issus de l’import précédent (peut être null ou vide)
+     * @param fichierInstantane fichier binaire de l’instantané (créé s’il n’existe pas)
+     * @return liste à jour et détail des changements
+     * @throws IOException en cas d’erreur d’entrée/sortie
+     * @see #reimporterDossier(Path, List, Path, Consumer)
+     */
+    public ResultatReimport reimporterDossier(Path repertoire,
+                                              List<AudioFile> precedents,
+                                              Path fichierInstantane) throws IOException {
+        return reimporterDossier(repertoire, precedents, fichierInstantane, null);
+    }
+
+    /**
+     * Réimporte un répertoire de manière incrémentale.
+     *
+     * L’arborescence est rescannée et chaque fichier est comparé à l’instantané
+     * (chemin, taille, date de modification) du scan précédent, avec les attributs
+     * lus par le scanner : aucun fichier n’est réinterrogé.
+     * Un fichier inchangé présent dans {@code precedents} est repris tel quel.
+     * Sinon ses métadonnées sont obtenues par l’extracteur ; si celui-ci est un
+     * {@link CacheMetadataExtractor}, le cache persistant est validé avec les mêmes
+     * attributs et seuls les fichiers absents du cache ou modifiés sont relus :
+     * un nouveau processus ne réextrait donc pas toute la bibliothèque.
+     * Les entrées du cache des fichiers disparus sont retirées.
+     *
+     * Les compteurs ne dépendent que de l’instantané : un fichier inconnu de
+     * l’instantané est ajouté, un fichier connu est modifié ou inchangé selon
+     * sa taille et sa date, quelle que soit l’origine de ses métadonnées.
+     * Le nouvel instantané remplace l’ancien sur disque.
+     *
+     * Seuls les changements sont signalés au diffuseur : fichiers ajoutés,
+     * modifiés (l’ancienne version est null si elle n’est pas dans {@code precedents})
+     * et supprimés.
+     *
+     * Un fichier dont l’extraction échoue n’interrompt pas le réimport : il est signalé
+     * parmi les échecs, n’entre ni dans la liste ni dans les compteurs, et reste hors
+     * de l’instantané afin d’être relu au réimport suivant. S’il figurait dans
+     * l’ancien instantané, il est signalé comme supprimé aux écouteurs.
+     *
+     * @param repertoire répertoire à analyser
+     * @param precedents fichiers issus de l’import précédent (peut être null ou vide)
+     * @param fichierInstantane fichier binaire de l’instantané (créé s’il n’existe pas)
+     * @param consommateur action appelée pour chaque fichier dès qu’il est prêt (peut être null)
+     * @return liste à jour et détail des changements
+     * @throws IOException en cas d’erreur d’entrée/sortie
+     */
+    public ResultatReimport reimporterDossier(Path repertoire,
+                                              List<AudioFile> precedents,
+                                              Path fichierInstantane,
+                                              Consumer<AudioFile> consommateur) throws IOException {
+        if (repertoire == null) {
+            throw new IllegalArgumentException("Le répertoire ne doit pas être nul.");
+        }
+        if (fichierInstantane == null) {
+            throw new IllegalArgumentException("Le fichier d'instantané ne doit pas être nul.");
+        }
+
+        InstantaneScan ancien = InstantaneScan.charger(fichierInstantane);
+        InstantaneScan nouveau = new InstantaneScan();
+        CacheMetadataExtractor cache = (extracteur instanceof CacheMetadataExtractor)
+                ? (CacheMetadataExtractor) extracteur
+                : null;
+
+        Map<Path, AudioFile> connus = new HashMap<>();
+        if (precedents != null) {
+            for (AudioFile af : precedents) {
+                if (af != null) {
+                    connus.put(af.obtenirChemin().toAbsolutePath().normalize(), af);
+                }
+            }
+        }
+
+        List<AudioFile> fichiers = new ArrayList<>();
+        List<Path> presents = new ArrayList<>();
+        List<EchecImport> echecs = new ArrayList<>();
+        Set<Path> enEchec = new HashSet<>();
+        int ajoutes = 0;
+        int modifies = 0;
+        int inchanges = 0;
+
+        try (Stream<EntreeRepertoire> entrees = scanner.scannerAvecAttributs(repertoire)) {
+            for (EntreeRepertoire entree : (Iterable<EntreeRepertoire>) entrees::iterator) {
+                Path absolu = entree.getChemin().toAbsolutePath().normalize();
+                BasicFileAttributes attributs = entree.getAttributs();
+                long taille = attributs.size();
+                long date = attributs.lastModifiedTime().toMillis();
+
+                boolean inchange = ancien.estInchange(absolu, taille, date);
+                AudioFile precedent = connus.get(absolu);
+                AudioFile fichier = inchange ? precedent : null;
+                if (fichier == null) {
+                    MP3File mp3 = new MP3File(absolu);
+                    try {
+                        if (cache != null) {
+                            mp3.chargerMetadonnees(lectureAvecAttributs(cache, attributs));
+                        } else {
+                            mp3.chargerMetadonnees(extracteur);
+                        }
+                    } catch (RuntimeException e) {
+                        echecs.add(new EchecImport(absolu, e));
+                        enEchec.add(absolu);
+                        continue;
+                    }
+                    fichier = mp3;
+                }
+
+                nouveau.enregistrer(absolu, taille, date);
+                presents.add(absolu);
+                if (inchange) {
+                    inchanges++;
+                } else if (ancien.contient(absolu)) {
+                    modifies++;
+                } else {
+                    ajoutes++;
+                }
+
+                if (!inchange) {
+                    if (ancien.contient(absolu)) {
+                        diffuseur.fichierModifie(precedent, fichier);
+                    } else {
+                        diffuseur.fichierAjoute(fichier);
+                    }
+                }
+
+                fichiers.add(fichier);
+                if (consommateur != null) {
+                    consommateur.accept(fichier);
+                }
+            }
+        }
+
+        int supprimes = 0;
+        for (String chemin : ancien.chemins()) {
+            Path disparu = Path.of(chemin);
+            if (!nouveau.contient(disparu)) {
+                if (!enEchec.contains(disparu)) {
+                    supprimes++;
+                }
+                // Les écouteurs identifient les fichiers par leur chemin
+                AudioFile precedent = connus.get(disparu);
+                diffuseur.fichierSupprime(precedent != null ? precedent : new MP3File(disparu));
+            }
+        }
+
+        if (cache != null) {
+            cache.purger(repertoire, presents);
+        }
+        nouveau.sauvegarder(fichierInstantane);
+
+        return new ResultatReimport(fichiers, ajoutes, modifies, inchanges, supprimes, echecs);
+    }
+
+    /**
+     * Extracteur validant le cache avec des attributs déjà lus par le scanner.
+     */
+    private MetadataExtractor lectureAvecAttributs(CacheMetadataExtractor cache,
+                                                   BasicFileAttributes attributs) {
+        return new MetadataExtractor() {
+            @Override
+            public Metadata extraire(Path chemin) {
+                return cache.extraire(chemin, attributs, TOUS_LES_CHAMPS);
+            }
+
+            @Override
+            public ID3TagSet extraireTagsBruts(Path chemin) {
+                return cache.extraireTagsBruts(chemin);
+            }
+        };
+    }
 }
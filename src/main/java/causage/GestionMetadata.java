@@ -57,4 +57,17 @@ public class GestionMetadata {
         }
         return extracteur.extraireTagsBruts(fichier);
     }
+
+    /**
+     * Lit en une seule analyse du fichier ses métadonnées métier et ses tags bruts ID3.
+     *
+     * @param fichier chemin du fichier audio
+     * @return métadonnées et tags bruts
+     */
+    public MetadonneesEtTags lireTout(Path fichier) {
+        if (fichier == null) {
+            throw new IllegalArgumentException("Le fichier ne doit pas être nul.");
+        }
+        return extracteur.extraireTout(fichier);
+    }
 }
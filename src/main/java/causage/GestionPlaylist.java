@@ -1,24 +1,35 @@
 package causage;
 
 import modele.audio.AudioFile;
-import modele.playlist.Playlist;
-import modele.playlist.PlaylistEntry;
+import modele.playlist.PisteAudio;
 import modele.playlist.PlaylistFormat;
+import services.listelecture.ExportMultiFormat;
 import services.listelecture.FabriqueEcriturePlaylist;
 import services.listelecture.PlaylistWriteException;
 import services.listelecture.PlaylistWriter;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Cas d’usage de génération de playlists audio.
- * Construit une playlist et la persiste sur disque selon un format donné.
+ * Écrit une playlist sur disque selon un format donné, en flux :
+ * les fichiers sont écrits un par un sans construire de playlist en mémoire.
  *
- * @version 1.0
+ * @version 2.0
  */
 public class GestionPlaylist {
 
+    /** Nom des playlists générées. */
+    private static final String NOM_PLAYLIST = "Playlist générée";
+
+    /** Nombre de fichiers à partir duquel la mise en forme est répartie sur plusieurs cœurs. */
+    public static final int SEUIL_ECRITURE_PARALLELE = 100_000;
+
     /**
      * Fabrique fournissant le writer adapté au format de playlist.
      */
@@ -39,6 +50,8 @@ public class GestionPlaylist {
 
     /**
      * Génère un fichier de playlist à partir d’une liste de fichiers audio.
+     * Au-delà de {@link #SEUIL_ECRITURE_PARALLELE} fichiers, les entrées sont mises
+     * en forme sur tous les cœurs disponibles.
      *
      * @param fichiers liste des fichiers audio
      * @param format format de playlist
@@ -59,16 +72,69 @@ public class GestionPlaylist {
             throw new IllegalArgumentException("Le chemin de sortie ne doit pas être nul.");
         }
 
-        Playlist playlist = new Playlist("Playlist générée");
+        int concurrence = Runtime.getRuntime().availableProcessors();
+        if (fichiers.size() < SEUIL_ECRITURE_PARALLELE || concurrence < 2) {
+            genererPlaylist(fichiers.stream(), format, out);
+            return;
+        }
 
-        int indice = 1;
+        List<PisteAudio> pistes = new ArrayList<>(fichiers.size());
         for (AudioFile fichier : fichiers) {
-            if (fichier == null) continue;
-            PlaylistEntry entry = new PlaylistEntry(fichier, indice++);
-            playlist.ajouterElement(entry);
+            if (fichier != null) {
+                pistes.add(new PisteAudio(fichier));
+            }
+        }
+        writerFactory.pourFormat(format).ecrireEnParallele(NOM_PLAYLIST, pistes, out, concurrence);
+    }
+
+    /**
+     * Génère un fichier de playlist à partir d’un flux de fichiers audio,
+     * par exemple {@link GestionBibliotheque#importerEnFlux}. Chaque fichier est écrit
+     * dès qu’il est lu ; le flux est fermé à la fin de l’écriture.
+     *
+     * @param fichiers flux des fichiers audio (les éléments nuls sont ignorés)
+     * @param format format de playlist
+     * @param out chemin du fichier de sortie
+     * @throws PlaylistWriteException en cas d’erreur d’écriture
+     */
+    public void genererPlaylist(Stream<? extends AudioFile> fichiers,
+                                PlaylistFormat format,
+                                Path out) throws PlaylistWriteException {
+
+        if (fichiers == null) {
+            throw new IllegalArgumentException("Le flux de fichiers ne doit pas être nul.");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Le format de playlist ne doit pas être nul.");
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("Le chemin de sortie ne doit pas être nul.");
         }
 
         PlaylistWriter writer = writerFactory.pourFormat(format);
-        writer.ecrire(playlist, out);
+        writer.ecrire(NOM_PLAYLIST, fichiers.filter(Objects::nonNull).map(PisteAudio::new), out);
+    }
+
+    /**
+     * Génère une même playlist dans plusieurs formats, en un seul parcours des fichiers :
+     * titre, emplacement et durée sont calculés une fois, puis tous les formats
+     * sont écrits en même temps (voir {@link ExportMultiFormat}).
+     *
+     * @param fichiers liste des fichiers audio
+     * @param sorties chemin du fichier de sortie de chaque format
+     * @throws PlaylistWriteException en cas d’erreur d’écriture
+     */
+    public void genererPlaylists(List<AudioFile> fichiers,
+                                 Map<PlaylistFormat, Path> sorties) throws PlaylistWriteException {
+
+        if (fichiers == null || fichiers.isEmpty()) {
+            throw new IllegalArgumentException("La liste de fichiers ne doit pas être vide.");
+        }
+        if (sorties == null || sorties.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un format de sortie doit être demandé.");
+        }
+
+        new ExportMultiFormat(writerFactory).exporter(NOM_PLAYLIST,
+                fichiers.stream().filter(Objects::nonNull).map(PisteAudio::new).iterator(), sorties);
     }
 }
@@ -0,0 +1,52 @@
+package causage;
+
+import modele.audio.AudioFile;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Résultat d’un import de bibliothèque musicale :
+ * fichiers importés (dans l’ordre du scan) et fichiers en échec.
+ *
+ * @version 1.0
+ */
+public class ResultatImport {
+
+    private final List<AudioFile> fichiers;
+    private final List<EchecImport> echecs;
+
+    /**
+     * Construit un résultat d’import.
+     *
+     * @param fichiers fichiers audio importés, dans l’ordre du scan
+     * @param echecs fichiers dont l’extraction a échoué
+     */
+    public ResultatImport(List<AudioFile> fichiers, List<EchecImport> echecs) {
+        this.fichiers = fichiers;
+        this.echecs = echecs;
+    }
+
+    /** Retourne les fichiers importés (non modifiable). */
+    public List<AudioFile> getFichiers() {
+        return Collections.unmodifiableList(fichiers);
+    }
+
+    /** Retourne les échecs d’import (non modifiable). */
+    public List<EchecImport> getEchecs() {
+        return Collections.unmodifiableList(echecs);
+    }
+
+    /** Indique si au moins un fichier n’a pas pu être importé. */
+    public boolean aDesEchecs() {
+        return !echecs.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ResultatImport{" +
+                "fichiers=" + fichiers.size() +
+                ", echecs=" + echecs.size() +
+                '}';
+    }
+}
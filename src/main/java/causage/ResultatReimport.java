@@ -0,0 +1,90 @@
+package causage;
+
+import modele.audio.AudioFile;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Résultat d’un réimport incrémental d’une bibliothèque musicale.
+ * Regroupe la liste à jour des fichiers, le détail des changements détectés
+ * et les fichiers dont l’extraction a échoué.
+ *
+ * @version 1.0
+ */
+public class ResultatReimport {
+
+    private final List<AudioFile> fichiers;
+    private final int ajoutes;
+    private final int modifies;
+    private final int inchanges;
+    private final int supprimes;
+    private final List<EchecImport> echecs;
+
+    /**
+     * Construit un résultat de réimport.
+     *
+     * @param fichiers liste à jour des fichiers audio
+     * @param ajoutes nombre de fichiers apparus depuis le dernier scan
+     * @param modifies nombre de fichiers dont la taille ou la date a changé
+     * @param inchanges nombre de fichiers repris sans nouvelle extraction
+     * @param supprimes nombre de fichiers disparus depuis le dernier scan
+     * @param echecs fichiers dont l’extraction a échoué
+     */
+    public ResultatReimport(List<AudioFile> fichiers, int ajoutes, int modifies,
+                            int inchanges, int supprimes, List<EchecImport> echecs) {
+        this.fichiers = fichiers;
+        this.ajoutes = ajoutes;
+        this.modifies = modifies;
+        this.inchanges = inchanges;
+        this.supprimes = supprimes;
+        this.echecs = echecs;
+    }
+
+    /** Retourne la liste à jour des fichiers audio (non modifiable). */
+    public List<AudioFile> getFichiers() {
+        return Collections.unmodifiableList(fichiers);
+    }
+
+    /** Retourne le nombre de fichiers ajoutés. */
+    public int getAjoutes() {
+        return ajoutes;
+    }
+
+    /** Retourne le nombre de fichiers modifiés. */
+    public int getModifies() {
+        return modifies;
+    }
+
+    /** Retourne le nombre de fichiers inchangés. */
+    public int getInchanges() {
+        return inchanges;
+    }
+
+    /** Retourne le nombre de fichiers supprimés. */
+    public int getSupprimes() {
+        return supprimes;
+    }
+
+    /** Retourne les échecs d’extraction (non modifiable). */
+    public List<EchecImport> getEchecs() {
+        return Collections.unmodifiableList(echecs);
+    }
+
+    /** Indique si au moins un fichier n’a pas pu être relu. */
+    public boolean aDesEchecs() {
+        return !echecs.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ResultatReimport{" +
+                "fichiers=" + fichiers.size() +
+                ", ajoutes=" + ajoutes +
+                ", modifies=" + modifies +
+                ", inchanges=" + inchanges +
+                ", supprimes=" + supprimes +
+                ", echecs=" + echecs.size() +
+                '}';
+    }
+}
@@ -0,0 +1,422 @@
+package causage;
+
+import modele.audio.AudioFile;
+import modele.audio.EcouteurBibliotheque;
+import modele.audio.MP3File;
+import services.MetadonneesExtractor.MetadataException;
+import services.MetadonneesExtractor.MetadataExtractor;
+import services.scan.DirectoryScanner;
+import services.scan.FileFilter;
+import services.systeme.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cas d’usage de surveillance d’une bibliothèque musicale déjà importée.
+ *
+ * L’arborescence est enregistrée auprès d’un {@link WatchService} ; les créations,
+ * modifications et suppressions de fichiers mettent à jour la liste des fichiers audio
+ * et sont signalées à un {@link EcouteurBibliotheque}.
+ * Les rafales d’événements (copie d’un album...) sont regroupées : elles ne sont traitées
+ * qu’après un délai sans nouvel événement. En cas de débordement de la file
+ * d’événements, le répertoire concerné est simplement rescanné.
+ *
+ * @version 1.0
+ */
+public class SurveillanceBibliotheque implements AutoCloseable {
+
+    /** Délai d’attente par défaut avant traitement d’une rafale (ms). */
+    public static final long DELAI_PAR_DEFAUT_MS = 500;
+
+    private DirectoryScanner scanner;
+    private FileFilter filtre;
+    private MetadataExtractor extracteur;
+    private FileUtils fileUtils;
+    private long delaiMs;
+
+    private WatchService service;
+    private Thread thread;
+    private volatile boolean actif;
+    private EcouteurBibliotheque ecouteur;
+
+    /** Répertoire surveillé par chaque clé. */
+    private final Map<WatchKey, Path> repertoires = new HashMap<>();
+
+    /** Fichiers connus, indexés par chemin absolu normalisé. */
+    private final Map<Path, AudioFile> fichiers = new LinkedHashMap<>();
+
+    /** Date de modification (ms) des fichiers connus. */
+    private final Map<Path, Long> dates = new HashMap<>();
+
+    /**
+     * Initialise la surveillance avec le délai de regroupement par défaut.
+     *
+     * @param scanner service de scan utilisé pour rescanner un répertoire
+     * @param filtre filtre des fichiers à retenir (le même que celui du scanner)
+     * @param extracteur service d’extraction des métadonnées
+     */
+    public SurveillanceBibliotheque(DirectoryScanner scanner, FileFilter filtre,
+                                    MetadataExtractor extracteur) {
+        this(scanner, filtre, extracteur, DELAI_PAR_DEFAUT_MS);
+    }
+
+    /**
+     * Initialise la surveillance.
+     *
+     * @param scanner service de scan utilisé pour rescanner un répertoire (non nul)
+     * @param filtre filtre des fichiers à retenir (non nul)
+     * @param extracteur service d’extraction des métadonnées (non nul)
+     * @param delaiMs délai sans événement avant traitement d’une rafale, en ms (>= 0)
+     * @throws IllegalArgumentException si un paramètre est invalide
+     */
+    public SurveillanceBibliotheque(DirectoryScanner scanner, FileFilter filtre,
+                                    MetadataExtractor extracteur, long delaiMs) {
+        if (scanner == null) {
+            throw new IllegalArgumentException("Le scanner ne doit pas être nul.");
+        }
+        if (filtre == null) {
+            throw new IllegalArgumentException("Le filtre ne doit pas être nul.");
+        }
+        if (extracteur == null) {
+            throw new IllegalArgumentException("L'extracteur de métadonnées ne doit pas être nul.");
+        }
+        if (delaiMs < 0) {
+            throw new IllegalArgumentException("Le délai ne doit pas être négatif.");
+        }
+        this.scanner = scanner;
+        this.filtre = filtre;
+        this.extracteur = extracteur;
+        this.fileUtils = new FileUtils();
+        this.delaiMs = delaiMs;
+    }
+
+    /**
+     * Démarre la surveillance d’un répertoire déjà importé.
+     *
+     * @param racine répertoire racine à surveiller
+     * @param importes fichiers issus de l’import initial (peut être null)
+     * @param ecouteur écouteur notifié des changements (non nul)
+     * @throws IOException si l’arborescence ne peut pas être enregistrée
+     * @throws IllegalStateException si la surveillance est déjà démarrée
+     */
+    public void demarrer(Path racine, List<AudioFile> importes, EcouteurBibliotheque ecouteur)
+            throws IOException {
+        if (racine == null) {
+            throw new IllegalArgumentException("La racine ne doit pas être nulle.");
+        }
+        if (ecouteur == null) {
+            throw new IllegalArgumentException("L'écouteur ne doit pas être nul.");
+        }
+        if (actif) {
+            throw new IllegalStateException("La surveillance est déjà démarrée.");
+        }
+
+        this.ecouteur = ecouteur;
+
+        synchronized (fichiers) {
+            fichiers.clear();
+            dates.clear();
+            if (importes != null) {
+                for (AudioFile af : importes) {
+                    if (af == null) continue;
+                    Path chemin = af.obtenirChemin();
+                    fichiers.put(chemin, af);
+                    BasicFileAttributes a = fileUtils.lireAttributs(chemin);
+                    if (a != null) {
+                        dates.put(chemin, a.lastModifiedTime().toMillis());
+                    }
+                }
+            }
+        }
+
+        repertoires.clear();
+        this.service = FileSystems.getDefault().newWatchService();
+        enregistrerArbre(racine.toAbsolutePath().normalize());
+
+        actif = true;
+        thread = new Thread(this::boucler, "surveillance-bibliotheque");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Retourne une copie de la liste à jour des fichiers audio.
+     *
+     * @return fichiers connus, dans l’ordre d’import puis d’ajout
+     */
+    public List<AudioFile> obtenirFichiers() {
+        synchronized (fichiers) {
+            return new ArrayList<>(fichiers.values());
+        }
+    }
+
+    /**
+     * Indique si la surveillance est en cours.
+     *
+     * @return true si le thread de surveillance tourne
+     */
+    public boolean estActive() {
+        return actif;
+    }
+
+    /**
+     * Arrête la surveillance et libère le {@link WatchService}.
+     */
+    @Override
+    public void close() {
+        actif = false;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException ignored) {
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    /**
+     * Boucle du thread de surveillance : accumule les événements
+     * puis les traite après un délai de calme (ou au plus tard après dix délais).
+     */
+    private void boucler() {
+        Set<Path> enAttente = new LinkedHashSet<>();
+        Set<Path> aRescanner = new LinkedHashSet<>();
+        long debutRafale = 0;
+        long delaiMaxNs = TimeUnit.MILLISECONDS.toNanos(delaiMs * 10);
+
+        try {
+            while (actif) {
+                WatchKey cle = (enAttente.isEmpty() && aRescanner.isEmpty())
+                        ? service.take()
+                        : service.poll(delaiMs, TimeUnit.MILLISECONDS);
+
+                if (cle != null) {
+                    if (enAttente.isEmpty() && aRescanner.isEmpty()) {
+                        debutRafale = System.nanoTime();
+                    }
+                    collecter(cle, enAttente, aRescanner);
+                }
+
+                boolean calme = (cle == null);
+                boolean tropLong = System.nanoTime() - debutRafale > delaiMaxNs;
+                if ((calme || tropLong) && (!enAttente.isEmpty() || !aRescanner.isEmpty())) {
+                    for (Path repertoire : aRescanner) {
+                        rescannerRepertoire(repertoire);
+                    }
+                    for (Path chemin : enAttente) {
+                        traiterChemin(chemin);
+                    }
+                    enAttente.clear();
+                    aRescanner.clear();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // arrêt demandé
+        } finally {
+            actif = false;
+        }
+    }
+
+    /**
+     * Range les événements d’une clé dans les ensembles à traiter.
+     */
+    private void collecter(WatchKey cle, Set<Path> enAttente, Set<Path> aRescanner) {
+        Path repertoire = repertoires.get(cle);
+
+        for (WatchEvent<?> evenement : cle.pollEvents()) {
+            if (repertoire == null) continue;
+
+            if (evenement.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Des événements ont été perdus : on rescanne le répertoire concerné
+                aRescanner.add(repertoire);
+                continue;
+            }
+
+            Path nom = (Path) evenement.context();
+            enAttente.add(repertoire.resolve(nom));
+        }
+
+        if (!cle.reset()) {
+            repertoires.remove(cle);
+        }
+    }
+
+    /**
+     * Met à jour la bibliothèque pour un chemin ayant changé.
+     */
+    private void traiterChemin(Path chemin) {
+        BasicFileAttributes attributs = fileUtils.lireAttributs(chemin);
+
+        if (attributs == null) {
+            supprimerSousArbre(chemin);
+            return;
+        }
+
+        if (attributs.isDirectory()) {
+            // Nouveau répertoire (ou déplacé) : on l'enregistre et on le scanne
+            try {
+                enregistrerArbre(chemin);
+            } catch (IOException ignored) {
+            }
+            rescannerRepertoire(chemin);
+            return;
+        }
+
+        if (!attributs.isRegularFile() || !filtre.accepter(chemin, attributs)) {
+            supprimerSousArbre(chemin);
+            return;
+        }
+
+        charger(chemin, attributs.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Rescanne un répertoire et réconcilie son contenu avec la bibliothèque.
+     */
+    private void rescannerRepertoire(Path repertoire) {
+        List<Path> trouves;
+        try {
+            trouves = scanner.scanner(repertoire);
+            enregistrerArbre(repertoire);
+        } catch (Exception e) {
+            supprimerSousArbre(repertoire);
+            return;
+        }
+
+        Set<Path> presents = new HashSet<>();
+        for (Path chemin : trouves) {
+            Path absolu = chemin.toAbsolutePath().normalize();
+            presents.add(absolu);
+
+            BasicFileAttributes attributs = fileUtils.lireAttributs(absolu);
+            if (attributs != null) {
+                charger(absolu, attributs.lastModifiedTime().toMillis());
+            }
+        }
+
+        List<Path> disparus = new ArrayList<>();
+        synchronized (fichiers) {
+            for (Path connu : fichiers.keySet()) {
+                if (connu.startsWith(repertoire) && !presents.contains(connu)) {
+                    disparus.add(connu);
+                }
+            }
+        }
+        for (Path disparu : disparus) {
+            supprimerSousArbre(disparu);
+        }
+    }
+
+    /**
+     * Charge (ou recharge) un fichier si sa date de modification a changé.
+     */
+    private void charger(Path chemin, long date) {
+        AudioFile ancien;
+        synchronized (fichiers) {
+            ancien = fichiers.get(chemin);
+            Long dateConnue = dates.get(chemin);
+            if (ancien != null && dateConnue != null && dateConnue == date) {
+                return;
+            }
+        }
+
+        MP3File mp3 = new MP3File(chemin);
+        try {
+            mp3.chargerMetadonnees(extracteur);
+        } catch (MetadataException e) {
+            // Fichier probablement en cours de copie : un événement ultérieur le rechargera
+            return;
+        }
+
+        synchronized (fichiers) {
+            fichiers.put(chemin, mp3);
+            dates.put(chemin, date);
+        }
+
+        try {
+            if (ancien == null) {
+                ecouteur.fichierAjoute(mp3);
+            } else {
+                ecouteur.fichierModifie(ancien, mp3);
+            }
+        } catch (RuntimeException ignored) {
+            // Un écouteur défaillant ne doit pas arrêter la surveillance
+        }
+    }
+
+    /**
+     * Retire de la bibliothèque un fichier, ou tous les fichiers sous un répertoire.
+     */
+    private void supprimerSousArbre(Path chemin) {
+        List<AudioFile> retires = new ArrayList<>();
+        synchronized (fichiers) {
+            List<Path> cles = new ArrayList<>();
+            for (Path connu : fichiers.keySet()) {
+                if (connu.startsWith(chemin)) {
+                    cles.add(connu);
+                }
+            }
+            for (Path cle : cles) {
+                retires.add(fichiers.remove(cle));
+                dates.remove(cle);
+            }
+        }
+
+        for (AudioFile af : retires) {
+            try {
+                ecouteur.fichierSupprime(af);
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Enregistre un répertoire et tous ses sous-répertoires auprès du {@link WatchService}.
+     */
+    private void enregistrerArbre(Path racine) throws IOException {
+        Files.walkFileTree(racine, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey cle = dir.register(service,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                repertoires.put(cle, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
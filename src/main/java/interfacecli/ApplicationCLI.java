@@ -1,31 +1,48 @@
 package interfacecli;
 
+import causage.EchecImport;
 import causage.GestionBibliotheque;
 import causage.GestionMetadata;
 import causage.GestionPlaylist;
+import causage.ResultatImport;
+import causage.ResultatReimport;
+import causage.SurveillanceBibliotheque;
 import interfacegui.FenetreAudioExplorer;
 import modele.audio.AudioFile;
+import modele.audio.EcouteurBibliotheque;
+import modele.metadonnees.ID3TagSet;
+import modele.metadonnees.Id3Tag;
 import modele.metadonnees.Metadata;
 import modele.playlist.PlaylistFormat;
+import services.MetadonneesExtractor.CacheExternalId3LibraryAdapter;
+import services.MetadonneesExtractor.CacheMetadataExtractor;
+import services.MetadonneesExtractor.ChampMetadata;
 import services.MetadonneesExtractor.ExternalId3LibraryAdapter;
 import services.MetadonneesExtractor.LibraryMetadataExtractor;
+import services.MetadonneesExtractor.MagasinPochettes;
+import services.MetadonneesExtractor.NativeId3MetadataExtractor;
 import services.MetadonneesExtractor.MetadataExtractor;
+import services.MetadonneesExtractor.MetadonneesEtTags;
 import services.listelecture.FabriqueEcriturePlaylist;
+import services.mime.CacheMimeChecker;
 import services.mime.MimeChecker;
-import services.mime.MimeTypeAnalyzer;
+import services.mime.SignatureMimeAnalyzer;
 import services.scan.DirectoryScanner;
 import services.scan.FileFilter;
+import services.scan.InstantaneScan;
 import services.scan.Mp3FileFilter;
-import services.scan.RecursiveDirectoryScanner;
+import services.scan.ParallelDirectoryScanner;
 import services.systeme.FileSystemAdapter;
 import services.systeme.FileSystemPort;
 import services.systeme.FileUtils;
-import services.systeme.MimeTypeDetector;
+import services.systeme.SignatureMimeDetector;
 
 import javax.swing.SwingUtilities;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -41,6 +58,8 @@ public class ApplicationCLI {
     private GestionMetadata gestionMetadata;
     private GestionPlaylist gestionPlaylist;
     private MimeChecker mimeChecker;
+    private SurveillanceBibliotheque surveillanceBibliotheque;
+    private CacheMetadataExtractor cacheMetadonnees;
 
     /**
      * Initialise l’application CLI et instancie l’ensemble des dépendances.
@@ -48,20 +67,26 @@ public class ApplicationCLI {
     public ApplicationCLI() {
         FileSystemPort fs = new FileSystemAdapter();
 
-        MimeTypeDetector mimeDetector = new MimeTypeDetector();
-        this.mimeChecker = new MimeTypeAnalyzer(mimeDetector);
+        SignatureMimeDetector mimeDetector = new SignatureMimeDetector();
+        this.mimeChecker = new CacheMimeChecker(new SignatureMimeAnalyzer(mimeDetector));
 
         FileFilter filtre = new Mp3FileFilter(mimeChecker, new FileUtils());
-        DirectoryScanner scanner = new RecursiveDirectoryScanner(filtre, fs);
+        // Les sous-répertoires sont parcourus en parallèle (fork/join)
+        DirectoryScanner scanner = new ParallelDirectoryScanner(filtre, fs);
 
-        ExternalId3LibraryAdapter ext = new ExternalId3LibraryAdapter();
-        MetadataExtractor extractor = new LibraryMetadataExtractor(mimeChecker, ext);
+        ExternalId3LibraryAdapter ext = new CacheExternalId3LibraryAdapter();
+        MagasinPochettes magasinPochettes = new MagasinPochettes();
+        MetadataExtractor extractor = new NativeId3MetadataExtractor(mimeChecker,
+                new LibraryMetadataExtractor(mimeChecker, ext, magasinPochettes), magasinPochettes);
+        this.cacheMetadonnees = new CacheMetadataExtractor(extractor,
+                CacheMetadataExtractor.emplacementParDefaut());
 
         FabriqueEcriturePlaylist fabriquePlaylist = new FabriqueEcriturePlaylist();
 
-        this.gestionBibliotheque = new GestionBibliotheque(scanner, extractor);
+        this.gestionBibliotheque = new GestionBibliotheque(scanner, cacheMetadonnees);
         this.gestionMetadata = new GestionMetadata(extractor);
         this.gestionPlaylist = new GestionPlaylist(fabriquePlaylist);
+        this.surveillanceBibliotheque = new SurveillanceBibliotheque(scanner, filtre, cacheMetadonnees);
     }
 
     /**
@@ -100,6 +125,9 @@ public class ApplicationCLI {
         Path dossier = null;
         Path sortie = null;
         PlaylistFormat format = PlaylistFormat.M3U8;
+        boolean surveiller = false;
+        boolean reimporter = false;
+        boolean tags = false;
 
         for (int i = 0; i < args.length; i++) {
             switch (args[i]) {
@@ -143,6 +171,21 @@ public class ApplicationCLI {
                     format = PlaylistFormat.M3U8;
                     break;
 
+                case "-w":
+                case "--surveiller":
+                    surveiller = true;
+                    break;
+
+                case "-r":
+                case "--reimporter":
+                    reimporter = true;
+                    break;
+
+                case "-t":
+                case "--tags":
+                    tags = true;
+                    break;
+
                 default:
                     afficherAide();
                     return;
@@ -151,18 +194,34 @@ public class ApplicationCLI {
 
         try {
             if (fichier != null) {
-                analyserFichier(fichier);
+                analyserFichier(fichier, tags);
                 return;
             }
 
             if (dossier != null) {
-                List<AudioFile> fichiers = gestionBibliotheque.importerDossier(dossier);
+                if (surveiller) {
+                    surveillerDossier(dossier);
+                    return;
+                }
+
+                if (reimporter) {
+                    reimporterDossier(dossier);
+                    return;
+                }
 
                 if (sortie == null) {
-                    listerEtAnalyserDossier(dossier, fichiers);
+                    listerEtAnalyserDossierEnFlux(dossier);
                     return;
                 }
 
+                // La playlist n'a besoin que du titre et de la durée
+                ResultatImport resultat = gestionBibliotheque.importerDossierEnParallele(
+                        dossier, Runtime.getRuntime().availableProcessors(), ChampMetadata.pourPlaylist());
+                for (EchecImport echec : resultat.getEchecs()) {
+                    System.err.println("[ERREUR] Fichier ignoré " + echec);
+                }
+
+                List<AudioFile> fichiers = resultat.getFichiers();
                 PlaylistFormat fmtFinal = detecterFormat(sortie, format);
                 genererPlaylist(fichiers, dossier, sortie, fmtFinal);
                 return;
@@ -172,6 +231,20 @@ public class ApplicationCLI {
 
         } catch (Exception e) {
             System.err.println("[ERREUR] " + e.getMessage());
+        } finally {
+            sauvegarderCache();
+        }
+    }
+
+    /**
+     * Enregistre le cache de métadonnées pour accélérer les imports suivants.
+     * Un échec d’écriture n’est pas bloquant.
+     */
+    private void sauvegarderCache() {
+        try {
+            cacheMetadonnees.sauvegarder();
+        } catch (Exception e) {
+            System.err.println("[ERREUR] Cache de métadonnées non enregistré : " + e.getMessage());
         }
     }
 
@@ -182,14 +255,43 @@ public class ApplicationCLI {
      * @throws Exception en cas d’erreur d’analyse
      */
     public void analyserFichier(Path fichier) throws Exception {
+        analyserFichier(fichier, false);
+    }
+
+    /**
+     * Analyse un fichier audio unique et affiche ses métadonnées,
+     * suivies de ses tags bruts si demandé (une seule lecture du fichier).
+     *
+     * @param fichier chemin du fichier audio
+     * @param avecTags true pour afficher aussi les tags bruts ID3
+     * @throws Exception en cas d’erreur d’analyse
+     */
+    public void analyserFichier(Path fichier, boolean avecTags) throws Exception {
         if (fichier == null) throw new Exception("Fichier nul.");
         if (!Files.exists(fichier)) throw new Exception("Fichier introuvable : " + fichier);
 
         Path abs = fichier.toAbsolutePath();
         System.out.println("Analyse : " + abs);
 
-        Metadata m = gestionMetadata.lireMetadata(fichier);
-        afficherMetadata(m, abs);
+        if (!avecTags) {
+            afficherMetadata(gestionMetadata.lireMetadata(fichier), abs);
+            return;
+        }
+
+        MetadonneesEtTags resultat = gestionMetadata.lireTout(fichier);
+        afficherMetadata(resultat.getMetadata(), abs);
+
+        System.out.println("Tags bruts :");
+        ID3TagSet ensemble = resultat.getTags();
+        if (ensemble == null || ensemble.estVide()) {
+            System.out.println("  (aucun)");
+            return;
+        }
+        List<Id3Tag> liste = new ArrayList<>(ensemble.lister());
+        liste.sort(Comparator.comparing(Id3Tag::getId));
+        for (Id3Tag t : liste) {
+            System.out.println("  " + t.getId() + " = " + t.getValeur());
+        }
     }
 
     /**
@@ -224,6 +326,101 @@ public class ApplicationCLI {
         }
     }
 
+    /**
+     * Liste et analyse les fichiers audio d’un dossier au fur et à mesure du scan :
+     * chaque fichier est affiché dès que ses métadonnées sont chargées.
+     *
+     * @param dossier répertoire analysé
+     * @throws Exception en cas d’erreur
+     */
+    public void listerEtAnalyserDossierEnFlux(Path dossier) throws Exception {
+        if (dossier == null) throw new Exception("Dossier nul.");
+
+        System.out.println("Scan : " + dossier.toAbsolutePath());
+
+        int[] compteur = {0};
+        int total = gestionBibliotheque.importerDossier(dossier, af -> {
+            Path p = af.obtenirChemin().toAbsolutePath();
+            System.out.println("\nAnalyse (" + (++compteur[0]) + ") : " + p);
+
+            try {
+                afficherMetadata(af.obtenirMetadonnees(), p);
+            } catch (Exception ex) {
+                System.out.println("[ERREUR] Impossible de lire les métadonnées : " + ex.getMessage());
+            }
+        });
+
+        System.out.println("\nFichiers MP3 trouvés : " + total);
+    }
+
+    /**
+     * Réimporte un dossier de manière incrémentale : seuls les fichiers ajoutés ou modifiés
+     * depuis le dernier réimport (ou absents du cache de métadonnées) sont relus,
+     * puis le détail des changements est affiché.
+     *
+     * @param dossier répertoire réimporté
+     * @throws Exception en cas d’erreur
+     */
+    public void reimporterDossier(Path dossier) throws Exception {
+        if (dossier == null) throw new Exception("Dossier nul.");
+
+        System.out.println("Réimport : " + dossier.toAbsolutePath());
+
+        ResultatReimport resultat = gestionBibliotheque.reimporterDossier(
+                dossier, null, InstantaneScan.emplacementParDefaut(dossier));
+        for (EchecImport echec : resultat.getEchecs()) {
+            System.err.println("[ERREUR] Fichier ignoré " + echec);
+        }
+
+        System.out.println("Fichiers MP3 trouvés : " + resultat.getFichiers().size());
+        System.out.println("Ajoutés    : " + resultat.getAjoutes());
+        System.out.println("Modifiés   : " + resultat.getModifies());
+        System.out.println("Inchangés  : " + resultat.getInchanges());
+        System.out.println("Supprimés  : " + resultat.getSupprimes());
+        System.out.println("En échec   : " + resultat.getEchecs().size());
+    }
+
+    /**
+     * Importe un dossier puis affiche en continu les fichiers ajoutés,
+     * modifiés ou supprimés, jusqu’à l’arrêt du programme (Ctrl+C).
+     *
+     * @param dossier répertoire surveillé
+     * @throws Exception en cas d’erreur
+     */
+    public void surveillerDossier(Path dossier) throws Exception {
+        if (dossier == null) throw new Exception("Dossier nul.");
+
+        List<AudioFile> fichiers = gestionBibliotheque.importerDossier(dossier);
+        sauvegarderCache();
+        System.out.println("Surveillance : " + dossier.toAbsolutePath());
+        System.out.println("Fichiers MP3 trouvés : " + fichiers.size());
+
+        surveillanceBibliotheque.demarrer(dossier, fichiers, new EcouteurBibliotheque() {
+            @Override
+            public void fichierAjoute(AudioFile fichier) {
+                System.out.println("[+] " + fichier.obtenirChemin());
+            }
+
+            @Override
+            public void fichierModifie(AudioFile ancien, AudioFile nouveau) {
+                System.out.println("[~] " + nouveau.obtenirChemin());
+            }
+
+            @Override
+            public void fichierSupprime(AudioFile fichier) {
+                System.out.println("[-] " + fichier.obtenirChemin());
+            }
+        });
+
+        try {
+            while (surveillanceBibliotheque.estActive()) {
+                Thread.sleep(1000);
+            }
+        } finally {
+            surveillanceBibliotheque.close();
+        }
+    }
+
     /**
      * Génère une playlist à partir d’un ensemble de fichiers audio.
      *
@@ -302,7 +499,7 @@ public class ApplicationCLI {
         System.out.println("Encodage   : " + value(m.getEncodingType()));
 
         if (m.possedePochette() && m.getPochette() != null && !m.getPochette().estVide()) {
-            System.out.println("Pochette   : oui (" + m.getPochette().getDonnees().length + " octets)");
+            System.out.println("Pochette   : oui (" + m.getPochette().getTaille() + " octets)");
         } else {
             System.out.println("Pochette   : non");
         }
@@ -320,8 +517,11 @@ Modes console :
   -h | --help                 : afficher l’aide
   -d <dossier>                : scanner récursivement un dossier, lister ET analyser tous les fichiers audio
   -f <fichier>                : analyser un fichier audio et afficher ses métadonnées
+  -f <fichier> -t             : afficher aussi les tags bruts ID3 (--tags)
   -d <dossier> -o <playlist>  : générer une playlist à partir des fichiers trouvés dans le dossier
   --xspf | --jspf | --m3u8    : choisir le format de playlist (par défaut : M3U8)
+  -d <dossier> -w             : importer un dossier puis afficher ses changements en continu (--surveiller)
+  -d <dossier> -r             : réimporter un dossier en ne relisant que les fichiers modifiés (--reimporter)
 
 Mode graphique :
   --gui                       : lancer l’interface graphique
@@ -1,32 +1,43 @@
 package interfacegui;
 
+import causage.EchecImport;
 import causage.GestionBibliotheque;
 import causage.GestionMetadata;
 import causage.GestionPlaylist;
+import causage.ResultatReimport;
+import causage.SurveillanceBibliotheque;
 import modele.audio.AudioFile;
+import modele.audio.EcouteurBibliotheque;
 import modele.metadonnees.Metadata;
 import modele.playlist.PlaylistFormat;
+import services.MetadonneesExtractor.CacheExternalId3LibraryAdapter;
+import services.MetadonneesExtractor.CacheMetadataExtractor;
 import services.MetadonneesExtractor.ExternalId3LibraryAdapter;
 import services.MetadonneesExtractor.LibraryMetadataExtractor;
+import services.MetadonneesExtractor.MagasinPochettes;
+import services.MetadonneesExtractor.NativeId3MetadataExtractor;
 import services.MetadonneesExtractor.MetadataExtractor;
 import services.listelecture.FabriqueEcriturePlaylist;
 import services.lecteur.LecteurAudio;
 import services.lecteur.LecteurAudioJLayer;
+import services.mime.CacheMimeChecker;
 import services.mime.MimeChecker;
-import services.mime.MimeTypeAnalyzer;
+import services.mime.SignatureMimeAnalyzer;
 import services.scan.DirectoryScanner;
 import services.scan.FileFilter;
+import services.scan.InstantaneScan;
 import services.scan.Mp3FileFilter;
-import services.scan.RecursiveDirectoryScanner;
+import services.scan.ParallelDirectoryScanner;
 import services.systeme.FileSystemAdapter;
 import services.systeme.FileSystemPort;
 import services.systeme.FileUtils;
-import services.systeme.MimeTypeDetector;
+import services.systeme.SignatureMimeDetector;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -44,6 +55,8 @@ public class FenetreAudioExplorer extends JFrame {
     public GestionMetadata gestionMetadata;
     public GestionPlaylist gestionPlaylists;
     public MimeChecker mimeChecker;
+    public SurveillanceBibliotheque surveillanceBibliotheque;
+    public CacheMetadataExtractor cacheMetadonnees;
     public LecteurAudio lecteurAudio;
 
     public Path dossierCourant;
@@ -61,6 +74,8 @@ public class FenetreAudioExplorer extends JFrame {
         public GestionMetadata gestionMetadata;
         public GestionPlaylist gestionPlaylists;
         public MimeChecker mimeChecker;
+        public SurveillanceBibliotheque surveillanceBibliotheque;
+        public CacheMetadataExtractor cacheMetadonnees;
     }
 
     /**
@@ -74,6 +89,8 @@ public class FenetreAudioExplorer extends JFrame {
         this.gestionMetadata = s.gestionMetadata;
         this.gestionPlaylists = s.gestionPlaylists;
         this.mimeChecker = s.mimeChecker;
+        this.surveillanceBibliotheque = s.surveillanceBibliotheque;
+        this.cacheMetadonnees = s.cacheMetadonnees;
 
         this.lecteurAudio = new LecteurAudioJLayer();
 
@@ -90,22 +107,29 @@ public class FenetreAudioExplorer extends JFrame {
         Services s = new Services();
 
         FileSystemPort fs = new FileSystemAdapter();
-        MimeTypeDetector mimeDetector = new MimeTypeDetector();
+        SignatureMimeDetector mimeDetector = new SignatureMimeDetector();
         FileUtils fileUtils = new FileUtils();
-        MimeChecker mimeChecker = new MimeTypeAnalyzer(mimeDetector);
+        MimeChecker mimeChecker = new CacheMimeChecker(new SignatureMimeAnalyzer(mimeDetector));
         s.mimeChecker = mimeChecker;
 
         FileFilter filtreMp3 = new Mp3FileFilter(mimeChecker, fileUtils);
-        DirectoryScanner scanner = new RecursiveDirectoryScanner(filtreMp3, fs);
+        // Les sous-répertoires sont parcourus en parallèle (fork/join)
+        DirectoryScanner scanner = new ParallelDirectoryScanner(filtreMp3, fs);
 
-        ExternalId3LibraryAdapter adaptateur = new ExternalId3LibraryAdapter();
-        MetadataExtractor extracteur = new LibraryMetadataExtractor(mimeChecker, adaptateur);
+        ExternalId3LibraryAdapter adaptateur = new CacheExternalId3LibraryAdapter();
+        MagasinPochettes magasinPochettes = new MagasinPochettes();
+        MetadataExtractor extracteur = new NativeId3MetadataExtractor(mimeChecker,
+                new LibraryMetadataExtractor(mimeChecker, adaptateur, magasinPochettes), magasinPochettes);
+        s.cacheMetadonnees = new CacheMetadataExtractor(extracteur,
+                CacheMetadataExtractor.emplacementParDefaut());
 
         FabriqueEcriturePlaylist fabriquePlaylist = new FabriqueEcriturePlaylist();
 
-        s.gestionBibliotheque = new GestionBibliotheque(scanner, extracteur);
+        // L'import passe par le cache ; la lecture d'un fichier isolé reste complète (pochette comprise)
+        s.gestionBibliotheque = new GestionBibliotheque(scanner, s.cacheMetadonnees);
         s.gestionMetadata = new GestionMetadata(extracteur);
         s.gestionPlaylists = new GestionPlaylist(fabriquePlaylist);
+        s.surveillanceBibliotheque = new SurveillanceBibliotheque(scanner, filtreMp3, s.cacheMetadonnees);
 
         return s;
     }
@@ -197,6 +221,9 @@ public class FenetreAudioExplorer extends JFrame {
 
     /**
      * Ouvre un dossier et scanne récursivement (SwingWorker).
+     * Si le dossier est connu du cache de métadonnées, sa liste est affichée immédiatement
+     * puis remplacée par le résultat du réimport incrémental (seuls les fichiers modifiés sont relus).
+     * Sinon, les fichiers sont ajoutés à la liste au fur et à mesure de leur import.
      */
     public void onOuvrirDossier(ActionEvent e) {
         JFileChooser ch = new JFileChooser();
@@ -204,27 +231,83 @@ public class FenetreAudioExplorer extends JFrame {
         if (ch.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
 
         dossierCourant = ch.getSelectedFile().toPath();
+        surveillanceBibliotheque.close();
+        fichiersCourants = null;
+        panneauListeFichiers.remplirListe(null);
+        panneauDetailsEtJournal.effacerDetails();
+
+        List<AudioFile> depuisCache = gestionBibliotheque.chargerDepuisCache(dossierCourant, cacheMetadonnees);
+        boolean valider = !depuisCache.isEmpty();
+        if (valider) {
+            fichiersCourants = new ArrayList<>(depuisCache);
+            panneauListeFichiers.remplirListe(fichiersCourants);
+            panneauListeFichiers.selectionnerIndex(0);
+            panneauDetailsEtJournal.log("Dossier chargé depuis le cache : " + dossierCourant + " ("
+                    + depuisCache.size() + " fichier(s)), validation en cours...");
+        }
+
+        SwingWorker<ResultatReimport, AudioFile> worker = new SwingWorker<>() {
+            @Override
+            protected ResultatReimport doInBackground() throws Exception {
+                // Seuls les fichiers modifiés depuis le dernier scan ou absents du cache sont relus
+                ResultatReimport resultat = gestionBibliotheque.reimporterDossier(dossierCourant,
+                        depuisCache, InstantaneScan.emplacementParDefaut(dossierCourant), af -> {
+                            if (!valider) {
+                                publish(af);
+                            }
+                        });
+
+                try {
+                    cacheMetadonnees.sauvegarder();
+                } catch (Exception ex) {
+                    String message = "[ERREUR] Cache de métadonnées non enregistré : " + ex.getMessage();
+                    SwingUtilities.invokeLater(() -> panneauDetailsEtJournal.log(message));
+                }
+                return resultat;
+            }
 
-        SwingWorker<List<AudioFile>, Void> worker = new SwingWorker<>() {
             @Override
-            protected List<AudioFile> doInBackground() throws Exception {
-                return gestionBibliotheque.importerDossier(dossierCourant);
+            protected void process(List<AudioFile> lot) {
+                boolean premierLot = panneauListeFichiers.listeModel.isEmpty();
+                for (AudioFile af : lot) {
+                    panneauListeFichiers.ajouterFichier(af);
+                }
+                if (premierLot) {
+                    panneauListeFichiers.selectionnerIndex(0);
+                }
+                panneauDetailsEtJournal.setStatus("Scan dossier... ("
+                        + panneauListeFichiers.listeModel.size() + " fichier(s))");
             }
 
             @Override
             protected void done() {
                 try {
-                    fichiersCourants = get();
-                    panneauListeFichiers.remplirListe(fichiersCourants);
+                    ResultatReimport resultat = get();
+                    fichiersCourants = new ArrayList<>(resultat.getFichiers());
+
+                    if (valider) {
+                        panneauListeFichiers.remplirListe(fichiersCourants);
+                        if (!fichiersCourants.isEmpty()) {
+                            panneauListeFichiers.selectionnerIndex(0);
+                        }
+                    }
 
-                    if (fichiersCourants != null && !fichiersCourants.isEmpty()) {
-                        panneauListeFichiers.selectionnerIndex(0);
-                    } else {
+                    if (fichiersCourants.isEmpty()) {
                         panneauDetailsEtJournal.effacerDetails();
                     }
 
                     panneauDetailsEtJournal.log("Dossier importé : " + dossierCourant + " ("
-                            + (fichiersCourants == null ? 0 : fichiersCourants.size()) + " fichier(s))");
+                            + fichiersCourants.size() + " fichier(s) : "
+                            + resultat.getAjoutes() + " ajouté(s), "
+                            + resultat.getModifies() + " modifié(s), "
+                            + resultat.getInchanges() + " inchangé(s), "
+                            + resultat.getSupprimes() + " supprimé(s), "
+                            + resultat.getEchecs().size() + " en échec)");
+                    for (EchecImport echec : resultat.getEchecs()) {
+                        panneauDetailsEtJournal.log("[ERREUR] Fichier ignoré " + echec);
+                    }
+
+                    demarrerSurveillance();
                 } catch (Exception ex) {
                     afficherErreur(ex.getMessage());
                 } finally {
@@ -238,6 +321,63 @@ public class FenetreAudioExplorer extends JFrame {
         worker.execute();
     }
 
+    /**
+     * Surveille le dossier courant : les fichiers ajoutés, modifiés ou supprimés
+     * sur le disque sont répercutés dans la liste sans réimport complet.
+     */
+    public void demarrerSurveillance() {
+        if (dossierCourant == null || fichiersCourants == null) return;
+
+        // Les notifications déjà postées sur l'EDT peuvent arriver après la fermeture de la
+        // surveillance : celles qui visent une liste remplacée ou effacée sont ignorées.
+        List<AudioFile> surveilles = fichiersCourants;
+
+        EcouteurBibliotheque ecouteur = new EcouteurBibliotheque() {
+            @Override
+            public void fichierAjoute(AudioFile fichier) {
+                SwingUtilities.invokeLater(() -> {
+                    if (fichiersCourants != surveilles) return;
+                    fichiersCourants.add(fichier);
+                    panneauListeFichiers.ajouterFichier(fichier);
+                    panneauDetailsEtJournal.log("Fichier ajouté : " + fichier.obtenirChemin());
+                    majEtatBoutons();
+                });
+            }
+
+            @Override
+            public void fichierModifie(AudioFile ancien, AudioFile nouveau) {
+                SwingUtilities.invokeLater(() -> {
+                    if (fichiersCourants != surveilles) return;
+                    int index = fichiersCourants.indexOf(ancien);
+                    if (index >= 0) {
+                        fichiersCourants.set(index, nouveau);
+                    } else {
+                        fichiersCourants.add(nouveau);
+                    }
+                    panneauListeFichiers.remplacerFichier(ancien, nouveau);
+                    panneauDetailsEtJournal.log("Fichier modifié : " + nouveau.obtenirChemin());
+                });
+            }
+
+            @Override
+            public void fichierSupprime(AudioFile fichier) {
+                SwingUtilities.invokeLater(() -> {
+                    if (fichiersCourants != surveilles) return;
+                    fichiersCourants.remove(fichier);
+                    panneauListeFichiers.retirerFichier(fichier);
+                    panneauDetailsEtJournal.log("Fichier supprimé : " + fichier.obtenirChemin());
+                    majEtatBoutons();
+                });
+            }
+        };
+
+        try {
+            surveillanceBibliotheque.demarrer(dossierCourant, fichiersCourants, ecouteur);
+        } catch (Exception ex) {
+            panneauDetailsEtJournal.log("[ERREUR] Surveillance du dossier impossible : " + ex.getMessage());
+        }
+    }
+
     /**
      * Export "playlist par défaut" : tous les fichiers chargés.
      */
@@ -344,7 +484,9 @@ public class FenetreAudioExplorer extends JFrame {
      */
     public void afficherDetailsAudioFile(AudioFile af) {
         try {
-            panneauDetailsEtJournal.afficherMetadonnees(af.obtenirMetadonnees(), af, af.obtenirChemin(), mimeChecker);
+            // La pochette issue du cache est paresseuse : elle n'est lue qu'à l'affichage
+            Metadata m = af.obtenirMetadonnees();
+            panneauDetailsEtJournal.afficherMetadonnees(m, af, af.obtenirChemin(), mimeChecker);
         } catch (Exception ex) {
             afficherErreur(ex.getMessage());
         } finally {
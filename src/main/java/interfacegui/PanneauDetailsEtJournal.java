@@ -14,6 +14,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Panneau de droite : détails des métadonnées + pochette,
@@ -31,6 +33,17 @@ public class PanneauDetailsEtJournal extends JPanel {
     //  Pochette
     public JLabel lblCover;
 
+    /** Nombre maximal de vignettes conservées. */
+    private static final int MAX_VIGNETTES = 64;
+
+    /** Vignettes déjà décodées, indexées par empreinte de l'image (ordre d'accès). */
+    private final Map<String, ImageIcon> vignettes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImageIcon> plusAncienne) {
+            return size() > MAX_VIGNETTES;
+        }
+    };
+
     // Contrôles
     public JButton btnLire, btnStop, btnEffacer;
     public JTextArea areaLog;
@@ -243,11 +256,7 @@ public class PanneauDetailsEtJournal extends JPanel {
         // Pochette
         try {
             if (m.possedePochette() && m.getPochette() != null && !m.getPochette().estVide()) {
-                CoverImage cover = m.getPochette();
-                ImageIcon icon = new ImageIcon(cover.getDonnees());
-                Image img = icon.getImage();
-                Image scaled = scaleToFit(img, 280, 280);
-                lblCover.setIcon(new ImageIcon(scaled));
+                lblCover.setIcon(vignette(m.getPochette()));
                 lblCover.setText("");
             } else {
                 lblCover.setIcon(null);
@@ -281,6 +290,24 @@ public class PanneauDetailsEtJournal extends JPanel {
         lblCover.setText("Aucune pochette");
     }
 
+    /**
+     * Retourne la vignette d'une pochette. Les pistes d'un même album partagent
+     * la même empreinte : l'image n'est alors décodée qu'une fois.
+     */
+    public ImageIcon vignette(CoverImage cover) {
+        String cle = cover.getEmpreinte();
+        if (cle != null) {
+            ImageIcon connue = vignettes.get(cle);
+            if (connue != null) return connue;
+        }
+
+        ImageIcon icon = new ImageIcon(cover.getDonnees());
+        ImageIcon vignette = new ImageIcon(scaleToFit(icon.getImage(), 280, 280));
+
+        if (cle != null) vignettes.put(cle, vignette);
+        return vignette;
+    }
+
     /** Redimensionne une image en conservant le ratio. */
     public Image scaleToFit(Image img, int maxW, int maxH) {
         int w = img.getWidth(null);
@@ -102,6 +102,29 @@ public class PanneauListeFichiers extends JPanel {
         for (AudioFile af : fichiers) listeModel.addElement(af);
     }
 
+    /** Ajoute un fichier audio à la fin de la liste. */
+    public void ajouterFichier(AudioFile fichier) {
+        if (fichier == null) return;
+        listeModel.addElement(fichier);
+    }
+
+    /** Retire un fichier audio de la liste. */
+    public void retirerFichier(AudioFile fichier) {
+        if (fichier == null) return;
+        listeModel.removeElement(fichier);
+    }
+
+    /** Remplace un fichier audio par sa version à jour, à la même position. */
+    public void remplacerFichier(AudioFile ancien, AudioFile nouveau) {
+        if (ancien == null || nouveau == null) return;
+        int index = listeModel.indexOf(ancien);
+        if (index >= 0) {
+            listeModel.set(index, nouveau);
+        } else {
+            listeModel.addElement(nouveau);
+        }
+    }
+
     /** Sélectionne l'index donné (si possible). */
     public void selectionnerIndex(int index) {
         if (index < 0 || index >= listeModel.size()) return;
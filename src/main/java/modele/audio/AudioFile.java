@@ -38,6 +38,38 @@ public interface AudioFile {
      */
     Metadata obtenirMetadonnees();
 
+    /**
+     * Retourne l'artiste du fichier audio. Par défaut lu dans les métadonnées ;
+     * une implémentation qui range l'artiste à part le retourne sans construire
+     * de {@link Metadata}.
+     *
+     * @return l'artiste, ou {@code null} s'il est inconnu ou si les métadonnées ne sont pas chargées
+     */
+    default String obtenirArtiste() {
+        Metadata meta = obtenirMetadonnees();
+        return meta != null ? meta.getArtiste() : null;
+    }
+
+    /**
+     * Retourne le genre du fichier audio. Par défaut lu dans les métadonnées.
+     *
+     * @return le genre, ou {@code null} s'il est inconnu ou si les métadonnées ne sont pas chargées
+     */
+    default String obtenirGenre() {
+        Metadata meta = obtenirMetadonnees();
+        return meta != null ? meta.getGenre() : null;
+    }
+
+    /**
+     * Retourne l'année du fichier audio. Par défaut lue dans les métadonnées.
+     *
+     * @return l'année, ou {@code 0} si elle est inconnue ou si les métadonnées ne sont pas chargées
+     */
+    default int obtenirAnnee() {
+        Metadata meta = obtenirMetadonnees();
+        return meta != null ? meta.getAnnee() : 0;
+    }
+
     /**
      * Retourne la durée totale du fichier audio en secondes.
      *
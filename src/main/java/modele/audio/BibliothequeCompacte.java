@@ -0,0 +1,654 @@
+package modele.audio;
+
+import modele.metadonnees.DictionnaireValeurs;
+import modele.metadonnees.Metadata;
+import modele.metadonnees.MetadataBuilder;
+import modele.metadonnees.PoolCanonique;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bibliothèque de fichiers audio stockée en colonnes, pour des millions de morceaux.
+ *
+ * Chaque morceau est une ligne identifiée par un entier. Ses attributs numériques
+ * sont rangés dans des tableaux primitifs ; l'artiste, l'album, le genre et les
+ * informations techniques sont codés par leur identifiant dans un {@link PoolCanonique},
+ * les répertoires par un dictionnaire propre à la bibliothèque, et les titres
+ * et noms de fichiers en UTF-8 dans une {@link ColonneTexte}. Un morceau ne coûte
+ * ainsi que quelques dizaines d'octets, au lieu d'une dizaine d'objets.
+ *
+ * Les morceaux sont exposés sous forme de vues légères ({@link PisteCompacte}) :
+ * le chemin et les métadonnées ne sont reconstruits qu'à la lecture, l'artiste,
+ * le genre et l'année sont lus dans les colonnes. La pochette n'est pas conservée.
+ * Les critères de filtrage et {@code IndexBibliotheque} s'appuient sur ces accès
+ * et sur les identifiants du pool, sans reconstruire de {@link Metadata}.
+ *
+ * Une suppression marque la ligne comme supprimée sans déplacer les autres ;
+ * {@link #compacter()} récupère ensuite la place et renumérote les lignes,
+ * ce qui invalide les vues obtenues auparavant.
+ *
+ * Toutes les méthodes publiques sont synchronisées.
+ */
+public class BibliothequeCompacte implements Iterable<AudioFile> {
+
+    private static final int CAPACITE_INITIALE = 64;
+
+    private static final AudioFormat[] FORMATS = AudioFormat.values();
+
+    private PoolCanonique pool;
+
+    /** Vrai si le pool a été créé par la bibliothèque : il est alors reconstruit au compactage. */
+    private final boolean poolPropre;
+
+    /** Répertoires (chaînes exactes, non normalisées) et leur identifiant. */
+    private Map<String, Integer> identifiantsRepertoires = new HashMap<>();
+    private List<String> repertoires = new ArrayList<>();
+
+    private int lignes;
+    private int supprimees;
+    private BitSet tombes = new BitSet();
+
+    /** Incrémentée à chaque compactage : les vues plus anciennes sont périmées. */
+    private int generation;
+
+    private int[] repertoire;
+    private ColonneTexte noms = new ColonneTexte();
+    private ColonneTexte titres = new ColonneTexte();
+    private int[] hachages;
+    private byte[] formats;
+    private boolean[] avecMetadonnees;
+    private double[] durees;
+
+    private int[] artistes;
+    private int[] albums;
+    private int[] genres;
+    private int[] annees;
+    private int[] numerosPiste;
+    private int[] debits;
+    private int[] frequences;
+    private int[] typesMime;
+    private int[] canaux;
+    private int[] formatsTechniques;
+    private int[] encodages;
+
+    /** Table de hachage ouverte chemin -> ligne + 1 (0 = case vide). */
+    private int[] indexChemins = new int[CAPACITE_INITIALE * 2];
+
+    /**
+     * Crée une bibliothèque vide avec son propre pool de valeurs canoniques.
+     */
+    public BibliothequeCompacte() {
+        this(new PoolCanonique(), true);
+    }
+
+    /**
+     * Crée une bibliothèque vide dont les valeurs sont codées par un pool donné,
+     * par exemple celui du cache de métadonnées. Ce pool est partagé : le compactage
+     * n'y retire pas les valeurs qui ne sont plus utilisées.
+     *
+     * @param pool dictionnaires de valeurs canoniques
+     */
+    public BibliothequeCompacte(PoolCanonique pool) {
+        this(pool, false);
+    }
+
+    private BibliothequeCompacte(PoolCanonique pool, boolean poolPropre) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Le pool de valeurs canoniques ne doit pas être nul.");
+        }
+        this.pool = pool;
+        this.poolPropre = poolPropre;
+        allouer(CAPACITE_INITIALE);
+    }
+
+    /**
+     * Ajoute un fichier audio. Un fichier déjà présent (même chemin) est remplacé :
+     * l'ancienne ligne est supprimée et une nouvelle est ajoutée.
+     *
+     * @param fichier fichier à ajouter
+     * @return identifiant de la ligne créée
+     */
+    public synchronized int ajouter(AudioFile fichier) {
+        if (fichier == null) {
+            throw new IllegalArgumentException("Le fichier audio ne doit pas être nul.");
+        }
+
+        Path chemin = fichier.obtenirChemin().toAbsolutePath().normalize();
+        int existante = chercherLigne(chemin);
+        if (existante >= 0) {
+            supprimerLigne(existante);
+        }
+
+        if (lignes == repertoire.length) {
+            allouer(repertoire.length * 2);
+        }
+        int id = lignes;
+
+        Path parent = chemin.getParent();
+        Path nom = chemin.getFileName();
+        repertoire[id] = identifiantRepertoire(parent != null ? parent.toString() : "");
+        noms.ajouter(nom != null ? nom.toString() : chemin.toString());
+        hachages[id] = chemin.toString().hashCode();
+        formats[id] = (byte) fichier.obtenirFormat().ordinal();
+        durees[id] = fichier.obtenirDureeSecondes();
+        typesMime[id] = pool.getTechniques().identifiant(fichier.obtenirTypeMime());
+
+        Metadata m = fichier.obtenirMetadonnees();
+        avecMetadonnees[id] = m != null;
+        if (m != null) {
+            titres.ajouter(m.getTitre());
+            artistes[id] = pool.getArtistes().identifiant(m.getArtiste());
+            albums[id] = pool.getAlbums().identifiant(m.getAlbum());
+            genres[id] = pool.getGenres().identifiant(m.getGenre());
+            annees[id] = m.getAnnee();
+            numerosPiste[id] = m.getNumeroDePiste();
+            debits[id] = m.getBitrateKbps();
+            frequences[id] = m.getSampleRateHz();
+            canaux[id] = pool.getTechniques().identifiant(m.getChannels());
+            formatsTechniques[id] = pool.getTechniques().identifiant(m.getFormat());
+            encodages[id] = pool.getTechniques().identifiant(m.getEncodingType());
+            if (durees[id] <= 0 && m.getDureeSeconde() > 0) {
+                durees[id] = m.getDureeSeconde();
+            }
+        } else {
+            titres.ajouter(null);
+            artistes[id] = DictionnaireValeurs.AUCUN;
+            albums[id] = DictionnaireValeurs.AUCUN;
+            genres[id] = DictionnaireValeurs.AUCUN;
+            annees[id] = 0;
+            numerosPiste[id] = 0;
+            debits[id] = 0;
+            frequences[id] = 0;
+            canaux[id] = DictionnaireValeurs.AUCUN;
+            formatsTechniques[id] = DictionnaireValeurs.AUCUN;
+            encodages[id] = DictionnaireValeurs.AUCUN;
+        }
+
+        lignes++;
+        if (lignes * 2 > indexChemins.length) {
+            reconstruireIndex(indexChemins.length * 2);
+        } else {
+            indexer(id);
+        }
+        return id;
+    }
+
+    /**
+     * Ajoute plusieurs fichiers audio, dans l'ordre de la collection.
+     *
+     * @param fichiers fichiers à ajouter
+     */
+    public synchronized void ajouterTout(Collection<? extends AudioFile> fichiers) {
+        if (fichiers == null) {
+            throw new IllegalArgumentException("La collection de fichiers ne doit pas être nulle.");
+        }
+        for (AudioFile fichier : fichiers) {
+            if (fichier != null) {
+                ajouter(fichier);
+            }
+        }
+    }
+
+    /**
+     * Supprime une ligne : elle est seulement marquée, sa place est récupérée
+     * au prochain {@link #compacter()}.
+     *
+     * @param id identifiant de la ligne
+     * @return true si la ligne existait et n'était pas déjà supprimée
+     */
+    public synchronized boolean supprimer(int id) {
+        if (id < 0 || id >= lignes || tombes.get(id)) {
+            return false;
+        }
+        supprimerLigne(id);
+        return true;
+    }
+
+    /**
+     * Supprime le morceau correspondant à un chemin.
+     *
+     * @param chemin chemin du fichier
+     * @return true si un morceau a été supprimé
+     */
+    public synchronized boolean supprimer(Path chemin) {
+        int id = chercher(chemin);
+        return id >= 0 && supprimer(id);
+    }
+
+    /**
+     * Retourne l'identifiant de la ligne d'un chemin.
+     *
+     * @param chemin chemin du fichier
+     * @return identifiant, ou -1 si le chemin est inconnu
+     */
+    public synchronized int chercher(Path chemin) {
+        if (chemin == null) {
+            return -1;
+        }
+        return chercherLigne(chemin.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Récupère la place des lignes supprimées. Les lignes restantes sont renumérotées
+     * sans changer leur ordre ; les vues obtenues auparavant deviennent invalides.
+     *
+     * Les répertoires qui ne sont plus utilisés sont retirés. Si la bibliothèque
+     * possède son pool, celui-ci est reconstruit à partir des lignes restantes :
+     * les identifiants d'artiste, d'album et de genre changent alors, et
+     * {@link #getPool()} retourne le nouveau pool.
+     *
+     * @return correspondance ancien identifiant -> nouvel identifiant (-1 pour une ligne supprimée)
+     */
+    public synchronized int[] compacter() {
+        int[] correspondance = new int[lignes];
+        int restantes = lignes - supprimees;
+        int n = 0;
+        for (int i = 0; i < lignes; i++) {
+            correspondance[i] = tombes.get(i) ? -1 : n++;
+        }
+
+        repertoire = garder(repertoire, restantes);
+        hachages = garder(hachages, restantes);
+        artistes = garder(artistes, restantes);
+        albums = garder(albums, restantes);
+        genres = garder(genres, restantes);
+        annees = garder(annees, restantes);
+        numerosPiste = garder(numerosPiste, restantes);
+        debits = garder(debits, restantes);
+        frequences = garder(frequences, restantes);
+        typesMime = garder(typesMime, restantes);
+        canaux = garder(canaux, restantes);
+        formatsTechniques = garder(formatsTechniques, restantes);
+        encodages = garder(encodages, restantes);
+
+        double[] d = new double[Math.max(CAPACITE_INITIALE, restantes)];
+        byte[] f = new byte[d.length];
+        boolean[] a = new boolean[d.length];
+        for (int i = 0; i < lignes; i++) {
+            int j = correspondance[i];
+            if (j >= 0) {
+                d[j] = durees[i];
+                f[j] = formats[i];
+                a[j] = avecMetadonnees[i];
+            }
+        }
+        durees = d;
+        formats = f;
+        avecMetadonnees = a;
+
+        noms = noms.compacter(tombes);
+        titres = titres.compacter(tombes);
+
+        compacterRepertoires(restantes);
+        if (poolPropre) {
+            reconstruirePool(restantes);
+        }
+
+        lignes = restantes;
+        supprimees = 0;
+        tombes = new BitSet();
+        generation++;
+        reconstruireIndex(Math.max(CAPACITE_INITIALE * 2, Integer.highestOneBit(Math.max(1, restantes)) * 4));
+        return correspondance;
+    }
+
+    /**
+     * Retourne la vue d'une ligne.
+     *
+     * @param id identifiant de la ligne
+     * @return vue légère sur la ligne
+     * @throws IllegalArgumentException si la ligne n'existe pas ou est supprimée
+     */
+    public synchronized PisteCompacte vue(int id) {
+        verifierLigne(id);
+        return new PisteCompacte(this, id, generation);
+    }
+
+    /**
+     * Retourne les vues de tous les morceaux présents, dans l'ordre des lignes.
+     *
+     * @return liste de vues
+     */
+    public synchronized List<AudioFile> versListe() {
+        List<AudioFile> resultat = new ArrayList<>(taille());
+        for (int i = tombes.nextClearBit(0); i < lignes; i = tombes.nextClearBit(i + 1)) {
+            resultat.add(new PisteCompacte(this, i, generation));
+        }
+        return resultat;
+    }
+
+    /**
+     * Parcourt les morceaux présents. Le parcours porte sur l'état de la bibliothèque
+     * au moment de l'appel.
+     */
+    @Override
+    public Iterator<AudioFile> iterator() {
+        return versListe().iterator();
+    }
+
+    /** Retourne le nombre de morceaux présents (hors lignes supprimées). */
+    public synchronized int taille() {
+        return lignes - supprimees;
+    }
+
+    /** Retourne le nombre de lignes, supprimées comprises (borne des identifiants). */
+    public synchronized int nombreLignes() {
+        return lignes;
+    }
+
+    /** Retourne le nombre de lignes supprimées en attente de compactage. */
+    public synchronized int nombreSupprimees() {
+        return supprimees;
+    }
+
+    /**
+     * Indique si une ligne existe et n'est pas supprimée.
+     *
+     * @param id identifiant de la ligne
+     * @return true si la ligne est présente
+     */
+    public synchronized boolean estPresente(int id) {
+        return id >= 0 && id < lignes && !tombes.get(id);
+    }
+
+    /**
+     * Retourne le pool codant l'artiste, l'album, le genre et les informations techniques.
+     * Un pool propre à la bibliothèque est remplacé à chaque compactage.
+     */
+    public synchronized PoolCanonique getPool() {
+        return pool;
+    }
+
+    /** Retourne la génération courante, incrémentée à chaque compactage. */
+    public synchronized int getGeneration() {
+        return generation;
+    }
+
+    /** Identifiant d'artiste d'une ligne dans {@link PoolCanonique#getArtistes()}. */
+    public synchronized int identifiantArtiste(int id) {
+        verifierLigne(id);
+        return artistes[id];
+    }
+
+    /** Identifiant d'album d'une ligne dans {@link PoolCanonique#getAlbums()}. */
+    public synchronized int identifiantAlbum(int id) {
+        verifierLigne(id);
+        return albums[id];
+    }
+
+    /** Identifiant de genre d'une ligne dans {@link PoolCanonique#getGenres()}. */
+    public synchronized int identifiantGenre(int id) {
+        verifierLigne(id);
+        return genres[id];
+    }
+
+    /** Année d'une ligne (0 si inconnue). */
+    public synchronized int annee(int id) {
+        verifierLigne(id);
+        return annees[id];
+    }
+
+    /** Nombre de répertoires distincts référencés par les lignes. */
+    public synchronized int nombreRepertoires() {
+        return repertoires.size();
+    }
+
+    /** Durée d'une ligne en secondes (0 si inconnue). */
+    public synchronized double duree(int id) {
+        verifierLigne(id);
+        return durees[id];
+    }
+
+    /**
+     * Retourne une estimation de la mémoire occupée par les colonnes, en octets
+     * (hors pool de valeurs canoniques).
+     *
+     * @return taille estimée en octets
+     */
+    public synchronized long octetsOccupes() {
+        long parLigne = 13L * 4 + 8 + 1 + 1;
+        return parLigne * repertoire.length + 4L * indexChemins.length
+                + noms.octetsOccupes() + titres.octetsOccupes();
+    }
+
+    // --- Accès utilisés par les vues ---
+
+    synchronized Path chemin(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        String parent = repertoires.get(repertoire[id]);
+        String nom = noms.lire(id);
+        return parent.isEmpty() ? Path.of(nom) : Path.of(parent, nom);
+    }
+
+    synchronized String nomFichier(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        return noms.lire(id);
+    }
+
+    synchronized String typeMime(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        return valeur(pool.getTechniques(), typesMime[id]);
+    }
+
+    synchronized double duree(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        return durees[id];
+    }
+
+    synchronized String artiste(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        return valeur(pool.getArtistes(), artistes[id]);
+    }
+
+    synchronized String genre(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        return valeur(pool.getGenres(), genres[id]);
+    }
+
+    synchronized int annee(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        return annees[id];
+    }
+
+    synchronized AudioFormat format(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        return FORMATS[formats[id]];
+    }
+
+    /**
+     * Reconstruit des métadonnées (sans pochette) à partir d'une ligne.
+     */
+    synchronized Metadata metadonnees(int id, int generationVue) {
+        verifierVue(id, generationVue);
+        if (!avecMetadonnees[id]) {
+            return null;
+        }
+        DictionnaireValeurs techniques = pool.getTechniques();
+        return new MetadataBuilder()
+                .avecTitre(titres.lire(id))
+                .avecArtiste(valeur(pool.getArtistes(), artistes[id]))
+                .avecAlbum(valeur(pool.getAlbums(), albums[id]))
+                .avecGenre(valeur(pool.getGenres(), genres[id]))
+                .avecAnnee(annees[id])
+                .avecNumeroPiste(numerosPiste[id])
+                .avecDureeSecondes(durees[id])
+                .avecBitrate(debits[id])
+                .avecSampleRate(frequences[id])
+                .avecChannels(valeur(techniques, canaux[id]))
+                .avecFormat(valeur(techniques, formatsTechniques[id]))
+                .avecEncodingType(valeur(techniques, encodages[id]))
+                .construire();
+    }
+
+    synchronized void verifierVue(int id, int generationVue) {
+        if (generationVue != generation) {
+            throw new IllegalStateException("Vue périmée : la bibliothèque a été compactée.");
+        }
+        verifierLigne(id);
+    }
+
+    // --- Interne ---
+
+    private void verifierLigne(int id) {
+        if (id < 0 || id >= lignes || tombes.get(id)) {
+            throw new IllegalArgumentException("Morceau inconnu ou supprimé : " + id);
+        }
+    }
+
+    private void supprimerLigne(int id) {
+        tombes.set(id);
+        supprimees++;
+    }
+
+    private static String valeur(DictionnaireValeurs dictionnaire, int id) {
+        return id == DictionnaireValeurs.AUCUN ? null : dictionnaire.valeur(id);
+    }
+
+    private int identifiantRepertoire(String chemin) {
+        Integer id = identifiantsRepertoires.get(chemin);
+        if (id == null) {
+            id = repertoires.size();
+            repertoires.add(chemin);
+            identifiantsRepertoires.put(chemin, id);
+        }
+        return id;
+    }
+
+    /**
+     * Renumérote les répertoires encore utilisés par les {@code restantes} premières
+     * lignes (déjà compactées) et oublie les autres.
+     */
+    private void compacterRepertoires(int restantes) {
+        int[] correspondance = new int[repertoires.size()];
+        Arrays.fill(correspondance, -1);
+        List<String> gardes = new ArrayList<>();
+        for (int i = 0; i < restantes; i++) {
+            int ancien = repertoire[i];
+            if (correspondance[ancien] < 0) {
+                correspondance[ancien] = gardes.size();
+                gardes.add(repertoires.get(ancien));
+            }
+            repertoire[i] = correspondance[ancien];
+        }
+
+        Map<String, Integer> identifiants = new HashMap<>(gardes.size() * 4 / 3 + 1);
+        for (int i = 0; i < gardes.size(); i++) {
+            identifiants.put(gardes.get(i), i);
+        }
+        repertoires = gardes;
+        identifiantsRepertoires = identifiants;
+    }
+
+    /**
+     * Remplace le pool propre par un pool ne contenant que les valeurs
+     * des {@code restantes} premières lignes (déjà compactées).
+     */
+    private void reconstruirePool(int restantes) {
+        PoolCanonique nouveau = new PoolCanonique();
+        recoder(artistes, restantes, pool.getArtistes(), nouveau.getArtistes());
+        recoder(albums, restantes, pool.getAlbums(), nouveau.getAlbums());
+        recoder(genres, restantes, pool.getGenres(), nouveau.getGenres());
+        recoder(typesMime, restantes, pool.getTechniques(), nouveau.getTechniques());
+        recoder(canaux, restantes, pool.getTechniques(), nouveau.getTechniques());
+        recoder(formatsTechniques, restantes, pool.getTechniques(), nouveau.getTechniques());
+        recoder(encodages, restantes, pool.getTechniques(), nouveau.getTechniques());
+        pool = nouveau;
+    }
+
+    private static void recoder(int[] colonne, int restantes,
+                                DictionnaireValeurs ancien, DictionnaireValeurs nouveau) {
+        for (int i = 0; i < restantes; i++) {
+            if (colonne[i] != DictionnaireValeurs.AUCUN) {
+                colonne[i] = nouveau.identifiant(ancien.valeur(colonne[i]));
+            }
+        }
+    }
+
+    private int chercherLigne(Path chemin) {
+        Path parent = chemin.getParent();
+        Path nom = chemin.getFileName();
+        Integer rep = identifiantsRepertoires.get(parent != null ? parent.toString() : "");
+        if (rep == null) {
+            return -1;
+        }
+        byte[] utf8 = (nom != null ? nom.toString() : chemin.toString()).getBytes(StandardCharsets.UTF_8);
+        int hachage = chemin.toString().hashCode();
+
+        int masque = indexChemins.length - 1;
+        for (int i = melanger(hachage) & masque; indexChemins[i] != 0; i = (i + 1) & masque) {
+            int id = indexChemins[i] - 1;
+            if (hachages[id] == hachage && repertoire[id] == rep && !tombes.get(id) && noms.egale(id, utf8)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private void indexer(int id) {
+        int masque = indexChemins.length - 1;
+        int i = melanger(hachages[id]) & masque;
+        while (indexChemins[i] != 0) {
+            i = (i + 1) & masque;
+        }
+        indexChemins[i] = id + 1;
+    }
+
+    private void reconstruireIndex(int capacite) {
+        indexChemins = new int[capacite];
+        for (int id = 0; id < lignes; id++) {
+            if (!tombes.get(id)) {
+                indexer(id);
+            }
+        }
+    }
+
+    private static int melanger(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private void allouer(int capacite) {
+        repertoire = agrandir(repertoire, capacite);
+        hachages = agrandir(hachages, capacite);
+        artistes = agrandir(artistes, capacite);
+        albums = agrandir(albums, capacite);
+        genres = agrandir(genres, capacite);
+        annees = agrandir(annees, capacite);
+        numerosPiste = agrandir(numerosPiste, capacite);
+        debits = agrandir(debits, capacite);
+        frequences = agrandir(frequences, capacite);
+        typesMime = agrandir(typesMime, capacite);
+        canaux = agrandir(canaux, capacite);
+        formatsTechniques = agrandir(formatsTechniques, capacite);
+        encodages = agrandir(encodages, capacite);
+        durees = durees == null ? new double[capacite] : Arrays.copyOf(durees, capacite);
+        formats = formats == null ? new byte[capacite] : Arrays.copyOf(formats, capacite);
+        avecMetadonnees = avecMetadonnees == null ? new boolean[capacite] : Arrays.copyOf(avecMetadonnees, capacite);
+    }
+
+    private static int[] agrandir(int[] colonne, int capacite) {
+        return colonne == null ? new int[capacite] : Arrays.copyOf(colonne, capacite);
+    }
+
+    /**
+     * Retourne une copie de la colonne sans les lignes supprimées.
+     */
+    private int[] garder(int[] colonne, int restantes) {
+        int[] resultat = new int[Math.max(CAPACITE_INITIALE, restantes)];
+        int n = 0;
+        for (int i = 0; i < lignes; i++) {
+            if (!tombes.get(i)) {
+                resultat[n++] = colonne[i];
+            }
+        }
+        return resultat;
+    }
+}
@@ -0,0 +1,97 @@
+package modele.audio;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Colonne de chaînes stockées bout à bout en UTF-8 dans un seul tableau d'octets.
+ * Une valeur n'est décodée en {@link String} qu'au moment où elle est lue.
+ *
+ * Les lignes ne sont qu'ajoutées ; la suppression se fait par
+ * {@link #compacter(BitSet)}, qui produit une nouvelle colonne.
+ */
+class ColonneTexte {
+
+    private byte[] octets = new byte[1024];
+    private int utilises;
+
+    /** Début de chaque ligne ; la fin d'une ligne est le début de la suivante. */
+    private int[] debuts = new int[65];
+    private int lignes;
+
+    /** Lignes dont la valeur est nulle. */
+    private final BitSet nulles = new BitSet();
+
+    int ajouter(String valeur) {
+        byte[] utf8 = valeur == null ? new byte[0] : valeur.getBytes(StandardCharsets.UTF_8);
+        int ligne = lignes;
+        if (valeur == null) {
+            nulles.set(ligne);
+        }
+
+        if (utilises + utf8.length > octets.length) {
+            octets = Arrays.copyOf(octets, Math.max(octets.length * 2, utilises + utf8.length));
+        }
+        System.arraycopy(utf8, 0, octets, utilises, utf8.length);
+        utilises += utf8.length;
+
+        if (ligne + 2 > debuts.length) {
+            debuts = Arrays.copyOf(debuts, debuts.length * 2);
+        }
+        debuts[ligne + 1] = utilises;
+        lignes++;
+        return ligne;
+    }
+
+    String lire(int ligne) {
+        if (nulles.get(ligne)) {
+            return null;
+        }
+        int debut = debuts[ligne];
+        return new String(octets, debut, debuts[ligne + 1] - debut, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compare la valeur d'une ligne à une valeur déjà encodée, sans décodage.
+     */
+    boolean egale(int ligne, byte[] utf8) {
+        if (nulles.get(ligne)) {
+            return false;
+        }
+        int debut = debuts[ligne];
+        return Arrays.equals(octets, debut, debuts[ligne + 1], utf8, 0, utf8.length);
+    }
+
+    /**
+     * Retourne une nouvelle colonne sans les lignes supprimées.
+     */
+    ColonneTexte compacter(BitSet supprimees) {
+        ColonneTexte resultat = new ColonneTexte();
+        resultat.octets = new byte[Math.max(16, utilises)];
+        resultat.debuts = new int[lignes + 1];
+        for (int i = 0; i < lignes; i++) {
+            if (supprimees.get(i)) {
+                continue;
+            }
+            int debut = debuts[i];
+            int longueur = debuts[i + 1] - debut;
+            System.arraycopy(octets, debut, resultat.octets, resultat.utilises, longueur);
+            resultat.utilises += longueur;
+            if (nulles.get(i)) {
+                resultat.nulles.set(resultat.lignes);
+            }
+            resultat.lignes++;
+            resultat.debuts[resultat.lignes] = resultat.utilises;
+        }
+        resultat.octets = Arrays.copyOf(resultat.octets, Math.max(16, resultat.utilises));
+        return resultat;
+    }
+
+    /**
+     * Retourne la mémoire occupée par les tableaux de la colonne, en octets.
+     */
+    long octetsOccupes() {
+        return octets.length + 4L * debuts.length;
+    }
+}
@@ -0,0 +1,70 @@
+package modele.audio;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Écouteur qui retransmet les changements d’une bibliothèque à plusieurs écouteurs,
+ * par exemple à toutes les playlists filtrées tenues à jour en direct.
+ *
+ * Les écouteurs sont notifiés dans leur ordre d’inscription, sur le thread
+ * qui signale le changement. Ils peuvent être inscrits ou retirés à tout moment,
+ * y compris pendant une notification.
+ * @version 1
+ */
+public class DiffuseurBibliotheque implements EcouteurBibliotheque {
+
+    private final List<EcouteurBibliotheque> ecouteurs = new CopyOnWriteArrayList<>();
+
+    /**
+     * Inscrit un écouteur.
+     *
+     * @param ecouteur écouteur à notifier (non nul)
+     * @throws IllegalArgumentException si l’écouteur est nul
+     */
+    public void inscrire(EcouteurBibliotheque ecouteur) {
+        if (ecouteur == null) {
+            throw new IllegalArgumentException("L'écouteur ne doit pas être nul.");
+        }
+        ecouteurs.add(ecouteur);
+    }
+
+    /**
+     * Retire un écouteur ; sans effet s’il n’était pas inscrit.
+     *
+     * @param ecouteur écouteur à retirer
+     */
+    public void desinscrire(EcouteurBibliotheque ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    /**
+     * Retourne le nombre d’écouteurs inscrits.
+     *
+     * @return nombre d’écouteurs
+     */
+    public int nombreEcouteurs() {
+        return ecouteurs.size();
+    }
+
+    @Override
+    public void fichierAjoute(AudioFile fichier) {
+        for (EcouteurBibliotheque ecouteur : ecouteurs) {
+            ecouteur.fichierAjoute(fichier);
+        }
+    }
+
+    @Override
+    public void fichierModifie(AudioFile ancien, AudioFile nouveau) {
+        for (EcouteurBibliotheque ecouteur : ecouteurs) {
+            ecouteur.fichierModifie(ancien, nouveau);
+        }
+    }
+
+    @Override
+    public void fichierSupprime(AudioFile fichier) {
+        for (EcouteurBibliotheque ecouteur : ecouteurs) {
+            ecouteur.fichierSupprime(fichier);
+        }
+    }
+}
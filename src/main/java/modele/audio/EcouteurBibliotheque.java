@@ -0,0 +1,35 @@
+package modele.audio;
+
+/**
+ * Contrat d’écoute des changements d’une bibliothèque de fichiers audio.
+ * Permet à une vue (liste, playlist filtrée...) de se tenir à jour
+ * sans réimporter toute la bibliothèque.
+ *
+ * Les méthodes peuvent être appelées depuis un thread autre que celui de l’interface :
+ * c’est à l’implémentation de repasser sur le bon thread si nécessaire.
+ * @version 1
+ */
+public interface EcouteurBibliotheque {
+
+    /**
+     * Un fichier audio vient d’être ajouté à la bibliothèque.
+     *
+     * @param fichier fichier ajouté
+     */
+    void fichierAjoute(AudioFile fichier);
+
+    /**
+     * Un fichier audio déjà connu a été modifié et ses métadonnées rechargées.
+     *
+     * @param ancien version précédente du fichier
+     * @param nouveau version à jour du fichier
+     */
+    void fichierModifie(AudioFile ancien, AudioFile nouveau);
+
+    /**
+     * Un fichier audio a été retiré de la bibliothèque.
+     *
+     * @param fichier fichier supprimé
+     */
+    void fichierSupprime(AudioFile fichier);
+}
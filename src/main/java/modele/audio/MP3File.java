@@ -1,10 +1,12 @@
 package modele.audio;
 
 import modele.metadonnees.Metadata;
+import services.MetadonneesExtractor.ChampMetadata;
 import services.MetadonneesExtractor.MetadataExtractor;
 import services.mime.MimeChecker;
 
 import java.nio.file.Path;
+import java.util.Set;
 
 /**
  * Implémentation concrète d'un fichier audio au format MP3
@@ -107,8 +109,24 @@ public class MP3File extends AbstractAudioFile {
         if (extracteur == null) {
             throw new IllegalArgumentException("L'extracteur de métadonnées ne doit pas être nul.");
         }
+        appliquerMetadonnees(extracteur.extraire(obtenirChemin()));
+    }
+
+    /**
+     * Charge uniquement les champs demandés des métadonnées du fichier.
+     * Les autres champs restent à leur valeur par défaut.
+     * @param extracteur extracteur de métadonnées
+     * @param champs champs à extraire
+     * @throws IllegalArgumentException si l'extracteur ou les champs sont nuls
+     */
+    public void chargerMetadonnees(MetadataExtractor extracteur, Set<ChampMetadata> champs) {
+        if (extracteur == null) {
+            throw new IllegalArgumentException("L'extracteur de métadonnées ne doit pas être nul.");
+        }
+        appliquerMetadonnees(extracteur.extraire(obtenirChemin(), champs));
+    }
 
-        Metadata metadata = extracteur.extraire(obtenirChemin());
+    private void appliquerMetadonnees(Metadata metadata) {
         definirMetadonnees(metadata);
 
         if (metadata != null) {
@@ -0,0 +1,123 @@
+package modele.audio;
+
+import modele.metadonnees.Metadata;
+
+import java.nio.file.Path;
+
+/**
+ * Vue légère sur une ligne d'une {@link BibliothequeCompacte}.
+ *
+ * La vue ne contient que la référence à la bibliothèque et le numéro de ligne :
+ * l'artiste, le genre et l'année sont lus directement dans les colonnes, le chemin
+ * est reconstruit à chaque lecture, et les métadonnées (jamais de pochette)
+ * à la première lecture seulement, puis conservées par la vue. Après un compactage
+ * de la bibliothèque, la vue est périmée et ses méthodes lèvent une
+ * {@link IllegalStateException}.
+ */
+public class PisteCompacte implements AudioFile {
+
+    private final BibliothequeCompacte bibliotheque;
+    private final int identifiant;
+    private final int generation;
+
+    /** Métadonnées reconstruites à la première lecture. */
+    private volatile Metadata metadonnees;
+
+    PisteCompacte(BibliothequeCompacte bibliotheque, int identifiant, int generation) {
+        this.bibliotheque = bibliotheque;
+        this.identifiant = identifiant;
+        this.generation = generation;
+    }
+
+    /**
+     * Retourne le numéro de ligne de ce morceau dans sa bibliothèque.
+     *
+     * @return identifiant de la ligne
+     */
+    public int getIdentifiant() {
+        return identifiant;
+    }
+
+    public BibliothequeCompacte getBibliotheque() {
+        return bibliotheque;
+    }
+
+    @Override
+    public Path obtenirChemin() {
+        return bibliotheque.chemin(identifiant, generation);
+    }
+
+    @Override
+    public String obtenirNomFichier() {
+        return bibliotheque.nomFichier(identifiant, generation);
+    }
+
+    @Override
+    public String obtenirTypeMime() {
+        return bibliotheque.typeMime(identifiant, generation);
+    }
+
+    @Override
+    public Metadata obtenirMetadonnees() {
+        Metadata m = metadonnees;
+        if (m == null) {
+            m = bibliotheque.metadonnees(identifiant, generation);
+            metadonnees = m;
+        } else {
+            bibliotheque.verifierVue(identifiant, generation);
+        }
+        return m;
+    }
+
+    @Override
+    public String obtenirArtiste() {
+        return bibliotheque.artiste(identifiant, generation);
+    }
+
+    @Override
+    public String obtenirGenre() {
+        return bibliotheque.genre(identifiant, generation);
+    }
+
+    @Override
+    public int obtenirAnnee() {
+        return bibliotheque.annee(identifiant, generation);
+    }
+
+    @Override
+    public double obtenirDureeSecondes() {
+        return bibliotheque.duree(identifiant, generation);
+    }
+
+    @Override
+    public AudioFormat obtenirFormat() {
+        return bibliotheque.format(identifiant, generation);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PisteCompacte)) {
+            return false;
+        }
+        PisteCompacte autre = (PisteCompacte) o;
+        return bibliotheque == autre.bibliotheque
+                && identifiant == autre.identifiant
+                && generation == autre.generation;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * System.identityHashCode(bibliotheque) + identifiant) + generation;
+    }
+
+    @Override
+    public String toString() {
+        return "PisteCompacte{" +
+                "identifiant=" + identifiant +
+                ", generation=" + generation +
+                '}';
+    }
+}
@@ -2,7 +2,12 @@ package modele.metadonnees;
 
 
 
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Représente une pochette image  extraite d'un fichier audio.
@@ -10,6 +15,14 @@ import java.util.Arrays;
  *
  * Une pochette provient généralement des métadonnées ID3
  * des fichiers MP3.
+ *
+ * Une pochette peut aussi être paresseuse : construite sur une {@link SourcePochette},
+ * elle ne lit ses octets qu'au premier accès et ne les retient que par une
+ * référence souple, que le ramasse-miettes libère en cas de manque de mémoire.
+ *
+ * Une pochette paresseuse partagée entre plusieurs pistes peut recevoir les sources
+ * de chacune d'elles : si la source courante ne peut plus être relue (fichier
+ * modifié ou supprimé), la suivante prend le relais.
  */
 public class CoverImage {
 
@@ -25,6 +38,18 @@ public class CoverImage {
     /** Hauteur en pixels. */
     private int hauteur;
 
+    /** Emplacement des octets d'une pochette paresseuse (null sinon). */
+    private volatile SourcePochette source;
+
+    /** Autres emplacements de la même image, essayés si la source courante échoue. */
+    private List<SourcePochette> secours;
+
+    /** Octets déjà relus depuis la source, libérables par le ramasse-miettes. */
+    private SoftReference<byte[]> chargees;
+
+    /** Empreinte du contenu de l'image (null si inconnue). */
+    private String empreinte;
+
     /**
      * Construit une pochette vide.
      */
@@ -63,18 +88,138 @@ public class CoverImage {
         this.hauteur = hauteur;
     }
 
+    /**
+     * Construit une pochette paresseuse : les octets sont lus depuis la source
+     * seulement quand ils sont demandés.
+     *
+     * @param source   emplacement de l'image (ne doit pas être null)
+     * @param typeMime type MIME
+     * @param largeur  largeur >= 0
+     * @param hauteur  hauteur >= 0
+     */
+    public CoverImage(SourcePochette source, String typeMime, int largeur, int hauteur) {
+        this(source, typeMime, largeur, hauteur, null);
+    }
+
+    /**
+     * Construit une pochette paresseuse identifiée par l'empreinte de son contenu.
+     *
+     * @param source    emplacement de l'image (ne doit pas être null)
+     * @param typeMime  type MIME
+     * @param largeur   largeur >= 0
+     * @param hauteur   hauteur >= 0
+     * @param empreinte empreinte du contenu de l'image (peut être null)
+     */
+    public CoverImage(SourcePochette source, String typeMime, int largeur, int hauteur, String empreinte) {
+        this((byte[]) null, typeMime, largeur, hauteur);
+
+        if (source == null) {
+            throw new IllegalArgumentException("La source de la pochette ne doit pas être nulle");
+        }
+        this.source = source;
+        this.empreinte = empreinte;
+    }
+
+    /**
+     * Ajoute un autre emplacement de la même image, utilisé si la source courante
+     * ne peut plus être relue. Sans effet pour une pochette qui n'est pas paresseuse
+     * ou si l'emplacement est déjà connu.
+     *
+     * @param autre emplacement contenant les mêmes octets (ignoré si null)
+     */
+    public synchronized void ajouterSource(SourcePochette autre) {
+        if (autre == null || source == null || autre.equals(source)) {
+            return;
+        }
+        if (secours == null) {
+            secours = new ArrayList<>();
+        } else if (secours.contains(autre)) {
+            return;
+        }
+        secours.add(autre);
+    }
+
+    /**
+     * Retourne l'empreinte du contenu de l'image : deux pochettes de même empreinte
+     * contiennent la même image. Clé stable pour mettre en cache des vignettes.
+     *
+     * @return empreinte, ou null si elle n'a pas été calculée
+     */
+    public String getEmpreinte() {
+        return empreinte;
+    }
+
     /**
      * Retourne une copie défensive des octets.
+     * Pour une pochette paresseuse, l'image est lue depuis sa source si nécessaire ;
+     * si aucune source ne peut plus être relue, la pochette devient vide
+     * ({@link #estVide()} vrai) et null est retourné.
      */
     public byte[] getDonnees() {
-        if (donnees == null) {
+        byte[] octets = resoudre();
+        if (octets == null) {
             return null;
         }
-        return Arrays.copyOf(donnees, donnees.length);
+        return Arrays.copyOf(octets, octets.length);
+    }
+
+    /**
+     * Retourne une vue en lecture seule des octets, sans copie.
+     *
+     * @return tampon en lecture seule positionné au début de l'image,
+     *         ou null si aucune image (ou si elle ne peut plus être relue)
+     */
+    public ByteBuffer getVueDonnees() {
+        byte[] octets = resoudre();
+        if (octets == null) {
+            return null;
+        }
+        return ByteBuffer.wrap(octets).asReadOnlyBuffer();
+    }
+
+    /**
+     * Retourne la taille de l'image en octets, sans la charger.
+     *
+     * @return taille en octets (0 si aucune image)
+     */
+    public long getTaille() {
+        if (donnees != null) {
+            return donnees.length;
+        }
+        SourcePochette courante = source;
+        if (courante != null) {
+            return courante.getTaille();
+        }
+        return 0;
+    }
+
+    /**
+     * Retourne les emplacements connus d'une pochette paresseuse :
+     * la source courante puis les emplacements de secours.
+     *
+     * @return copie des sources (vide si la pochette n'est pas paresseuse)
+     */
+    public synchronized List<SourcePochette> getSources() {
+        List<SourcePochette> sources = new ArrayList<>();
+        if (source != null) {
+            sources.add(source);
+            if (secours != null) {
+                sources.addAll(secours);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Indique si la pochette est paresseuse (lue depuis sa source à la demande).
+     */
+    public boolean estParesseuse() {
+        return source != null;
     }
 
     /**
      * Définit les données de l'image.
+     * La pochette cesse alors d'être paresseuse.
      */
     public void setDonnees(byte[] donnees) {
         if (donnees == null) {
@@ -82,6 +227,44 @@ public class CoverImage {
         } else {
             this.donnees = Arrays.copyOf(donnees, donnees.length);
         }
+        synchronized (this) {
+            this.source = null;
+            this.secours = null;
+            this.chargees = null;
+        }
+        this.empreinte = null;
+    }
+
+    /**
+     * Retourne les octets internes, en les relisant depuis la source si besoin.
+     * Une source illisible est abandonnée au profit du premier emplacement de secours ;
+     * quand plus aucune ne peut être relue, la pochette devient vide.
+     */
+    private byte[] resoudre() {
+        if (source == null) {
+            return donnees;
+        }
+
+        synchronized (this) {
+            byte[] octets = (chargees != null) ? chargees.get() : null;
+            while (octets == null && source != null) {
+                try {
+                    octets = source.charger();
+                } catch (IOException e) {
+                    octets = null;
+                }
+                if (octets == null) {
+                    source = (secours != null && !secours.isEmpty()) ? secours.remove(0) : null;
+                }
+            }
+            if (octets == null) {
+                secours = null;
+                chargees = null;
+                return donnees;
+            }
+            chargees = new SoftReference<>(octets);
+            return octets;
+        }
     }
 
     public String getTypeMime() {
@@ -118,13 +301,7 @@ public class CoverImage {
      * Indique si aucune image n'est présente.
      */
     public boolean estVide() {
-        if (donnees == null) {
-            return true;
-        }
-        if (donnees.length == 0) {
-            return true;
-        }
-        return false;
+        return getTaille() == 0;
     }
     public String descriptionCourte() {
 
@@ -154,11 +331,7 @@ public class CoverImage {
             type = "null";
         }
 
-        int taille = 0;
-
-        if (donnees != null) {
-            taille = donnees.length;
-        }
+        long taille = getTaille();
 
         return "CoverImage{" +
                 "typeMime='" + type + '\'' +
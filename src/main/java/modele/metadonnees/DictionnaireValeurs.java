@@ -0,0 +1,231 @@
+package modele.metadonnees;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dictionnaire de valeurs textuelles canoniques (artistes, albums, genres...).
+ *
+ * Chaque valeur normalisée (espaces de début et de fin retirés) n'est conservée
+ * qu'une fois et reçoit un identifiant entier stable, attribué dans l'ordre d'arrivée
+ * à partir de 0. Les valeurs ne différant que par la casse partagent en outre
+ * une même clé, ce qui permet des comparaisons insensibles à la casse par simple
+ * comparaison d'entiers.
+ *
+ * La recherche d'une valeur déjà connue se fait sans verrou ; seul l'ajout
+ * d'une nouvelle valeur est synchronisé. Le dictionnaire peut donc être alimenté
+ * par plusieurs threads d'import à la fois.
+ */
+public class DictionnaireValeurs {
+
+    /** Identifiant retourné pour une valeur nulle ou inconnue. */
+    public static final int AUCUN = -1;
+
+    private final ConcurrentHashMap<String, Integer> identifiants = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> cles = new ConcurrentHashMap<>();
+
+    /** Valeurs canoniques indexées par identifiant (publiées avant leur identifiant). */
+    private volatile String[] valeurs = new String[64];
+    /** Clé insensible à la casse de chaque identifiant. */
+    private volatile int[] clesParIdentifiant = new int[64];
+    private volatile int taille;
+
+    private final AtomicLong requetes = new AtomicLong();
+    private final AtomicLong doublons = new AtomicLong();
+
+    /**
+     * Normalise une valeur : retire les espaces de début et de fin.
+     *
+     * @param valeur valeur brute
+     * @return valeur normalisée, ou null si la valeur est nulle
+     */
+    public static String normaliser(String valeur) {
+        return valeur == null ? null : valeur.trim();
+    }
+
+    /**
+     * Indique si une valeur brute, une fois normalisée, est égale à une valeur déjà
+     * normalisée sans tenir compte de la casse. Équivaut à
+     * {@code brute.trim().equalsIgnoreCase(normalisee)}, sans créer de chaîne.
+     *
+     * @param brute valeur brute (non nulle)
+     * @param normalisee valeur normalisée (non nulle)
+     * @return true si les deux valeurs sont égales à la casse et aux espaces près
+     */
+    public static boolean egaleNormalisee(String brute, String normalisee) {
+        int debut = 0;
+        int fin = brute.length();
+        while (debut < fin && brute.charAt(debut) <= ' ') {
+            debut++;
+        }
+        while (fin > debut && brute.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        return fin - debut == normalisee.length()
+                && brute.regionMatches(true, debut, normalisee, 0, normalisee.length());
+    }
+
+    /**
+     * Retourne l'instance canonique d'une valeur, en l'ajoutant au dictionnaire si besoin.
+     *
+     * @param valeur valeur brute
+     * @return instance partagée de la valeur normalisée, ou null si la valeur est nulle
+     */
+    public String canoniser(String valeur) {
+        int id = identifiant(valeur);
+        return id == AUCUN ? null : valeurs[id];
+    }
+
+    /**
+     * Retourne l'identifiant d'une valeur, en l'ajoutant au dictionnaire si besoin.
+     *
+     * @param valeur valeur brute
+     * @return identifiant de la valeur normalisée, ou {@link #AUCUN} si la valeur est nulle
+     */
+    public int identifiant(String valeur) {
+        String normalisee = normaliser(valeur);
+        if (normalisee == null) {
+            return AUCUN;
+        }
+        requetes.incrementAndGet();
+
+        Integer id = identifiants.get(normalisee);
+        if (id != null) {
+            if (valeurs[id] != valeur) {
+                doublons.incrementAndGet();
+            }
+            return id;
+        }
+        return ajouter(normalisee);
+    }
+
+    /**
+     * Retourne l'identifiant d'une valeur sans l'ajouter au dictionnaire.
+     *
+     * @param valeur valeur brute
+     * @return identifiant, ou {@link #AUCUN} si la valeur est nulle ou inconnue
+     */
+    public int chercher(String valeur) {
+        String normalisee = normaliser(valeur);
+        if (normalisee == null) {
+            return AUCUN;
+        }
+        Integer id = identifiants.get(normalisee);
+        return id == null ? AUCUN : id;
+    }
+
+    /**
+     * Retourne la clé insensible à la casse d'une valeur, sans l'ajouter au dictionnaire.
+     *
+     * @param valeur valeur brute
+     * @return clé, ou {@link #AUCUN} si aucune valeur connue ne correspond
+     */
+    public int chercherCle(String valeur) {
+        String normalisee = normaliser(valeur);
+        if (normalisee == null) {
+            return AUCUN;
+        }
+        Integer cle = cles.get(plier(normalisee));
+        return cle == null ? AUCUN : cle;
+    }
+
+    /**
+     * Retourne la valeur canonique d'un identifiant.
+     *
+     * @param identifiant identifiant attribué par ce dictionnaire
+     * @return valeur canonique
+     * @throws IllegalArgumentException si l'identifiant est inconnu
+     */
+    public String valeur(int identifiant) {
+        verifier(identifiant);
+        return valeurs[identifiant];
+    }
+
+    /**
+     * Retourne la clé insensible à la casse d'un identifiant.
+     *
+     * @param identifiant identifiant attribué par ce dictionnaire
+     * @return clé partagée par toutes les valeurs égales à la casse près
+     * @throws IllegalArgumentException si l'identifiant est inconnu
+     */
+    public int cle(int identifiant) {
+        verifier(identifiant);
+        return clesParIdentifiant[identifiant];
+    }
+
+    /**
+     * Retourne le nombre de valeurs distinctes.
+     *
+     * @return nombre de valeurs
+     */
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * Retourne le nombre de valeurs soumises au dictionnaire.
+     *
+     * @return nombre de requêtes
+     */
+    public long getRequetes() {
+        return requetes.get();
+    }
+
+    /**
+     * Retourne le nombre de valeurs soumises qui étaient des copies d'une valeur
+     * déjà connue (et qui peuvent donc être libérées).
+     *
+     * @return nombre de doublons
+     */
+    public long getDoublons() {
+        return doublons.get();
+    }
+
+    private synchronized int ajouter(String normalisee) {
+        Integer existant = identifiants.get(normalisee);
+        if (existant != null) {
+            doublons.incrementAndGet();
+            return existant;
+        }
+
+        int id = taille;
+        String[] v = valeurs;
+        int[] c = clesParIdentifiant;
+        if (id == v.length) {
+            v = Arrays.copyOf(v, v.length * 2);
+            c = Arrays.copyOf(c, c.length * 2);
+        }
+        v[id] = normalisee;
+        c[id] = cles.computeIfAbsent(plier(normalisee), k -> cles.size());
+        valeurs = v;
+        clesParIdentifiant = c;
+        taille = id + 1;
+
+        // Publication en dernier : un identifiant visible a toujours sa valeur
+        identifiants.put(normalisee, id);
+        return id;
+    }
+
+    private void verifier(int identifiant) {
+        if (identifiant < 0 || identifiant >= taille) {
+            throw new IllegalArgumentException("Identifiant inconnu : " + identifiant);
+        }
+    }
+
+    /**
+     * Retourne la clé de comparaison insensible à la casse d'une valeur normalisée :
+     * deux valeurs ont la même clé si et seulement si
+     * {@link String#equalsIgnoreCase(String)} les juge égales.
+     *
+     * @param valeur valeur normalisée
+     * @return clé de comparaison
+     */
+    public static String plier(String valeur) {
+        char[] caracteres = valeur.toCharArray();
+        for (int i = 0; i < caracteres.length; i++) {
+            caracteres[i] = Character.toLowerCase(Character.toUpperCase(caracteres[i]));
+        }
+        return new String(caracteres);
+    }
+}
@@ -1,5 +1,7 @@
 package modele.metadonnees;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 
 /**
@@ -94,6 +96,15 @@ public class ID3TagSet {
         return tags.size();
     }
 
+    /**
+     * Retourne tous les tags de l'ensemble.
+     *
+     * @return vue non modifiable des tags
+     */
+    public Collection<Id3Tag> lister() {
+        return Collections.unmodifiableCollection(tags.values());
+    }
+
     /**
      * Supprime un tag selon son identifiant.
      *
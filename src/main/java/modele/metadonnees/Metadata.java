@@ -219,6 +219,22 @@ public class Metadata {
         return pochette != null && !pochette.estVide();
     }
 
+    /**
+     * Remplace les valeurs répétitives par leurs instances canoniques.
+     * Le titre, propre à chaque morceau, n'est pas concerné.
+     *
+     * @param pool dictionnaires de valeurs canoniques
+     * @see PoolCanonique#canoniser(Metadata)
+     */
+    void canoniser(PoolCanonique pool) {
+        artiste = pool.getArtistes().canoniser(artiste);
+        album = pool.getAlbums().canoniser(album);
+        genre = pool.getGenres().canoniser(genre);
+        channels = pool.getTechniques().canoniser(channels);
+        format = pool.getTechniques().canoniser(format);
+        encodingType = pool.getTechniques().canoniser(encodingType);
+    }
+
     /**
      * Retourne une représentation textuelle des métadonnées.
      *
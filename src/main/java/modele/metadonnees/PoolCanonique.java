@@ -0,0 +1,67 @@
+package modele.metadonnees;
+
+/**
+ * Ensemble des dictionnaires de valeurs canoniques d'une bibliothèque.
+ *
+ * Dans une grande bibliothèque, les mêmes artistes, albums et genres
+ * (et plus encore les format, canaux et encodage) reviennent des milliers de fois :
+ * en canonisant les métadonnées dès leur import, chaque valeur n'est conservée
+ * qu'une fois en mémoire et reçoit un identifiant entier stable,
+ * propre à son dictionnaire.
+ */
+public class PoolCanonique {
+
+    private final DictionnaireValeurs artistes = new DictionnaireValeurs();
+    private final DictionnaireValeurs albums = new DictionnaireValeurs();
+    private final DictionnaireValeurs genres = new DictionnaireValeurs();
+    /** Format, canaux et type d'encodage : quelques valeurs seulement, partagées. */
+    private final DictionnaireValeurs techniques = new DictionnaireValeurs();
+
+    /**
+     * Remplace, dans les métadonnées, l'artiste, l'album, le genre et les informations
+     * techniques par leurs valeurs canoniques (normalisées et partagées).
+     *
+     * @param metadata métadonnées à canoniser (modifiées sur place)
+     * @return les mêmes métadonnées, ou null si {@code metadata} est nul
+     */
+    public Metadata canoniser(Metadata metadata) {
+        if (metadata != null) {
+            metadata.canoniser(this);
+        }
+        return metadata;
+    }
+
+    public DictionnaireValeurs getArtistes() {
+        return artistes;
+    }
+
+    public DictionnaireValeurs getAlbums() {
+        return albums;
+    }
+
+    public DictionnaireValeurs getGenres() {
+        return genres;
+    }
+
+    public DictionnaireValeurs getTechniques() {
+        return techniques;
+    }
+
+    /**
+     * Retourne le nombre de valeurs soumises qui étaient des copies d'une valeur
+     * déjà connue, tous dictionnaires confondus.
+     *
+     * @return nombre de doublons évités
+     */
+    public long getDoublons() {
+        return artistes.getDoublons() + albums.getDoublons()
+                + genres.getDoublons() + techniques.getDoublons();
+    }
+
+    @Override
+    public String toString() {
+        return artistes.taille() + " artistes, " + albums.taille() + " albums, "
+                + genres.taille() + " genres, " + techniques.taille() + " valeurs techniques, "
+                + getDoublons() + " doublons évités";
+    }
+}
@@ -0,0 +1,26 @@
+package modele.metadonnees;
+
+import java.io.IOException;
+
+/**
+ * Emplacement d'une pochette dont les octets ne sont pas gardés en mémoire.
+ * La source sait relire l'image à la demande (par exemple depuis le fichier audio),
+ * ce qui évite de conserver toutes les pochettes d'une bibliothèque sur le tas.
+ */
+public interface SourcePochette {
+
+    /**
+     * Relit les octets de l'image.
+     *
+     * @return données brutes de l'image
+     * @throws IOException si l'image ne peut plus être relue
+     */
+    byte[] charger() throws IOException;
+
+    /**
+     * Retourne la taille de l'image connue lors de l'extraction, sans la relire.
+     *
+     * @return taille en octets
+     */
+    long getTaille();
+}
@@ -0,0 +1,151 @@
+package modele.playlist;
+
+import modele.audio.AudioFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Conjonction de critères : un fichier est accepté s'il satisfait tous les critères.
+ *
+ * Les critères sont évalués par rang croissant {@code cout / (1 - selectivite)} :
+ * un critère peu coûteux qui rejette beaucoup de fichiers est évalué en premier,
+ * et l'évaluation s'arrête au premier critère non satisfait.
+ * Une conjonction vide accepte tous les fichiers.
+ *
+ * Avec un index, le critère indexé le plus sélectif est résolu en premier
+ * et son résultat est intersecté avec celui des suivants ; les autres critères
+ * ne sont évalués que sur les fichiers restants. Une négation indexée est appliquée
+ * en retirant le résultat du critère nié, sans calculer son complément.
+ */
+public class AndCriteria extends CompositeCriteria {
+
+    /**
+     * Au-delà de ce rapport entre la taille du résultat d'un critère indexé et
+     * le nombre de fichiers encore retenus, le critère est évalué fichier par fichier
+     * plutôt que par intersection.
+     */
+    private static final int RAPPORT_INTERSECTION = 16;
+
+    /**
+     * Construit une conjonction de critères.
+     *
+     * @param criteres critères à combiner
+     * @throws IllegalArgumentException si la liste ou l'un des critères est nul
+     */
+    public AndCriteria(List<? extends FilterCriteria> criteres) {
+        super(criteres, Comparator.comparingDouble(AndCriteria::rang));
+    }
+
+    /**
+     * Construit une conjonction de critères.
+     *
+     * @param criteres critères à combiner
+     * @throws IllegalArgumentException si l'un des critères est nul
+     */
+    public AndCriteria(FilterCriteria... criteres) {
+        this(Arrays.asList(criteres));
+    }
+
+    /** Coût moyen d'un rejet : plus il est faible, plus le critère doit être évalué tôt. */
+    private static double rang(FilterCriteria critere) {
+        double rejet = 1.0 - proportion(critere);
+        return rejet <= 0 ? Double.POSITIVE_INFINITY : coutPositif(critere) / rejet;
+    }
+
+    @Override
+    public boolean correspond(AudioFile file) {
+        for (FilterCriteria critere : criteres) {
+            if (!critere.correspond(file)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Coût espéré : chaque critère n'est évalué que si les précédents sont satisfaits. */
+    @Override
+    public double cout() {
+        double total = 0;
+        double atteint = 1.0;
+        for (FilterCriteria critere : criteres) {
+            total += atteint * coutPositif(critere);
+            atteint *= proportion(critere);
+        }
+        return total;
+    }
+
+    @Override
+    public double selectivite() {
+        double p = 1.0;
+        for (FilterCriteria critere : criteres) {
+            p *= proportion(critere);
+        }
+        return p;
+    }
+
+    @Override
+    public int estimer(IndexBibliotheque index) {
+        int estimation = index.taille();
+        for (FilterCriteria critere : criteres) {
+            if (estResoluParIndex(critere)) {
+                estimation = Math.min(estimation, ((CritereIndexable) critere).estimer(index));
+            }
+        }
+        return (int) Math.round(estimation * selectiviteNonIndexee());
+    }
+
+    @Override
+    public int[] rechercher(IndexBibliotheque index) {
+        List<CritereIndexable> indexables = new ArrayList<>();
+        List<FilterCriteria> autres = new ArrayList<>();
+        separer(indexables, autres);
+
+        if (indexables.isEmpty()) {
+            return index.filtrer(this);
+        }
+
+        // Résolution du critère le plus sélectif, puis intersection avec les suivants ;
+        // un critère beaucoup moins sélectif est plutôt évalué sur les fichiers restants.
+        int[] estimations = new int[indexables.size()];
+        Integer[] ordre = new Integer[indexables.size()];
+        for (int i = 0; i < ordre.length; i++) {
+            estimations[i] = indexables.get(i).estimer(index);
+            ordre[i] = i;
+        }
+        Arrays.sort(ordre, Comparator.comparingInt(i -> estimations[i]));
+
+        int[] positions = indexables.get(ordre[0]).rechercher(index);
+        List<FilterCriteria> aVerifier = new ArrayList<>();
+        for (int k = 1; k < ordre.length && positions.length > 0; k++) {
+            CritereIndexable critere = indexables.get(ordre[k]);
+            if (estimations[ordre[k]] > (long) positions.length * RAPPORT_INTERSECTION) {
+                aVerifier.add(critere);
+            } else if (critere instanceof NotCriteria) {
+                CritereIndexable nie = (CritereIndexable) ((NotCriteria) critere).getCritere();
+                positions = IndexBibliotheque.soustraire(positions, nie.rechercher(index));
+            } else {
+                positions = IndexBibliotheque.intersecter(positions, critere.rechercher(index));
+            }
+        }
+        aVerifier.addAll(autres);
+
+        if (aVerifier.isEmpty() || positions.length == 0) {
+            return positions;
+        }
+        return index.filtrer(positions, new AndCriteria(aVerifier));
+    }
+
+    /** Sélectivité estimée des seuls critères non résolus par l'index. */
+    private double selectiviteNonIndexee() {
+        double p = 1.0;
+        for (FilterCriteria critere : criteres) {
+            if (!estResoluParIndex(critere)) {
+                p *= proportion(critere);
+            }
+        }
+        return p;
+    }
+}
@@ -1,7 +1,7 @@
 package modele.playlist;
 
 import modele.audio.AudioFile;
-import modele.metadonnees.Metadata;
+import modele.metadonnees.DictionnaireValeurs;
 
 /**
  * Contrainte de sélection basée sur l'artiste d’un fichier audio
@@ -10,7 +10,7 @@ import modele.metadonnees.Metadata;
  * intelligentes où chaque fichier doit satisfaire certains critères.
  */
 
-public class ArtistCriteria implements FilterCriteria {
+public class ArtistCriteria implements CritereIndexable {
 
     /** Nom d'artiste recherché, nettoyé (trim). */
     private String artiste;
@@ -28,6 +28,22 @@ public class ArtistCriteria implements FilterCriteria {
         this.artiste = artiste.trim();
     }
 
+    /**
+     * Retourne les positions des fichiers de cet artiste dans l'index.
+     *
+     * @param index index de la bibliothèque
+     * @return positions triées (tableau partagé)
+     */
+    @Override
+    public int[] rechercher(IndexBibliotheque index) {
+        return index.positionsArtiste(artiste);
+    }
+
+    @Override
+    public int estimer(IndexBibliotheque index) {
+        return index.positionsArtiste(artiste).length;
+    }
+
     /**
      * Indique si le fichier audio satisfait cette contrainte.
      *
@@ -42,17 +58,23 @@ public class ArtistCriteria implements FilterCriteria {
             return false;
         }
 
-        Metadata meta = file.obtenirMetadonnees();
-        if (meta == null) {
-            return false;
-        }
-
-        String artisteMeta = meta.getArtiste();
+        String artisteMeta = file.obtenirArtiste();
         if (artisteMeta == null) {
             return false;
         }
 
+        return DictionnaireValeurs.egaleNormalisee(artisteMeta, artiste);
+    }
+
+    /** Lecture des métadonnées et comparaison d'une chaîne courte. */
+    @Override
+    public double cout() {
+        return 1.2;
+    }
 
-        return artisteMeta.trim().equalsIgnoreCase(artiste);
+    /** Un artiste ne représente en général qu'une petite partie d'une bibliothèque. */
+    @Override
+    public double selectivite() {
+        return 0.01;
     }
 }
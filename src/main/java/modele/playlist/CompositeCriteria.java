@@ -0,0 +1,113 @@
+package modele.playlist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Base des combinaisons de plusieurs critères ({@link AndCriteria}, {@link OrCriteria}).
+ *
+ * Les critères sont réordonnés une fois pour toutes à la construction, selon leur
+ * coût et leur sélectivité estimés ({@link FilterCriteria#cout()},
+ * {@link FilterCriteria#selectivite()}), de sorte que l'évaluation s'arrête
+ * le plus tôt possible en moyenne. Les critères devant être sans effet de bord,
+ * l'ordre d'évaluation ne change pas le résultat.
+ */
+public abstract class CompositeCriteria implements CritereIndexable {
+
+    /** Critères dans leur ordre d'évaluation. */
+    protected final FilterCriteria[] criteres;
+
+    /**
+     * @param criteres critères combinés
+     * @param ordre ordre d'évaluation (le premier critère est évalué en premier)
+     */
+    protected CompositeCriteria(List<? extends FilterCriteria> criteres,
+                                Comparator<FilterCriteria> ordre) {
+        if (criteres == null) {
+            throw new IllegalArgumentException("La liste des critères ne doit pas être nulle.");
+        }
+        for (FilterCriteria critere : criteres) {
+            if (critere == null) {
+                throw new IllegalArgumentException("Le critère ne doit pas être nul.");
+            }
+        }
+        this.criteres = criteres.toArray(new FilterCriteria[0]);
+        Arrays.sort(this.criteres, ordre);
+    }
+
+    /**
+     * Retourne les critères combinés, dans leur ordre d'évaluation.
+     *
+     * @return liste non modifiable des critères
+     */
+    public List<FilterCriteria> getCriteres() {
+        return Collections.unmodifiableList(Arrays.asList(criteres));
+    }
+
+    /**
+     * Une combinaison est résolue par l'index si tous ses critères le sont.
+     */
+    @Override
+    public boolean resoluParIndex() {
+        for (FilterCriteria critere : criteres) {
+            if (!estResoluParIndex(critere)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indique si un critère peut être résolu par l'index sans évaluer chaque fichier.
+     *
+     * @param critere critère à examiner
+     * @return true si le critère est indexable et résolu par l'index
+     */
+    static boolean estResoluParIndex(FilterCriteria critere) {
+        return critere instanceof CritereIndexable && ((CritereIndexable) critere).resoluParIndex();
+    }
+
+    /**
+     * Sépare les critères résolus par l'index des autres.
+     *
+     * @param indexables reçoit les critères résolus par l'index
+     * @param autres reçoit les autres critères, dans leur ordre d'évaluation
+     */
+    void separer(List<CritereIndexable> indexables, List<FilterCriteria> autres) {
+        for (FilterCriteria critere : criteres) {
+            if (estResoluParIndex(critere)) {
+                indexables.add((CritereIndexable) critere);
+            } else {
+                autres.add(critere);
+            }
+        }
+    }
+
+    /**
+     * Retourne une estimation bornée à [0, 1] de la sélectivité d'un critère.
+     */
+    static double proportion(FilterCriteria critere) {
+        double p = critere.selectivite();
+        return Double.isNaN(p) ? 0.5 : Math.max(0.0, Math.min(1.0, p));
+    }
+
+    /**
+     * Retourne le coût d'un critère, borné à une valeur strictement positive.
+     */
+    static double coutPositif(FilterCriteria critere) {
+        double c = critere.cout();
+        return (Double.isNaN(c) || c <= 0) ? 1e-6 : c;
+    }
+
+    @Override
+    public String toString() {
+        List<String> textes = new ArrayList<>();
+        for (FilterCriteria critere : criteres) {
+            textes.add(String.valueOf(critere));
+        }
+        return getClass().getSimpleName() + textes;
+    }
+}
@@ -0,0 +1,40 @@
+package modele.playlist;
+
+/**
+ * Critère de filtrage pouvant être résolu directement par un {@link IndexBibliotheque},
+ * sans tester chaque fichier.
+ *
+ * Le résultat de {@link #rechercher(IndexBibliotheque)} doit contenir exactement
+ * les positions des fichiers pour lesquels {@link #correspond} retourne true.
+ */
+public interface CritereIndexable extends FilterCriteria {
+
+    /**
+     * Retourne les positions des fichiers de l'index qui satisfont ce critère.
+     *
+     * @param index index de la bibliothèque
+     * @return positions triées par ordre croissant (tableau éventuellement partagé,
+     *         à ne pas modifier)
+     */
+    int[] rechercher(IndexBibliotheque index);
+
+    /**
+     * Retourne, sans construire la liste, le nombre de positions que retournerait
+     * {@link #rechercher(IndexBibliotheque)}. Sert à choisir l'ordre de résolution des critères.
+     *
+     * @param index index de la bibliothèque
+     * @return nombre de fichiers retenus par ce critère
+     */
+    int estimer(IndexBibliotheque index);
+
+    /**
+     * Indique si {@link #rechercher(IndexBibliotheque)} est résolu par l'index
+     * plutôt qu'en évaluant chaque fichier (cas d'une combinaison contenant
+     * des critères non indexables).
+     *
+     * @return true si le critère est résolu par l'index
+     */
+    default boolean resoluParIndex() {
+        return true;
+    }
+}
@@ -19,4 +19,25 @@ public interface FilterCriteria {
      *         false sinon
      */
     boolean correspond(AudioFile file);
+
+    /**
+     * Coût relatif d'un appel à {@link #correspond(AudioFile)}, utilisé par les
+     * combinaisons de critères pour évaluer d'abord les critères peu coûteux.
+     * La lecture des métadonnées et une comparaison simple valent environ 1.
+     *
+     * @return coût relatif (strictement positif)
+     */
+    default double cout() {
+        return 1.0;
+    }
+
+    /**
+     * Proportion estimée des fichiers acceptés par ce critère, entre 0 et 1,
+     * utilisée par les combinaisons de critères pour évaluer d'abord les critères sélectifs.
+     *
+     * @return proportion estimée de fichiers acceptés
+     */
+    default double selectivite() {
+        return 0.5;
+    }
 }
@@ -1,22 +1,62 @@
 package modele.playlist;
 
 import modele.audio.AudioFile;
+import modele.audio.EcouteurBibliotheque;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Cette Classe Représente une playlist filtrée. Son contenu n'est pas ajouté manuellement :
  * il est généré automatiquement à partir d'une bibliothèque de fichiers audio,
  * Chaque critère doit être satisfait pour qu'un fichier soit inclus.
  * Cette classe permet donc de créer des playlists dynamiques basées sur des filtres.
+ *
+ * Les critères forment une conjonction ({@link AndCriteria}) : ils sont évalués
+ * du plus avantageux (peu coûteux et sélectif) au moins avantageux,
+ * et non dans leur ordre d'ajout. Les critères combinés par
+ * {@link OrCriteria} ou {@link NotCriteria} s'ajoutent comme les autres.
+ *
+ * Une playlist filtrée peut aussi être tenue à jour en direct : inscrite comme
+ * {@link EcouteurBibliotheque} (directement ou via un
+ * {@link modele.audio.DiffuseurBibliotheque}), elle n'évalue que les fichiers ajoutés,
+ * modifiés ou supprimés, sans refiltrer la bibliothèque. Les fichiers sont identifiés
+ * par leur chemin ; un fichier ajouté est placé en fin de playlist.
+ * La taille et la durée totale sont tenues à jour à chaque changement.
+ *
+ * Un retrait ne décale pas les entrées suivantes : son emplacement est seulement
+ * marqué libre, et la liste n'est compactée (entrées renumérotées) qu'à la lecture
+ * suivante, ou quand plus de la moitié des emplacements sont libres. Retirer
+ * k fichiers d'une playlist de n entrées coûte ainsi O(k + n) et non O(k·n).
+ *
+ * Les méthodes de mise à jour sont synchronisées : les événements peuvent
+ * provenir d'un autre thread (surveillance, import en cours...).
  */
-public class FilteredPlaylist extends AbstractPlaylist {
+public class FilteredPlaylist extends AbstractPlaylist implements EcouteurBibliotheque {
 
     /** Liste des critères qui seront appliqués sur les fichiers audio. */
     private List<FilterCriteria> criteres;
 
+    /** Conjonction des critères, recalculée après l'ajout d'un critère. */
+    private FilterCriteria filtre;
+
+    /** Entrée de chaque fichier de la playlist, par chemin. */
+    private final Map<Path, PlaylistEntry> parChemin = new HashMap<>();
+
+    /** Somme des durées des entrées, en secondes. */
+    private double dureeTotale;
+
+    /** Nombre d'emplacements libérés (null) dans {@code elements}, en attente de compactage. */
+    private int retirees;
+
+    /** Nombre d'emplacements libres au-delà duquel la liste est compactée sans attendre une lecture. */
+    private static final int SEUIL_COMPACTAGE = 1024;
+
     /**
      * Construit une playlist filtrée sans nom.
      * Utile pour les playlists temporaires ou générées automatiquement.
@@ -37,14 +77,36 @@ public class FilteredPlaylist extends AbstractPlaylist {
 
     /**
      * Ajoute un critère à appliquer lors de la génération de la playlist.
+     * Les entrées déjà présentes qui ne le satisfont pas sont retirées.
      *
      * @param critere critère à ajouter (ne doit pas être null)
      */
-    public void ajouterCritere(FilterCriteria critere) {
+    public synchronized void ajouterCritere(FilterCriteria critere) {
         if (critere == null) {
             throw new IllegalArgumentException("Le critère ne doit pas être nul.");
         }
         criteres.add(critere);
+        filtre = null;
+
+        // Les critères formant une conjonction, un critère de plus ne peut que retirer des entrées
+        List<PlaylistEntry> conservees = new ArrayList<>(elements.size());
+        for (PlaylistEntry entree : elements) {
+            if (entree == null) {
+                continue;
+            }
+            if (critere.correspond(entree.getFichier())) {
+                entree.setIndice(conservees.size());
+                conservees.add(entree);
+            } else {
+                parChemin.remove(entree.getFichier().obtenirChemin());
+                dureeTotale -= entree.obtenirDureeSecondes();
+            }
+        }
+        if (conservees.size() != elements.size()) {
+            elements.clear();
+            elements.addAll(conservees);
+        }
+        retirees = 0;
     }
 
     /**
@@ -53,15 +115,17 @@ public class FilteredPlaylist extends AbstractPlaylist {
      *
      * @param bibliotheque collection de fichiers audio à analyser
      */
-    public void appliquerCriteres(Collection<AudioFile> bibliotheque) {
+    public synchronized void appliquerCriteres(Collection<AudioFile> bibliotheque) {
 
-        elements.clear();
+        vider();
 
         if (bibliotheque == null || bibliotheque.isEmpty()) {
             return;
         }
 
-        int indice = 0;
+        // Ordre d'évaluation des critères calculé une fois pour toute la bibliothèque
+        FilterCriteria filtre = filtre();
+        LocalDateTime maintenant = LocalDateTime.now();
 
         for (AudioFile fichier : bibliotheque) {
 
@@ -69,32 +133,210 @@ public class FilteredPlaylist extends AbstractPlaylist {
                 continue;
             }
 
-            if (estValideSelonCriteres(fichier)) {
-                PlaylistEntry entry = new PlaylistEntry(fichier, indice);
-                elements.add(entry);
-                indice++;
+            if (filtre.correspond(fichier)) {
+                ajouterEntree(fichier, maintenant);
             }
         }
     }
 
     /**
-     * Vérifie si un fichier audio satisfait l’ensemble des critères.
-     * @param fichier fichier audio à tester
-     * @return true si le fichier respecte tous les critères, false sinon
+     * Reconstruit la playlist à partir d’un index de la bibliothèque.
+     *
+     * Les critères indexables (artiste, genre, années...) sont résolus par l’index,
+     * en commençant par le plus sélectif, et leurs résultats sont intersectés ;
+     * seuls les fichiers retenus sont ensuite soumis aux autres critères.
+     * Le résultat est identique à celui de {@link #appliquerCriteres(Collection)}
+     * sur la même bibliothèque, dans le même ordre.
+     *
+     * @param index index de la bibliothèque
+     * @throws IllegalArgumentException si l’index est nul
      */
-    private boolean estValideSelonCriteres(AudioFile fichier) {
+    public synchronized void appliquerCriteres(IndexBibliotheque index) {
+        if (index == null) {
+            throw new IllegalArgumentException("L’index ne doit pas être nul.");
+        }
 
-        if (criteres.isEmpty()) {
-            // S'il n'y a aucun critère, on accepte tout.
-            return true;
+        vider();
+
+        int[] positions = ((CritereIndexable) filtre()).rechercher(index);
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (int position : positions) {
+            ajouterEntree(index.fichier(position), maintenant);
         }
+    }
 
-        for (FilterCriteria critere : criteres) {
-            if (!critere.correspond(fichier)) {
-                return false;
-            }
+    /**
+     * Ajoute le fichier en fin de playlist s'il satisfait les critères.
+     * Un fichier déjà présent (même chemin) est traité comme une modification.
+     */
+    @Override
+    public synchronized void fichierAjoute(AudioFile fichier) {
+        if (fichier == null) {
+            return;
+        }
+        PlaylistEntry existante = parChemin.get(fichier.obtenirChemin());
+        if (existante != null) {
+            remplacer(existante, fichier);
+        } else if (filtre().correspond(fichier)) {
+            ajouterEntree(fichier, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Réévalue le fichier modifié : son entrée est remplacée sur place s'il satisfait
+     * toujours les critères, retirée sinon ; il est ajouté en fin de playlist
+     * s'il ne les satisfaisait pas auparavant.
+     */
+    @Override
+    public synchronized void fichierModifie(AudioFile ancien, AudioFile nouveau) {
+        PlaylistEntry existante = ancien != null ? parChemin.get(ancien.obtenirChemin()) : null;
+        if (existante == null) {
+            fichierAjoute(nouveau);
+        } else if (nouveau == null) {
+            retirerEntree(existante);
+        } else if (!nouveau.obtenirChemin().equals(ancien.obtenirChemin())) {
+            retirerEntree(existante);
+            fichierAjoute(nouveau);
+        } else {
+            remplacer(existante, nouveau);
+        }
+    }
+
+    @Override
+    public synchronized void fichierSupprime(AudioFile fichier) {
+        if (fichier == null) {
+            return;
+        }
+        PlaylistEntry existante = parChemin.get(fichier.obtenirChemin());
+        if (existante != null) {
+            retirerEntree(existante);
+        }
+    }
+
+    /**
+     * Ajoute une entrée en fin de playlist, quels que soient les critères.
+     * Une entrée dont le fichier est déjà présent remplace l'entrée existante.
+     *
+     * @param e entrée à ajouter ; si null, l'opération est ignorée
+     */
+    @Override
+    public synchronized void ajouterElement(PlaylistEntry e) {
+        if (e == null) {
+            return;
+        }
+        PlaylistEntry existante = parChemin.get(e.getFichier().obtenirChemin());
+        if (existante != null) {
+            retirerEntree(existante);
         }
+        e.setIndice(elements.size());
+        elements.add(e);
+        parChemin.put(e.getFichier().obtenirChemin(), e);
+        dureeTotale += e.obtenirDureeSecondes();
+    }
+
+    /**
+     * Retourne une copie des entrées de la playlist. Le contenu étant généré par les
+     * critères, la liste n'est pas modifiable. Les retraits en attente sont d'abord
+     * compactés ; la copie, prise sous le verrou, peut être parcourue pendant que la
+     * playlist continue d'être mise à jour par d'autres threads.
+     *
+     * @return copie non modifiable des entrées
+     */
+    @Override
+    public synchronized List<PlaylistEntry> obtenerElements() {
+        compacter();
+        return List.copyOf(elements);
+    }
+
+    /**
+     * Retourne une copie des entrées à partir d'une position.
+     *
+     * @param index position de la première entrée retournée
+     * @return copie non modifiable des entrées suivantes
+     */
+    @Override
+    public synchronized List<PlaylistEntry> obtenerElements(int index) {
+        compacter();
+        return List.copyOf(elements.subList(index, elements.size()));
+    }
+
+    @Override
+    public synchronized int taille() {
+        return elements.size() - retirees;
+    }
+
+    /**
+     * Retourne la durée totale, tenue à jour à chaque changement de la playlist.
+     *
+     * @return durée totale en secondes
+     */
+    @Override
+    public synchronized double dureeTotalSecondes() {
+        return taille() == 0 ? 0 : dureeTotale;
+    }
+
+    private FilterCriteria filtre() {
+        if (filtre == null) {
+            filtre = new AndCriteria(criteres);
+        }
+        return filtre;
+    }
+
+    private void vider() {
+        elements.clear();
+        parChemin.clear();
+        dureeTotale = 0;
+        retirees = 0;
+    }
+
+    private void ajouterEntree(AudioFile fichier, LocalDateTime dateAjout) {
+        PlaylistEntry entree = new PlaylistEntry(fichier, elements.size(), dateAjout);
+        elements.add(entree);
+        parChemin.put(fichier.obtenirChemin(), entree);
+        dureeTotale += entree.obtenirDureeSecondes();
+    }
+
+    /** Remplace le fichier d'une entrée s'il satisfait les critères, retire l'entrée sinon. */
+    private void remplacer(PlaylistEntry existante, AudioFile fichier) {
+        if (!filtre().correspond(fichier)) {
+            retirerEntree(existante);
+            return;
+        }
+        PlaylistEntry entree = new PlaylistEntry(fichier, existante.getIndice(), existante.getDateAjout());
+        elements.set(existante.getIndice(), entree);
+        parChemin.put(fichier.obtenirChemin(), entree);
+        dureeTotale += entree.obtenirDureeSecondes() - existante.obtenirDureeSecondes();
+    }
 
-        return true;
+    /**
+     * Retire une entrée en libérant son emplacement, sans décaler les suivantes.
+     * Entre deux compactages, l'indice d'une entrée désigne son emplacement dans {@code elements}.
+     */
+    private void retirerEntree(PlaylistEntry existante) {
+        elements.set(existante.getIndice(), null);
+        retirees++;
+        parChemin.remove(existante.getFichier().obtenirChemin());
+        dureeTotale -= existante.obtenirDureeSecondes();
+
+        if (retirees > SEUIL_COMPACTAGE && retirees > elements.size() / 2) {
+            compacter();
+        }
+    }
+
+    /** Supprime les emplacements libres et renumérote les entrées, en un seul parcours. */
+    private void compacter() {
+        if (retirees == 0) {
+            return;
+        }
+        int suivant = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            PlaylistEntry entree = elements.get(i);
+            if (entree != null) {
+                entree.setIndice(suivant);
+                elements.set(suivant++, entree);
+            }
+        }
+        elements.subList(suivant, elements.size()).clear();
+        retirees = 0;
     }
 }
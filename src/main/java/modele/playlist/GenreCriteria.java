@@ -1,6 +1,6 @@
 package modele.playlist;
 import modele.audio.AudioFile;
-import modele.metadonnees.Metadata;
+import modele.metadonnees.DictionnaireValeurs;
 
 /**
  * Contrainte de sélection basée sur le genre d’un fichier audio.
@@ -8,7 +8,7 @@ import modele.metadonnees.Metadata;
  * Cette contrainte est utilisée dans les playlists intelligentes
  * afin de retenir uniquement les morceaux appartenant au genre recherché.
  */
-public class GenreCriteria implements FilterCriteria {
+public class GenreCriteria implements CritereIndexable {
 
     /** Genre recherché, nettoyé des espaces superflus. */
     private final String genre;
@@ -26,6 +26,22 @@ public class GenreCriteria implements FilterCriteria {
         this.genre = genre.trim();
     }
 
+    /**
+     * Retourne les positions des fichiers de ce genre dans l'index.
+     *
+     * @param index index de la bibliothèque
+     * @return positions triées (tableau partagé)
+     */
+    @Override
+    public int[] rechercher(IndexBibliotheque index) {
+        return index.positionsGenre(genre);
+    }
+
+    @Override
+    public int estimer(IndexBibliotheque index) {
+        return index.positionsGenre(genre).length;
+    }
+
     /**
      * Vérifie si le fichier audio satisfait cette contrainte.
      *
@@ -39,17 +55,24 @@ public class GenreCriteria implements FilterCriteria {
             return false;
         }
 
-        Metadata meta = file.obtenirMetadonnees();
-        if (meta == null) {
-            return false;
-        }
-
-        String genreMeta = meta.getGenre();
+        String genreMeta = file.obtenirGenre();
         if (genreMeta == null) {
             return false;
         }
 
-        // Comparaison robuste : insensible à la casse + nettoyage
-        return genreMeta.trim().equalsIgnoreCase(genre);
+        // Comparaison robuste : insensible à la casse + nettoyage, sans copie
+        return DictionnaireValeurs.egaleNormalisee(genreMeta, genre);
+    }
+
+    /** Lecture des métadonnées et comparaison d'une chaîne courte. */
+    @Override
+    public double cout() {
+        return 1.2;
+    }
+
+    /** Quelques dizaines de genres se partagent en général une bibliothèque. */
+    @Override
+    public double selectivite() {
+        return 0.1;
     }
 }
@@ -0,0 +1,476 @@
+package modele.playlist;
+
+import modele.audio.AudioFile;
+import modele.audio.BibliothequeCompacte;
+import modele.audio.PisteCompacte;
+import modele.metadonnees.DictionnaireValeurs;
+import modele.metadonnees.Metadata;
+import modele.metadonnees.PoolCanonique;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Index d'une bibliothèque de fichiers audio, pour construire des playlists filtrées
+ * sans tester chaque fichier.
+ *
+ * Les fichiers sont numérotés par leur position dans la bibliothèque (les éléments nuls
+ * étant ignorés). L'index associe à chaque artiste et à chaque genre la liste triée
+ * des positions correspondantes, et range les positions par année croissante pour
+ * répondre aux intervalles d'années par recherche dichotomique.
+ *
+ * Les artistes et les genres sont comparés comme le font {@link ArtistCriteria}
+ * et {@link GenreCriteria} : espaces de début et de fin ignorés, sans tenir compte de la casse.
+ * Les listes de positions sont rangées par clé insensible à la casse d'un {@link PoolCanonique}
+ * ({@link DictionnaireValeurs#cle(int)}) : pour des métadonnées déjà canonisées par ce pool,
+ * la construction de l'index ne crée aucune chaîne.
+ *
+ * L'index reflète la bibliothèque au moment de sa construction.
+ * Les tableaux de positions retournés sont partagés et ne doivent pas être modifiés.
+ */
+public class IndexBibliotheque {
+
+    private static final int[] AUCUNE_POSITION = new int[0];
+
+    private final AudioFile[] fichiers;
+    private final PoolCanonique pool;
+
+    /** Positions des fichiers de chaque artiste, indexées par clé d'artiste. */
+    private final int[][] parArtiste;
+    /** Positions des fichiers de chaque genre, indexées par clé de genre. */
+    private final int[][] parGenre;
+
+    /** Années connues (différentes de 0), triées. */
+    private final int[] anneesTriees;
+    /** Position du fichier correspondant à chaque case de {@link #anneesTriees}. */
+    private final int[] positionsParAnnee;
+
+    /**
+     * Construit l'index d'une bibliothèque avec son propre pool de valeurs canoniques ;
+     * l'artiste, le genre et l'année de chaque fichier ne sont lus qu'une fois.
+     *
+     * @param bibliotheque fichiers audio à indexer
+     * @throws IllegalArgumentException si la bibliothèque est nulle
+     */
+    public IndexBibliotheque(Collection<? extends AudioFile> bibliotheque) {
+        this(bibliotheque, new PoolCanonique());
+    }
+
+    /**
+     * Construit l'index d'une bibliothèque dont les métadonnées ont été canonisées
+     * par un pool donné (par exemple celui du cache de métadonnées) : les artistes
+     * et genres y sont retrouvés sans allocation.
+     *
+     * @param bibliotheque fichiers audio à indexer
+     * @param pool dictionnaires de valeurs canoniques
+     * @throws IllegalArgumentException si la bibliothèque ou le pool est nul
+     */
+    public IndexBibliotheque(Collection<? extends AudioFile> bibliotheque, PoolCanonique pool) {
+        this(parcourir(bibliotheque, pool));
+    }
+
+    /**
+     * Construit l'index d'une bibliothèque compacte à partir de ses colonnes :
+     * les clés sont tirées des identifiants de son pool, sans lire aucune chaîne
+     * ni reconstruire de {@link Metadata}. Les fichiers indexés sont les vues
+     * des morceaux présents ; ils deviennent périmés au prochain compactage.
+     *
+     * @param bibliotheque bibliothèque à indexer
+     * @throws IllegalArgumentException si la bibliothèque est nulle
+     */
+    public IndexBibliotheque(BibliothequeCompacte bibliotheque) {
+        this(parcourir(bibliotheque));
+    }
+
+    private IndexBibliotheque(Construction construction) {
+        this.pool = construction.pool;
+        this.fichiers = Arrays.copyOf(construction.fichiers, construction.taille);
+        this.parArtiste = figer(construction.artistes);
+        this.parGenre = figer(construction.genres);
+
+        long[] annees = construction.annees;
+        int nombreAnnees = construction.nombreAnnees;
+        Arrays.sort(annees, 0, nombreAnnees);
+        this.anneesTriees = new int[nombreAnnees];
+        this.positionsParAnnee = new int[nombreAnnees];
+        for (int i = 0; i < nombreAnnees; i++) {
+            anneesTriees[i] = (int) (annees[i] >> 32);
+            positionsParAnnee[i] = (int) annees[i];
+        }
+    }
+
+    private static Construction parcourir(Collection<? extends AudioFile> bibliotheque, PoolCanonique pool) {
+        if (bibliotheque == null) {
+            throw new IllegalArgumentException("La bibliothèque ne doit pas être nulle.");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Le pool de valeurs canoniques ne doit pas être nul.");
+        }
+
+        Construction construction = new Construction(pool, bibliotheque.size());
+        for (AudioFile fichier : bibliotheque) {
+            if (fichier != null) {
+                construction.ajouter(fichier,
+                        cle(pool.getArtistes(), fichier.obtenirArtiste()),
+                        cle(pool.getGenres(), fichier.obtenirGenre()),
+                        fichier.obtenirAnnee());
+            }
+        }
+        return construction;
+    }
+
+    private static Construction parcourir(BibliothequeCompacte bibliotheque) {
+        if (bibliotheque == null) {
+            throw new IllegalArgumentException("La bibliothèque ne doit pas être nulle.");
+        }
+
+        synchronized (bibliotheque) {
+            PoolCanonique pool = bibliotheque.getPool();
+            List<AudioFile> vues = bibliotheque.versListe();
+            Construction construction = new Construction(pool, vues.size());
+            for (AudioFile vue : vues) {
+                int id = ((PisteCompacte) vue).getIdentifiant();
+                construction.ajouter(vue,
+                        cle(pool.getArtistes(), bibliotheque.identifiantArtiste(id)),
+                        cle(pool.getGenres(), bibliotheque.identifiantGenre(id)),
+                        bibliotheque.annee(id));
+            }
+            return construction;
+        }
+    }
+
+    /**
+     * Retourne le pool dont les clés rangent les artistes et les genres de l'index.
+     *
+     * @return pool de valeurs canoniques
+     */
+    public PoolCanonique getPool() {
+        return pool;
+    }
+
+    /**
+     * Retourne le nombre de fichiers indexés.
+     *
+     * @return nombre de fichiers
+     */
+    public int taille() {
+        return fichiers.length;
+    }
+
+    /**
+     * Retourne le fichier situé à une position de l'index.
+     *
+     * @param position position du fichier
+     * @return fichier audio
+     */
+    public AudioFile fichier(int position) {
+        return fichiers[position];
+    }
+
+    /**
+     * Retourne les positions des fichiers d'un artiste.
+     *
+     * @param artiste artiste recherché (espaces et casse ignorés)
+     * @return positions triées (tableau partagé)
+     */
+    public int[] positionsArtiste(String artiste) {
+        return positionsArtiste(pool.getArtistes().chercherCle(artiste));
+    }
+
+    /**
+     * Retourne les positions des fichiers d'un artiste.
+     *
+     * @param cle clé de l'artiste dans {@link PoolCanonique#getArtistes()} du pool de l'index
+     * @return positions triées (tableau partagé)
+     */
+    public int[] positionsArtiste(int cle) {
+        return positions(parArtiste, cle);
+    }
+
+    /**
+     * Retourne les positions des fichiers d'un genre.
+     *
+     * @param genre genre recherché (espaces et casse ignorés)
+     * @return positions triées (tableau partagé)
+     */
+    public int[] positionsGenre(String genre) {
+        return positionsGenre(pool.getGenres().chercherCle(genre));
+    }
+
+    /**
+     * Retourne les positions des fichiers d'un genre.
+     *
+     * @param cle clé du genre dans {@link PoolCanonique#getGenres()} du pool de l'index
+     * @return positions triées (tableau partagé)
+     */
+    public int[] positionsGenre(int cle) {
+        return positions(parGenre, cle);
+    }
+
+    /**
+     * Retourne les positions des fichiers dont l'année (connue) est comprise
+     * dans un intervalle inclusif.
+     *
+     * @param anneeMin année minimale
+     * @param anneeMax année maximale
+     * @return positions triées
+     */
+    public int[] positionsAnnees(int anneeMin, int anneeMax) {
+        int debut = premierIndice(anneeMin);
+        int fin = finIntervalle(anneeMax);
+        if (debut >= fin) {
+            return AUCUNE_POSITION;
+        }
+        int[] positions = Arrays.copyOfRange(positionsParAnnee, debut, fin);
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * Retourne l'intersection de deux listes de positions triées.
+     * Chaque élément de la plus courte est recherché par dichotomie dans la plus longue.
+     *
+     * @param a positions triées
+     * @param b positions triées
+     * @return positions communes, triées
+     */
+    public static int[] intersecter(int[] a, int[] b) {
+        int[] petite = a.length <= b.length ? a : b;
+        int[] grande = a.length <= b.length ? b : a;
+
+        ListeEntiers resultat = new ListeEntiers(petite.length);
+        int depuis = 0;
+        for (int valeur : petite) {
+            int i = Arrays.binarySearch(grande, depuis, grande.length, valeur);
+            if (i >= 0) {
+                resultat.ajouter(valeur);
+                depuis = i + 1;
+            } else {
+                depuis = -i - 1;
+            }
+            if (depuis >= grande.length) {
+                break;
+            }
+        }
+        return resultat.versTableau();
+    }
+
+    /**
+     * Retourne l'union de deux listes de positions triées.
+     *
+     * @param a positions triées
+     * @param b positions triées
+     * @return positions présentes dans l'une ou l'autre, triées
+     */
+    public static int[] unir(int[] a, int[] b) {
+        int[] resultat = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                resultat[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                resultat[n++] = b[j++];
+            } else {
+                resultat[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            resultat[n++] = a[i++];
+        }
+        while (j < b.length) {
+            resultat[n++] = b[j++];
+        }
+        return n == resultat.length ? resultat : Arrays.copyOf(resultat, n);
+    }
+
+    /**
+     * Retourne les positions d'une liste triée absentes d'une autre.
+     *
+     * @param a positions triées à conserver
+     * @param b positions triées à retirer
+     * @return positions de {@code a} absentes de {@code b}, triées
+     */
+    public static int[] soustraire(int[] a, int[] b) {
+        int[] resultat = new int[a.length];
+        int j = 0;
+        int n = 0;
+        for (int valeur : a) {
+            while (j < b.length && b[j] < valeur) {
+                j++;
+            }
+            if (j >= b.length || b[j] != valeur) {
+                resultat[n++] = valeur;
+            }
+        }
+        return n == resultat.length ? resultat : Arrays.copyOf(resultat, n);
+    }
+
+    /**
+     * Retourne les positions de l'index absentes d'une liste triée.
+     *
+     * @param positions positions triées
+     * @return positions complémentaires, triées
+     */
+    public int[] complement(int[] positions) {
+        int[] resultat = new int[Math.max(0, fichiers.length - positions.length)];
+        int n = 0;
+        int j = 0;
+        for (int position = 0; position < fichiers.length; position++) {
+            if (j < positions.length && positions[j] == position) {
+                j++;
+            } else if (n < resultat.length) {
+                resultat[n++] = position;
+            }
+        }
+        return n == resultat.length ? resultat : Arrays.copyOf(resultat, n);
+    }
+
+    /**
+     * Évalue un critère sur chaque fichier de l'index.
+     *
+     * @param critere critère à évaluer
+     * @return positions des fichiers acceptés, triées
+     */
+    public int[] filtrer(FilterCriteria critere) {
+        ListeEntiers resultat = new ListeEntiers();
+        for (int position = 0; position < fichiers.length; position++) {
+            if (critere.correspond(fichiers[position])) {
+                resultat.ajouter(position);
+            }
+        }
+        return resultat.versTableau();
+    }
+
+    /**
+     * Évalue un critère sur les fichiers de certaines positions seulement.
+     *
+     * @param positions positions triées à examiner
+     * @param critere critère à évaluer
+     * @return positions des fichiers acceptés, triées
+     */
+    public int[] filtrer(int[] positions, FilterCriteria critere) {
+        ListeEntiers resultat = new ListeEntiers(positions.length);
+        for (int position : positions) {
+            if (critere.correspond(fichiers[position])) {
+                resultat.ajouter(position);
+            }
+        }
+        return resultat.versTableau();
+    }
+
+    /**
+     * Compte, par deux recherches dichotomiques, les fichiers dont l'année (connue)
+     * est comprise dans un intervalle inclusif.
+     *
+     * @param anneeMin année minimale
+     * @param anneeMax année maximale
+     * @return nombre de fichiers
+     */
+    public int compterAnnees(int anneeMin, int anneeMax) {
+        return Math.max(0, finIntervalle(anneeMax) - premierIndice(anneeMin));
+    }
+
+    private int finIntervalle(int anneeMax) {
+        return anneeMax == Integer.MAX_VALUE ? anneesTriees.length : premierIndice(anneeMax + 1);
+    }
+
+    /** Premier indice de {@link #anneesTriees} dont l'année est >= {@code annee}. */
+    private int premierIndice(int annee) {
+        int bas = 0;
+        int haut = anneesTriees.length;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (anneesTriees[milieu] < annee) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    private static int[] positions(int[][] postings, int cle) {
+        if (cle < 0 || cle >= postings.length || postings[cle] == null) {
+            return AUCUNE_POSITION;
+        }
+        return postings[cle];
+    }
+
+    /**
+     * Retourne la clé d'une valeur. Une valeur déjà canonique est retrouvée
+     * sans allocation ; une valeur inconnue est ajoutée au dictionnaire.
+     */
+    private static int cle(DictionnaireValeurs dictionnaire, String valeur) {
+        int id = dictionnaire.chercher(valeur);
+        if (id == DictionnaireValeurs.AUCUN) {
+            id = dictionnaire.identifiant(valeur);
+        }
+        return cle(dictionnaire, id);
+    }
+
+    private static int cle(DictionnaireValeurs dictionnaire, int identifiant) {
+        return identifiant == DictionnaireValeurs.AUCUN ? DictionnaireValeurs.AUCUN : dictionnaire.cle(identifiant);
+    }
+
+    private static void ajouterCle(List<ListeEntiers> postings, int cle, int position) {
+        while (postings.size() <= cle) {
+            postings.add(null);
+        }
+        ListeEntiers liste = postings.get(cle);
+        if (liste == null) {
+            liste = new ListeEntiers();
+            postings.set(cle, liste);
+        }
+        liste.ajouter(position);
+    }
+
+    private static int[][] figer(List<ListeEntiers> postings) {
+        int[][] resultat = new int[postings.size()][];
+        for (int cle = 0; cle < resultat.length; cle++) {
+            ListeEntiers liste = postings.get(cle);
+            if (liste != null) {
+                resultat[cle] = liste.versTableau();
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Positions accumulées pendant la construction de l'index.
+     */
+    private static final class Construction {
+
+        final PoolCanonique pool;
+        final AudioFile[] fichiers;
+        final List<ListeEntiers> artistes = new ArrayList<>();
+        final List<ListeEntiers> genres = new ArrayList<>();
+        final long[] annees;
+        int nombreAnnees;
+        int taille;
+
+        Construction(PoolCanonique pool, int capacite) {
+            this.pool = pool;
+            this.fichiers = new AudioFile[capacite];
+            this.annees = new long[capacite];
+        }
+
+        void ajouter(AudioFile fichier, int cleArtiste, int cleGenre, int annee) {
+            int position = taille++;
+            fichiers[position] = fichier;
+            if (cleArtiste != DictionnaireValeurs.AUCUN) {
+                ajouterCle(artistes, cleArtiste, position);
+            }
+            if (cleGenre != DictionnaireValeurs.AUCUN) {
+                ajouterCle(genres, cleGenre, position);
+            }
+            if (annee != 0) {
+                annees[nombreAnnees++] = ((long) annee << 32) | position;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package modele.playlist;
+
+import java.util.Arrays;
+
+/**
+ * Liste extensible d'entiers primitifs, utilisée pour construire les listes
+ * de positions des index sans passer par des {@code Integer}.
+ */
+class ListeEntiers {
+
+    private int[] valeurs;
+    private int taille;
+
+    ListeEntiers() {
+        this(8);
+    }
+
+    ListeEntiers(int capacite) {
+        this.valeurs = new int[Math.max(1, capacite)];
+    }
+
+    void ajouter(int valeur) {
+        if (taille == valeurs.length) {
+            valeurs = Arrays.copyOf(valeurs, valeurs.length * 2);
+        }
+        valeurs[taille++] = valeur;
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    int[] versTableau() {
+        return Arrays.copyOf(valeurs, taille);
+    }
+}
@@ -0,0 +1,76 @@
+package modele.playlist;
+
+import modele.audio.AudioFile;
+
+/**
+ * Négation d'un critère : un fichier est accepté s'il ne satisfait pas le critère.
+ *
+ * Un fichier sans métadonnées ne satisfait aucun critère intégré :
+ * il est donc accepté par leur négation.
+ */
+public class NotCriteria implements CritereIndexable {
+
+    /** Critère nié. */
+    private final FilterCriteria critere;
+
+    /**
+     * Construit la négation d'un critère.
+     *
+     * @param critere critère à nier
+     * @throws IllegalArgumentException si le critère est nul
+     */
+    public NotCriteria(FilterCriteria critere) {
+        if (critere == null) {
+            throw new IllegalArgumentException("Le critère ne doit pas être nul.");
+        }
+        this.critere = critere;
+    }
+
+    public FilterCriteria getCritere() {
+        return critere;
+    }
+
+    @Override
+    public boolean correspond(AudioFile file) {
+        return !critere.correspond(file);
+    }
+
+    @Override
+    public double cout() {
+        return CompositeCriteria.coutPositif(critere);
+    }
+
+    @Override
+    public double selectivite() {
+        return 1.0 - CompositeCriteria.proportion(critere);
+    }
+
+    @Override
+    public boolean resoluParIndex() {
+        return CompositeCriteria.estResoluParIndex(critere);
+    }
+
+    @Override
+    public int estimer(IndexBibliotheque index) {
+        if (!resoluParIndex()) {
+            return (int) Math.round(index.taille() * selectivite());
+        }
+        return Math.max(0, index.taille() - ((CritereIndexable) critere).estimer(index));
+    }
+
+    /**
+     * Résout la négation par complément du résultat du critère dans l'index.
+     */
+    @Override
+    public int[] rechercher(IndexBibliotheque index) {
+        if (!resoluParIndex()) {
+            return index.filtrer(this);
+        }
+        return index.complement(((CritereIndexable) critere).rechercher(index));
+    }
+
+    @Override
+    public String toString() {
+        return "NotCriteria[" + critere + "]";
+    }
+}
@@ -0,0 +1,102 @@
+package modele.playlist;
+
+import modele.audio.AudioFile;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Disjonction de critères : un fichier est accepté s'il satisfait au moins un critère.
+ *
+ * Les critères sont évalués par rang croissant {@code cout / selectivite} :
+ * un critère peu coûteux qui accepte beaucoup de fichiers est évalué en premier,
+ * et l'évaluation s'arrête au premier critère satisfait.
+ * Une disjonction vide n'accepte aucun fichier.
+ *
+ * Avec un index, si tous les critères sont indexés, le résultat est l'union
+ * de leurs résultats ; sinon chaque fichier est évalué.
+ */
+public class OrCriteria extends CompositeCriteria {
+
+    /**
+     * Construit une disjonction de critères.
+     *
+     * @param criteres critères à combiner
+     * @throws IllegalArgumentException si la liste ou l'un des critères est nul
+     */
+    public OrCriteria(List<? extends FilterCriteria> criteres) {
+        super(criteres, Comparator.comparingDouble(OrCriteria::rang));
+    }
+
+    /**
+     * Construit une disjonction de critères.
+     *
+     * @param criteres critères à combiner
+     * @throws IllegalArgumentException si l'un des critères est nul
+     */
+    public OrCriteria(FilterCriteria... criteres) {
+        this(Arrays.asList(criteres));
+    }
+
+    /** Coût moyen d'une acceptation : plus il est faible, plus le critère doit être évalué tôt. */
+    private static double rang(FilterCriteria critere) {
+        double acceptation = proportion(critere);
+        return acceptation <= 0 ? Double.POSITIVE_INFINITY : coutPositif(critere) / acceptation;
+    }
+
+    @Override
+    public boolean correspond(AudioFile file) {
+        for (FilterCriteria critere : criteres) {
+            if (critere.correspond(file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Coût espéré : chaque critère n'est évalué que si les précédents ont échoué. */
+    @Override
+    public double cout() {
+        double total = 0;
+        double atteint = 1.0;
+        for (FilterCriteria critere : criteres) {
+            total += atteint * coutPositif(critere);
+            atteint *= 1.0 - proportion(critere);
+        }
+        return total;
+    }
+
+    @Override
+    public double selectivite() {
+        double rejet = 1.0;
+        for (FilterCriteria critere : criteres) {
+            rejet *= 1.0 - proportion(critere);
+        }
+        return 1.0 - rejet;
+    }
+
+    @Override
+    public int estimer(IndexBibliotheque index) {
+        if (!resoluParIndex()) {
+            return (int) Math.round(index.taille() * selectivite());
+        }
+        long total = 0;
+        for (FilterCriteria critere : criteres) {
+            total += ((CritereIndexable) critere).estimer(index);
+        }
+        return (int) Math.min(index.taille(), total);
+    }
+
+    @Override
+    public int[] rechercher(IndexBibliotheque index) {
+        if (!resoluParIndex()) {
+            return index.filtrer(this);
+        }
+        int[] positions = new int[0];
+        for (FilterCriteria critere : criteres) {
+            positions = IndexBibliotheque.unir(positions, ((CritereIndexable) critere).rechercher(index));
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,83 @@
+package modele.playlist;
+
+import modele.audio.AudioFile;
+import modele.metadonnees.Metadata;
+
+import java.nio.file.Path;
+
+/**
+ * Élément lisible construit directement sur un fichier audio, sans position
+ * ni date d'ajout. Permet d'écrire une playlist en flux sans créer de
+ * {@link PlaylistEntry} pour chaque fichier.
+ *
+ * L'emplacement et le titre sont ceux qu'afficherait une {@link PlaylistEntry}
+ * sur le même fichier.
+ */
+public class PisteAudio implements Playable {
+
+    private final AudioFile fichier;
+
+    /**
+     * Construit l'élément lisible d'un fichier audio.
+     *
+     * @param fichier fichier audio associé (ne doit pas être null)
+     * @throws IllegalArgumentException si le fichier est nul
+     */
+    public PisteAudio(AudioFile fichier) {
+        if (fichier == null) {
+            throw new IllegalArgumentException("Le fichier audio ne doit pas être nul.");
+        }
+        this.fichier = fichier;
+    }
+
+    /** Retourne le fichier audio associé. */
+    public AudioFile getFichier() {
+        return fichier;
+    }
+
+    @Override
+    public String obtenirEmplacement() {
+        return emplacement(fichier);
+    }
+
+    @Override
+    public String obtenirTitreAffichage() {
+        return titreAffichage(fichier);
+    }
+
+    @Override
+    public double obtenirDureeSecondes() {
+        return fichier.obtenirDureeSecondes();
+    }
+
+    /**
+     * Retourne l'emplacement d'un fichier audio, ou une chaîne vide s'il n'a pas de chemin.
+     */
+    static String emplacement(AudioFile fichier) {
+        Path chemin = fichier.obtenirChemin();
+        if (chemin == null) {
+            return "";
+        }
+        return chemin.toString();
+    }
+
+    /**
+     * Retourne le titre des métadonnées s'il est renseigné, le nom du fichier sinon.
+     */
+    static String titreAffichage(AudioFile fichier) {
+        Metadata meta = fichier.obtenirMetadonnees();
+
+        if (meta != null) {
+            String titre = meta.getTitre();
+            if (titre != null && !titre.trim().isEmpty()) {
+                return titre;
+            }
+        }
+
+        String nom = fichier.obtenirNomFichier();
+        if (nom == null) {
+            return "";
+        }
+        return nom;
+    }
+}
@@ -1,9 +1,7 @@
 package modele.playlist;
 
 import modele.audio.AudioFile;
-import modele.metadonnees.Metadata;
 
-import java.nio.file.Path;
 import java.time.LocalDateTime;
 
 /**
@@ -27,42 +25,40 @@ public class PlaylistEntry implements Playable {
      * @param indice indice de la piste dans la playlist (>= 0)
      */
     public PlaylistEntry(AudioFile fichier, int indice) {
+        this(fichier, indice, LocalDateTime.now());
+    }
+
+    /**
+     * Construit une entrée de playlist avec une date d'ajout donnée,
+     * par exemple commune à toutes les entrées d'une même génération de playlist.
+     *
+     * @param fichier fichier audio associé (ne doit pas être null)
+     * @param indice indice de la piste dans la playlist (>= 0)
+     * @param dateAjout date d'ajout (ne doit pas être null)
+     */
+    public PlaylistEntry(AudioFile fichier, int indice, LocalDateTime dateAjout) {
         if (fichier == null) {
             throw new IllegalArgumentException("Le fichier audio ne doit pas être nul.");
         }
         if (indice < 0) {
             throw new IllegalArgumentException("L'indice doit être positif ou nul.");
         }
+        if (dateAjout == null) {
+            throw new IllegalArgumentException("La date d'ajout ne doit pas être nulle.");
+        }
         this.fichier = fichier;
         this.indice = indice;
-        this.dateAjout = LocalDateTime.now();
+        this.dateAjout = dateAjout;
     }
 
     @Override
     public String obtenirEmplacement() {
-        Path chemin = fichier.obtenirChemin();
-        if (chemin == null) {
-            return "";
-        }
-        return chemin.toString();
+        return PisteAudio.emplacement(fichier);
     }
 
     @Override
     public String obtenirTitreAffichage() {
-        Metadata meta = fichier.obtenirMetadonnees();
-
-        if (meta != null) {
-           String titre = meta.getTitre();
-            if (titre != null && !titre.trim().isEmpty()) {
-                return titre;
-            }
-        }
-
-        String nom = fichier.obtenirNomFichier();
-        if (nom == null) {
-            return "";
-        }
-        return nom;
+        return PisteAudio.titreAffichage(fichier);
     }
 
     @Override
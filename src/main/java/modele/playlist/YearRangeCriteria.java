@@ -1,6 +1,5 @@
 package modele.playlist;
 import modele.audio.AudioFile;
-import modele.metadonnees.Metadata;
 
 /**
  * cette classe Consiste sélectionnant les fichiers audio dont l'année
@@ -9,7 +8,7 @@ import modele.metadonnees.Metadata;
  * Cette contrainte permet, par exemple, de filtrer les morceaux
  * d'une certaine période musicale(Par exemple entre 2015 et 2025) dans le cadre de playlists .
  */
-public class YearRangeCriteria implements FilterCriteria {
+public class YearRangeCriteria implements CritereIndexable {
 
     /** Année minimale autorisée (incluse). */
     private int anneeMin;
@@ -17,6 +16,9 @@ public class YearRangeCriteria implements FilterCriteria {
     /** Année maximale autorisée  */
     private int anneeMax;
 
+    /** Étendue supposée des années d'une bibliothèque, pour estimer la sélectivité. */
+    private static final double ANNEES_COUVERTES = 60.0;
+
     /**
      * Construit une contrainte basée sur un intervalle d'années.
      *
@@ -36,6 +38,23 @@ public class YearRangeCriteria implements FilterCriteria {
         this.anneeMax = anneeMax;
     }
 
+    /**
+     * Retourne, par recherche dans l'index trié des années, les positions des fichiers
+     * dont l'année est dans l'intervalle.
+     *
+     * @param index index de la bibliothèque
+     * @return positions triées
+     */
+    @Override
+    public int[] rechercher(IndexBibliotheque index) {
+        return index.positionsAnnees(anneeMin, anneeMax);
+    }
+
+    @Override
+    public int estimer(IndexBibliotheque index) {
+        return index.compterAnnees(anneeMin, anneeMax);
+    }
+
     /**
      * Vérifie si le fichier audio respecte cette contrainte.
      *
@@ -49,12 +68,7 @@ public class YearRangeCriteria implements FilterCriteria {
             return false;
         }
 
-        Metadata meta = file.obtenirMetadonnees();
-        if (meta == null) {
-            return false;
-        }
-
-        int annee = meta.getAnnee();
+        int annee = file.obtenirAnnee();
 
         // Si l'année vaut 0 (valeur par défaut)  données manquantes donc va le rejet
         if (annee == 0) {
@@ -64,4 +78,19 @@ public class YearRangeCriteria implements FilterCriteria {
         // Vérifie si l’année est dans l’intervalle
         return (annee >= anneeMin) && (annee <= anneeMax);
     }
+
+    /** Lecture des métadonnées et deux comparaisons d'entiers. */
+    @Override
+    public double cout() {
+        return 1.0;
+    }
+
+    /**
+     * Estimation en supposant les années réparties sur une soixantaine d'années.
+     */
+    @Override
+    public double selectivite() {
+        double annees = (double) anneeMax - anneeMin + 1;
+        return Math.min(1.0, annees / ANNEES_COUVERTES);
+    }
 }
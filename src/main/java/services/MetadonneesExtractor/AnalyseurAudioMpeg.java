@@ -0,0 +1,288 @@
+package services.MetadonneesExtractor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Détermine la durée et le débit d'un flux MPEG audio sans le parcourir.
+ *
+ * La première trame est examinée : si elle porte un en-tête Xing / Info
+ * (éventuellement complété d'une extension LAME) ou VBRI, le nombre de trames
+ * et la taille du flux y sont lus, ce qui donne une durée exacte même à débit variable ;
+ * le retard et le bourrage notés par l'encodeur sont alors déduits.
+ *
+ * À défaut, la durée est estimée à partir de la longueur moyenne des trames
+ * d'un petit nombre de fenêtres réparties dans le fichier : le coût reste borné
+ * quelle que soit la taille du fichier, et le résultat est exact pour un flux à débit constant.
+ */
+public class AnalyseurAudioMpeg {
+
+    /** Taille de chaque fenêtre lue (première trame ou échantillon). */
+    private static final int FENETRE = 8 * 1024;
+
+    /** Nombre de fenêtres lues pour estimer la longueur moyenne des trames. */
+    private static final int FENETRES_ECHANTILLON = 3;
+
+    /** Nombre maximal de trames parcourues par fenêtre. */
+    private static final int TRAMES_PAR_FENETRE = 64;
+
+    private static final int XING_TRAMES = 0x01;
+    private static final int XING_OCTETS = 0x02;
+    private static final int XING_TABLE = 0x04;
+    private static final int XING_QUALITE = 0x08;
+
+    /** Position de l'en-tête VBRI par rapport au début de la trame. */
+    private static final int DECALAGE_VBRI = 36;
+
+    /** Position du retard / bourrage dans l'extension LAME. */
+    private static final int DECALAGE_RETARD_LAME = 21;
+
+    /**
+     * Analyse un fichier MP3 : le tag ID3v2 éventuel est sauté
+     * et le bloc ID3v1 éventuel exclu du flux audio.
+     *
+     * @param chemin chemin du fichier
+     * @return caractéristiques du flux, ou null si aucune trame MPEG n'est trouvée
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public InfosAudioMpeg analyser(Path chemin) throws IOException {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Chemin nul");
+        }
+
+        try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            long tailleFichier = canal.size();
+            long debutAudio = 0;
+
+            byte[] entete = lire(canal, 0, 10);
+            if (entete.length == 10 && entete[0] == 'I' && entete[1] == 'D' && entete[2] == '3') {
+                int taille = ((entete[6] & 0x7F) << 21) | ((entete[7] & 0x7F) << 14)
+                        | ((entete[8] & 0x7F) << 7) | (entete[9] & 0x7F);
+                boolean pied = entete[3] == 4 && (entete[5] & 0x10) != 0;
+                debutAudio = 10L + taille + (pied ? 10 : 0);
+            }
+
+            long finAudio = tailleFichier;
+            if (tailleFichier >= 128) {
+                byte[] v1 = lire(canal, tailleFichier - 128, 3);
+                if (v1.length == 3 && v1[0] == 'T' && v1[1] == 'A' && v1[2] == 'G') {
+                    finAudio -= 128;
+                }
+            }
+
+            return analyser(canal, debutAudio, finAudio);
+        }
+    }
+
+    /**
+     * Analyse le flux audio compris entre deux positions d'un canal.
+     *
+     * @param canal canal ouvert en lecture
+     * @param debutAudio position de fin des tags de tête
+     * @param finAudio position de début des tags de fin (ou taille du fichier)
+     * @return caractéristiques du flux, ou null si aucune trame MPEG n'est trouvée
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public InfosAudioMpeg analyser(FileChannel canal, long debutAudio, long finAudio) throws IOException {
+        if (canal == null) {
+            throw new IllegalArgumentException("Canal nul");
+        }
+        if (debutAudio < 0 || finAudio < debutAudio) {
+            throw new IllegalArgumentException("Bornes du flux audio invalides");
+        }
+
+        byte[] fenetre = lire(canal, debutAudio, (int) Math.min(FENETRE, finAudio - debutAudio));
+        int position = EnTeteMpeg.chercher(fenetre, 0);
+        if (position < 0) {
+            return null;
+        }
+        EnTeteMpeg trame = EnTeteMpeg.lire(fenetre, position);
+        long debutTrame = debutAudio + position;
+
+        InfosAudioMpeg infos = lireXing(fenetre, position, trame, finAudio - debutTrame);
+        if (infos == null) {
+            infos = lireVbri(fenetre, position, trame, finAudio - debutTrame);
+        }
+        if (infos != null) {
+            return infos;
+        }
+
+        return echantillonner(canal, fenetre, position, trame, debutTrame, finAudio);
+    }
+
+    /**
+     * Lit un en-tête Xing / Info et son extension LAME éventuelle.
+     */
+    private InfosAudioMpeg lireXing(byte[] fenetre, int position, EnTeteMpeg trame, long octetsFlux) {
+        int p = position + trame.getDecalageXing();
+        boolean xing = signature(fenetre, p, "Xing");
+        if (!xing && !signature(fenetre, p, "Info")) {
+            return null;
+        }
+        if (p + 8 > fenetre.length) {
+            return null;
+        }
+
+        int drapeaux = entier32(fenetre, p + 4);
+        int q = p + 8;
+        long trames = -1;
+        long octets = -1;
+        if ((drapeaux & XING_TRAMES) != 0 && q + 4 <= fenetre.length) {
+            trames = entier32(fenetre, q) & 0xFFFFFFFFL;
+            q += 4;
+        }
+        if ((drapeaux & XING_OCTETS) != 0 && q + 4 <= fenetre.length) {
+            octets = entier32(fenetre, q) & 0xFFFFFFFFL;
+            q += 4;
+        }
+        if ((drapeaux & XING_TABLE) != 0) {
+            q += 100;
+        }
+        if ((drapeaux & XING_QUALITE) != 0) {
+            q += 4;
+        }
+        if (trames <= 0) {
+            return null;
+        }
+
+        int retard = 0;
+        int bourrage = 0;
+        if (signature(fenetre, q, "LAME") || signature(fenetre, q, "Lavc") || signature(fenetre, q, "Lavf")) {
+            int r = q + DECALAGE_RETARD_LAME;
+            if (r + 3 <= fenetre.length) {
+                int b0 = fenetre[r] & 0xFF;
+                int b1 = fenetre[r + 1] & 0xFF;
+                int b2 = fenetre[r + 2] & 0xFF;
+                retard = (b0 << 4) | (b1 >> 4);
+                bourrage = ((b1 & 0x0F) << 8) | b2;
+            }
+        }
+
+        return construire(trame, xing ? InfosAudioMpeg.Source.XING : InfosAudioMpeg.Source.INFO,
+                trames, octets > 0 ? Math.min(octets, octetsFlux) : octetsFlux,
+                retard, bourrage, xing);
+    }
+
+    /**
+     * Lit un en-tête VBRI (placé 32 octets après l'en-tête de la trame).
+     */
+    private InfosAudioMpeg lireVbri(byte[] fenetre, int position, EnTeteMpeg trame, long octetsFlux) {
+        int p = position + DECALAGE_VBRI;
+        if (!signature(fenetre, p, "VBRI") || p + 18 > fenetre.length) {
+            return null;
+        }
+        int retard = ((fenetre[p + 6] & 0xFF) << 8) | (fenetre[p + 7] & 0xFF);
+        long octets = entier32(fenetre, p + 10) & 0xFFFFFFFFL;
+        long trames = entier32(fenetre, p + 14) & 0xFFFFFFFFL;
+        if (trames <= 0) {
+            return null;
+        }
+        return construire(trame, InfosAudioMpeg.Source.VBRI, trames,
+                octets > 0 ? Math.min(octets, octetsFlux) : octetsFlux, retard, 0, true);
+    }
+
+    private InfosAudioMpeg construire(EnTeteMpeg trame, InfosAudioMpeg.Source source, long trames,
+                                      long octets, int retard, int bourrage, boolean variable) {
+        long echantillons = trames * trame.getEchantillonsParTrame();
+        if (retard + bourrage < echantillons) {
+            echantillons -= retard + bourrage;
+        } else {
+            // Valeurs incohérentes : on les ignore
+            retard = 0;
+            bourrage = 0;
+        }
+        double duree = (double) echantillons / trame.getFrequenceHz();
+        int debit = duree > 0 ? (int) Math.round(octets * 8.0 / duree / 1000.0) : trame.getDebitKbps();
+        return new InfosAudioMpeg(trame, source, trames, octets, duree, debit, retard, bourrage, variable);
+    }
+
+    /**
+     * Estime la durée à partir de la longueur moyenne des trames lues dans la première fenêtre
+     * et dans quelques fenêtres réparties sur le reste du flux.
+     */
+    private InfosAudioMpeg echantillonner(FileChannel canal, byte[] premiere, int position, EnTeteMpeg trame,
+                                          long debutTrame, long finAudio) throws IOException {
+        long octetsFlux = finAudio - debutTrame;
+        long[] cumul = new long[3]; // trames, octets, débit distinct rencontré (0/1)
+        parcourir(premiere, position, trame, cumul);
+
+        for (int i = 1; i < FENETRES_ECHANTILLON; i++) {
+            long debut = debutTrame + octetsFlux * i / FENETRES_ECHANTILLON;
+            int longueur = (int) Math.min(FENETRE, finAudio - debut);
+            if (longueur <= 4 || debut < debutTrame + FENETRE) {
+                continue;
+            }
+            byte[] fenetre = lire(canal, debut, longueur);
+            int p = EnTeteMpeg.chercher(fenetre, 0);
+            if (p >= 0) {
+                parcourir(fenetre, p, trame, cumul);
+            }
+        }
+
+        double longueurMoyenne = cumul[0] > 0 ? (double) cumul[1] / cumul[0] : trame.getLongueurTrame();
+        long trames = Math.max(1, Math.round(octetsFlux / longueurMoyenne));
+        return construire(trame, InfosAudioMpeg.Source.ECHANTILLONNAGE, trames, octetsFlux, 0, 0, cumul[2] != 0);
+    }
+
+    /**
+     * Parcourt les trames consécutives d'une fenêtre et cumule leur nombre et leur longueur.
+     * Seules les trames complètes et compatibles avec la première trame du flux sont comptées.
+     */
+    private void parcourir(byte[] fenetre, int position, EnTeteMpeg reference, long[] cumul) {
+        int p = position;
+        for (int n = 0; n < TRAMES_PAR_FENETRE; n++) {
+            EnTeteMpeg t = EnTeteMpeg.lire(fenetre, p);
+            if (t == null || t.getCouche() != reference.getCouche()
+                    || t.getFrequenceHz() != reference.getFrequenceHz()) {
+                return;
+            }
+            int longueur = t.getLongueurTrame();
+            if (p + longueur > fenetre.length) {
+                return;
+            }
+            cumul[0]++;
+            cumul[1] += longueur;
+            if (t.getDebitKbps() != reference.getDebitKbps()) {
+                cumul[2] = 1;
+            }
+            p += longueur;
+        }
+    }
+
+    private boolean signature(byte[] octets, int position, String signature) {
+        if (position < 0 || position + signature.length() > octets.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length(); i++) {
+            if (octets[position + i] != (byte) signature.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int entier32(byte[] o, int p) {
+        return ((o[p] & 0xFF) << 24) | ((o[p + 1] & 0xFF) << 16)
+                | ((o[p + 2] & 0xFF) << 8) | (o[p + 3] & 0xFF);
+    }
+
+    /**
+     * Lit au plus {@code longueur} octets à une position donnée (moins si la fin du fichier est atteinte).
+     */
+    private byte[] lire(FileChannel canal, long position, int longueur) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(Math.max(0, longueur));
+        while (tampon.hasRemaining()) {
+            int lus = canal.read(tampon, position + tampon.position());
+            if (lus < 0) {
+                break;
+            }
+        }
+        return (tampon.position() == longueur)
+                ? tampon.array()
+                : Arrays.copyOf(tampon.array(), tampon.position());
+    }
+}
@@ -0,0 +1,145 @@
+package services.MetadonneesExtractor;
+
+import services.systeme.FileUtils;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptateur jaudiotagger gardant en mémoire, peu de temps, les derniers fichiers lus.
+ *
+ * Un même fichier est souvent lu plusieurs fois en rafale (métadonnées, tags bruts,
+ * pochette de la vue détail) : ces lectures réutilisent alors le même {@link ExternalRawTags}
+ * au lieu de réanalyser le MP3. Les objets jaudiotagger pouvant contenir la pochette complète,
+ * le cache est volontairement petit et ses entrées expirent rapidement.
+ *
+ * Une entrée n'est réutilisée que si la taille et la date de modification du fichier
+ * n'ont pas changé depuis sa lecture.
+ */
+public class CacheExternalId3LibraryAdapter extends ExternalId3LibraryAdapter {
+
+    /** Nombre d'entrées conservées par défaut. */
+    public static final int CAPACITE_PAR_DEFAUT = 8;
+
+    /** Durée de vie par défaut d'une entrée, en millisecondes. */
+    public static final long DUREE_VIE_PAR_DEFAUT_MS = 10_000;
+
+    private final int capacite;
+    private final long dureeVieNanos;
+    private final FileUtils fileUtils;
+    private final Map<String, Entree> entrees;
+
+    /**
+     * Construit un adaptateur avec la capacité et la durée de vie par défaut.
+     */
+    public CacheExternalId3LibraryAdapter() {
+        this(CAPACITE_PAR_DEFAUT, DUREE_VIE_PAR_DEFAUT_MS);
+    }
+
+    /**
+     * Construit un adaptateur avec cache.
+     *
+     * @param capacite nombre maximal de fichiers conservés (doit être >= 1)
+     * @param dureeVieMs durée de vie d'une entrée en millisecondes (doit être > 0)
+     */
+    public CacheExternalId3LibraryAdapter(int capacite, long dureeVieMs) {
+        if (capacite < 1) {
+            throw new IllegalArgumentException("La capacité doit être >= 1.");
+        }
+        if (dureeVieMs <= 0) {
+            throw new IllegalArgumentException("La durée de vie doit être > 0.");
+        }
+        this.capacite = capacite;
+        this.dureeVieNanos = TimeUnit.MILLISECONDS.toNanos(dureeVieMs);
+        this.fileUtils = new FileUtils();
+        this.entrees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entree> plusAncienne) {
+                return size() > CacheExternalId3LibraryAdapter.this.capacite;
+            }
+        };
+    }
+
+    /**
+     * Retourne les données brutes en cache si elles sont récentes et que le fichier
+     * n'a pas changé, sinon relit le fichier via jaudiotagger.
+     */
+    @Override
+    public ExternalRawTags lireTagsBruts(Path chemin) {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Le chemin ne doit pas être nul.");
+        }
+
+        Path absolu = chemin.toAbsolutePath().normalize();
+        String cle = absolu.toString();
+        BasicFileAttributes attributs = fileUtils.lireAttributs(absolu);
+        long maintenant = System.nanoTime();
+
+        if (attributs != null) {
+            synchronized (entrees) {
+                Entree entree = entrees.get(cle);
+                if (entree != null && entree.estValide(attributs, maintenant, dureeVieNanos)) {
+                    return entree.donnees;
+                }
+                entrees.remove(cle);
+            }
+        }
+
+        ExternalRawTags donnees = super.lireTagsBruts(chemin);
+
+        if (attributs != null) {
+            synchronized (entrees) {
+                entrees.put(cle, new Entree(donnees, attributs.size(),
+                        attributs.lastModifiedTime().toMillis(), maintenant));
+            }
+        }
+        return donnees;
+    }
+
+    /**
+     * Vide le cache.
+     */
+    public void vider() {
+        synchronized (entrees) {
+            entrees.clear();
+        }
+    }
+
+    /**
+     * Retourne le nombre d'entrées actuellement en cache (expirées comprises).
+     *
+     * @return nombre d'entrées
+     */
+    public int taille() {
+        synchronized (entrees) {
+            return entrees.size();
+        }
+    }
+
+    /**
+     * Données brutes d'un fichier, avec l'état du fichier et l'instant de lecture.
+     */
+    private static class Entree {
+
+        final ExternalRawTags donnees;
+        final long taille;
+        final long dateModification;
+        final long lueA;
+
+        Entree(ExternalRawTags donnees, long taille, long dateModification, long lueA) {
+            this.donnees = donnees;
+            this.taille = taille;
+            this.dateModification = dateModification;
+            this.lueA = lueA;
+        }
+
+        boolean estValide(BasicFileAttributes attributs, long maintenant, long dureeVieNanos) {
+            return maintenant - lueA <= dureeVieNanos
+                    && attributs.size() == taille
+                    && attributs.lastModifiedTime().toMillis() == dateModification;
+        }
+    }
+}
@@ -0,0 +1,751 @@
+package services.MetadonneesExtractor;
+
+import modele.metadonnees.CoverImage;
+import modele.metadonnees.ID3TagSet;
+import modele.metadonnees.Metadata;
+import modele.metadonnees.MetadataBuilder;
+import modele.metadonnees.PoolCanonique;
+import modele.metadonnees.SourcePochette;
+import services.systeme.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache persistant de métadonnées placé devant un autre {@link MetadataExtractor}.
+ *
+ * Chaque entrée est indexée par le chemin absolu du fichier et n'est valable que
+ * si sa taille et sa date de modification n'ont pas changé : un simple appel
+ * système suffit alors, sans relire les tags. Seuls les fichiers nouveaux
+ * ou modifiés sont confiés à l'extracteur délégué.
+ *
+ * Le cache est conservé dans un fichier binaire compact. Les octets des pochettes
+ * n'y sont pas stockés, seulement leur description (type, dimensions, taille, empreinte)
+ * ou l'absence de pochette : une pochette issue du cache est paresseuse, relue à sa
+ * position dans le fichier audio quand elle est connue, sinon par l'extracteur délégué,
+ * et seulement quand ses octets sont demandés.
+ *
+ * Chaque entrée mémorise les champs qu'elle contient : une extraction partielle
+ * (projection) peut être servie par une entrée plus complète, et les champs
+ * manquants d'une entrée sont complétés lors d'une extraction ultérieure.
+ *
+ * Les artistes, albums, genres et informations techniques des entrées et des
+ * métadonnées produites sont canonisés par un {@link PoolCanonique} : une valeur
+ * répétée dans toute la bibliothèque n'est conservée qu'une fois en mémoire.
+ *
+ * Les lectures et mises à jour peuvent être faites depuis plusieurs threads.
+ */
+public class CacheMetadataExtractor implements MetadataExtractor {
+
+    /** Signature du fichier binaire ("MPMC"). */
+    private static final int SIGNATURE = 0x4D504D43;
+
+    /**
+     * Version du format binaire (2 : ajout des champs présents dans chaque entrée ;
+     * 3 : textes en UTF-8 précédés de leur longueur, description de la pochette).
+     */
+    private static final int VERSION = 3;
+
+    /** Longueur maximale d'un texte relu, au-delà de laquelle le cache est jugé corrompu. */
+    private static final int TAILLE_MAX_TEXTE = 16 * 1024 * 1024;
+
+    /** Projection complète, utilisée par {@link #extraire(Path)}. */
+    private static final Set<ChampMetadata> TOUS_LES_CHAMPS =
+            Collections.unmodifiableSet(ChampMetadata.tous());
+
+    /** Projection utilisée pour relire une pochette dont la position n'est pas connue. */
+    private static final Set<ChampMetadata> POCHETTE_SEULE =
+            Collections.unmodifiableSet(EnumSet.of(ChampMetadata.POCHETTE));
+
+    private MetadataExtractor delegue;
+    private Path fichierCache;
+    private FileUtils fileUtils;
+    private PoolCanonique pool;
+
+    /** Entrées indexées par chemin absolu normalisé. */
+    private Map<String, Entree> entrees;
+
+    /** Indique si le cache a changé depuis le dernier chargement ou la dernière sauvegarde. */
+    private volatile boolean modifie;
+
+    private final AtomicLong succes = new AtomicLong();
+    private final AtomicLong echecs = new AtomicLong();
+
+    /**
+     * Construit un cache et charge son contenu depuis le fichier indiqué.
+     * Un fichier absent ou illisible donne un cache vide.
+     *
+     * @param delegue extracteur utilisé pour les fichiers absents du cache ou modifiés
+     * @param fichierCache fichier binaire du cache (créé à la première sauvegarde)
+     */
+    public CacheMetadataExtractor(MetadataExtractor delegue, Path fichierCache) {
+        this(delegue, fichierCache, new PoolCanonique());
+    }
+
+    /**
+     * Construit un cache dont les valeurs sont canonisées par un pool donné,
+     * éventuellement partagé avec d'autres composants (index, stockage de la bibliothèque).
+     *
+     * @param delegue extracteur utilisé pour les fichiers absents du cache ou modifiés
+     * @param fichierCache fichier binaire du cache (créé à la première sauvegarde)
+     * @param pool dictionnaires de valeurs canoniques
+     */
+    public CacheMetadataExtractor(MetadataExtractor delegue, Path fichierCache, PoolCanonique pool) {
+        if (delegue == null) {
+            throw new IllegalArgumentException("L'extracteur délégué ne doit pas être nul.");
+        }
+        if (fichierCache == null) {
+            throw new IllegalArgumentException("Le fichier de cache ne doit pas être nul.");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Le pool de valeurs canoniques ne doit pas être nul.");
+        }
+        this.delegue = delegue;
+        this.pool = pool;
+        this.fichierCache = fichierCache.toAbsolutePath();
+        this.fileUtils = new FileUtils();
+        this.entrees = charger(this.fichierCache);
+    }
+
+    /**
+     * Retourne l'emplacement par défaut du cache, dans le répertoire de l'utilisateur.
+     *
+     * @return chemin du fichier de cache
+     */
+    public static Path emplacementParDefaut() {
+        return Path.of(System.getProperty("user.home"), ".audioexplorer", "metadonnees.cache");
+    }
+
+    /**
+     * Retourne les métadonnées en cache si le fichier n'a pas changé,
+     * sinon les extrait via l'extracteur délégué et met le cache à jour.
+     */
+    @Override
+    public Metadata extraire(Path chemin) throws MetadataException {
+        return extraire(chemin, TOUS_LES_CHAMPS);
+    }
+
+    /**
+     * Retourne les métadonnées en cache si le fichier n'a pas changé et que l'entrée
+     * contient les champs demandés, sinon extrait ces champs via l'extracteur délégué et complète l'entrée.
+     */
+    @Override
+    public Metadata extraire(Path chemin, Set<ChampMetadata> champs) throws MetadataException {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Chemin nul");
+        }
+        if (champs == null) {
+            throw new IllegalArgumentException("Les champs demandés ne doivent pas être nuls.");
+        }
+
+        Path absolu = chemin.toAbsolutePath().normalize();
+        return extraire(absolu, fileUtils.lireAttributs(absolu), champs);
+    }
+
+    /**
+     * Variante de {@link #extraire(Path, Set)} pour un appelant qui connaît déjà
+     * les attributs du fichier (par exemple lus par le scanner) : le cache est
+     * validé avec ces attributs, sans nouvel appel système.
+     *
+     * @param chemin chemin du fichier
+     * @param attributs attributs actuels du fichier (null si illisible)
+     * @param champs champs souhaités
+     * @return métadonnées du fichier
+     * @throws MetadataException en cas d'erreur d'extraction
+     */
+    public Metadata extraire(Path chemin, BasicFileAttributes attributs,
+                             Set<ChampMetadata> champs) throws MetadataException {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Chemin nul");
+        }
+        if (champs == null) {
+            throw new IllegalArgumentException("Les champs demandés ne doivent pas être nuls.");
+        }
+
+        Path absolu = chemin.toAbsolutePath().normalize();
+        if (attributs == null) {
+            // Fichier illisible : l'extracteur délégué produit l'erreur adaptée
+            return pool.canoniser(delegue.extraire(chemin, champs));
+        }
+
+        Entree entree = entrees.get(absolu.toString());
+        if (entree != null && entree.estAJour(attributs) && entree.contient(champs)) {
+            succes.incrementAndGet();
+            return entree.versMetadata(absolu, delegue);
+        }
+
+        echecs.incrementAndGet();
+        Metadata metadata = delegue.extraire(chemin, champs);
+        memoriser(absolu, attributs, metadata, champs);
+        return metadata;
+    }
+
+    /**
+     * Les tags bruts ne sont pas mis en cache.
+     */
+    @Override
+    public ID3TagSet extraireTagsBruts(Path chemin) throws MetadataException {
+        return delegue.extraireTagsBruts(chemin);
+    }
+
+    @Override
+    public ID3TagSet extraireTagsBruts(Path chemin, Set<String> identifiants) throws MetadataException {
+        return delegue.extraireTagsBruts(chemin, identifiants);
+    }
+
+    /**
+     * Les tags bruts ne sont pas mis en cache : l'extraction complète est déléguée
+     * et ses métadonnées rafraîchissent l'entrée du fichier.
+     */
+    @Override
+    public MetadonneesEtTags extraireTout(Path chemin) throws MetadataException {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Chemin nul");
+        }
+
+        Path absolu = chemin.toAbsolutePath().normalize();
+        BasicFileAttributes attributs = fileUtils.lireAttributs(absolu);
+
+        MetadonneesEtTags resultat = delegue.extraireTout(chemin);
+        if (attributs != null && resultat != null) {
+            memoriser(absolu, attributs, resultat.getMetadata(), TOUS_LES_CHAMPS);
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne les métadonnées en cache d'un fichier sans vérifier qu'il est inchangé.
+     * Permet d'afficher immédiatement une bibliothèque au démarrage,
+     * avant sa validation par {@link #extraire(Path)}.
+     *
+     * @param chemin chemin du fichier
+     * @return métadonnées en cache, ou null si le fichier n'est pas connu
+     */
+    public Metadata lireSansValidation(Path chemin) {
+        if (chemin == null) {
+            return null;
+        }
+        Path absolu = chemin.toAbsolutePath().normalize();
+        Entree entree = entrees.get(absolu.toString());
+        return (entree != null) ? entree.versMetadata(absolu, delegue) : null;
+    }
+
+    /**
+     * Retourne, triés, les chemins en cache situés sous un répertoire.
+     *
+     * @param racine répertoire racine (ne doit pas être null)
+     * @return chemins absolus connus du cache
+     */
+    public List<Path> chemins(Path racine) {
+        if (racine == null) {
+            throw new IllegalArgumentException("La racine ne doit pas être nulle.");
+        }
+        Path base = racine.toAbsolutePath().normalize();
+
+        List<Path> chemins = new ArrayList<>();
+        for (String cle : entrees.keySet()) {
+            Path chemin = Path.of(cle);
+            if (chemin.startsWith(base)) {
+                chemins.add(chemin);
+            }
+        }
+        chemins.sort(null);
+        return chemins;
+    }
+
+    /**
+     * Retire du cache les fichiers situés sous un répertoire qui n'en font plus partie.
+     *
+     * @param racine répertoire racine (ne doit pas être null)
+     * @param presents fichiers actuellement présents sous la racine
+     * @return nombre d'entrées retirées
+     */
+    public int purger(Path racine, Collection<Path> presents) {
+        if (racine == null) {
+            throw new IllegalArgumentException("La racine ne doit pas être nulle.");
+        }
+
+        Set<String> conserves = new HashSet<>();
+        if (presents != null) {
+            for (Path p : presents) {
+                conserves.add(p.toAbsolutePath().normalize().toString());
+            }
+        }
+
+        int retires = 0;
+        for (Path chemin : chemins(racine)) {
+            String cle = chemin.toString();
+            if (!conserves.contains(cle) && entrees.remove(cle) != null) {
+                retires++;
+            }
+        }
+        if (retires > 0) {
+            modifie = true;
+        }
+        return retires;
+    }
+
+    /**
+     * Écrit le cache sur disque s'il a changé.
+     * L'écriture passe par un fichier temporaire renommé à la fin.
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public synchronized void sauvegarder() throws IOException {
+        if (!modifie) {
+            return;
+        }
+        modifie = false;
+
+        Path parent = fichierCache.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporaire = fichierCache.resolveSibling(fichierCache.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+            List<Map.Entry<String, Entree>> copie = new ArrayList<>(entrees.entrySet());
+
+            out.writeInt(SIGNATURE);
+            out.writeInt(VERSION);
+            out.writeInt(copie.size());
+            for (Map.Entry<String, Entree> e : copie) {
+                ecrireTexte(out, e.getKey());
+                e.getValue().ecrire(out);
+            }
+        } catch (IOException e) {
+            modifie = true;
+            throw e;
+        }
+
+        Files.move(temporaire, fichierCache, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Enregistre les métadonnées d'un fichier avec l'état (taille, date) lu avant l'extraction.
+     * Si une entrée à jour existe déjà, ses champs non extraits cette fois-ci sont conservés.
+     */
+    private void memoriser(Path absolu, BasicFileAttributes attributs, Metadata metadata,
+                           Set<ChampMetadata> champs) {
+        if (metadata == null) {
+            return;
+        }
+        pool.canoniser(metadata);
+        entrees.compute(absolu.toString(), (cle, ancienne) -> {
+            Entree nouvelle = new Entree(attributs.size(), attributs.lastModifiedTime().toMillis(),
+                    Entree.masque(champs), metadata, absolu);
+            return (ancienne != null && ancienne.estAJour(attributs))
+                    ? ancienne.completerPar(nouvelle)
+                    : nouvelle;
+        });
+        modifie = true;
+    }
+
+    /** Retourne le pool canonisant les valeurs du cache. */
+    public PoolCanonique getPool() {
+        return pool;
+    }
+
+    /** Retourne le nombre de fichiers en cache. */
+    public int taille() {
+        return entrees.size();
+    }
+
+    /** Retourne le nombre d'extractions servies par le cache. */
+    public long getSucces() {
+        return succes.get();
+    }
+
+    /** Retourne le nombre d'extractions confiées à l'extracteur délégué. */
+    public long getEchecs() {
+        return echecs.get();
+    }
+
+    /**
+     * Charge les entrées du fichier de cache ; un fichier absent,
+     * d'une autre version ou corrompu donne un cache vide.
+     */
+    private Map<String, Entree> charger(Path fichier) {
+        Map<String, Entree> resultat = new ConcurrentHashMap<>();
+        if (!Files.isRegularFile(fichier)) {
+            return resultat;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(fichier)))) {
+            if (in.readInt() != SIGNATURE || in.readInt() != VERSION) {
+                return resultat;
+            }
+            int nombre = in.readInt();
+            Map<String, Entree> lues = new ConcurrentHashMap<>(Math.max(16, nombre * 4 / 3 + 1));
+            for (int i = 0; i < nombre; i++) {
+                String chemin = lireTexte(in);
+                if (chemin == null) {
+                    return resultat;
+                }
+                lues.put(chemin, Entree.lire(in, pool));
+            }
+            return lues;
+        } catch (IOException e) {
+            // Cache corrompu : on repart d'un état vide
+            return resultat;
+        }
+    }
+
+    /** Chaîne éventuellement nulle, en UTF-8 précédée de sa longueur en octets (-1 pour null). */
+    private static void ecrireTexte(DataOutputStream out, String texte) throws IOException {
+        if (texte == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(octets.length);
+        out.write(octets);
+    }
+
+    private static String lireTexte(DataInputStream in) throws IOException {
+        int longueur = in.readInt();
+        if (longueur == -1) {
+            return null;
+        }
+        if (longueur < 0 || longueur > TAILLE_MAX_TEXTE) {
+            throw new IOException("Longueur de texte invalide : " + longueur);
+        }
+        byte[] octets = new byte[longueur];
+        in.readFully(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Entrée du cache : état du fichier (taille, date), champs des métadonnées
+     * et description de la pochette.
+     */
+    private static class Entree {
+
+        final long taille;
+        final long dateModification;
+
+        /** Champs présents, un bit par {@link ChampMetadata#ordinal()}. */
+        final int masque;
+
+        final String titre;
+        final String artiste;
+        final String album;
+        final String genre;
+        final int annee;
+        final int numeroPiste;
+        final double dureeSecondes;
+        final int bitrateKbps;
+        final int sampleRateHz;
+        final String channels;
+        final String format;
+        final String encodingType;
+
+        /** Pochette du fichier, null s'il n'en a pas (significatif si le masque contient la pochette). */
+        final DescriptionPochette pochette;
+
+        Entree(long taille, long dateModification, int masque, Metadata m, Path chemin) {
+            this(taille, dateModification, masque, m.getTitre(), m.getArtiste(), m.getAlbum(), m.getGenre(),
+                    m.getAnnee(), m.getNumeroDePiste(), m.getDureeSeconde(), m.getBitrateKbps(),
+                    m.getSampleRateHz(), m.getChannels(), m.getFormat(), m.getEncodingType(),
+                    (masque & bit(ChampMetadata.POCHETTE)) != 0
+                            ? DescriptionPochette.depuis(m.getPochette(), chemin) : null);
+        }
+
+        Entree(long taille, long dateModification, int masque, String titre, String artiste, String album,
+               String genre, int annee, int numeroPiste, double dureeSecondes, int bitrateKbps,
+               int sampleRateHz, String channels, String format, String encodingType,
+               DescriptionPochette pochette) {
+            this.taille = taille;
+            this.dateModification = dateModification;
+            this.masque = masque;
+            this.titre = titre;
+            this.artiste = artiste;
+            this.album = album;
+            this.genre = genre;
+            this.annee = annee;
+            this.numeroPiste = numeroPiste;
+            this.dureeSecondes = dureeSecondes;
+            this.bitrateKbps = bitrateKbps;
+            this.sampleRateHz = sampleRateHz;
+            this.channels = channels;
+            this.format = format;
+            this.encodingType = encodingType;
+            this.pochette = pochette;
+        }
+
+        static int bit(ChampMetadata champ) {
+            return 1 << champ.ordinal();
+        }
+
+        static int masque(Set<ChampMetadata> champs) {
+            int m = 0;
+            for (ChampMetadata c : champs) {
+                m |= bit(c);
+            }
+            return m;
+        }
+
+        boolean estAJour(BasicFileAttributes attributs) {
+            return taille == attributs.size() && dateModification == attributs.lastModifiedTime().toMillis();
+        }
+
+        /** Indique si l'entrée contient tous les champs demandés. */
+        boolean contient(Set<ChampMetadata> champs) {
+            int demande = masque(champs);
+            return (masque & demande) == demande;
+        }
+
+        private boolean a(ChampMetadata champ) {
+            return (masque & bit(champ)) != 0;
+        }
+
+        /**
+         * Retourne une entrée combinant les champs de {@code n} et, pour les autres,
+         * ceux de cette entrée.
+         */
+        Entree completerPar(Entree n) {
+            boolean t = n.a(ChampMetadata.TECHNIQUE);
+            return new Entree(n.taille, n.dateModification, masque | n.masque,
+                    n.a(ChampMetadata.TITRE) ? n.titre : titre,
+                    n.a(ChampMetadata.ARTISTE) ? n.artiste : artiste,
+                    n.a(ChampMetadata.ALBUM) ? n.album : album,
+                    n.a(ChampMetadata.GENRE) ? n.genre : genre,
+                    n.a(ChampMetadata.ANNEE) ? n.annee : annee,
+                    n.a(ChampMetadata.NUMERO_PISTE) ? n.numeroPiste : numeroPiste,
+                    n.a(ChampMetadata.DUREE) ? n.dureeSecondes : dureeSecondes,
+                    t ? n.bitrateKbps : bitrateKbps,
+                    t ? n.sampleRateHz : sampleRateHz,
+                    t ? n.channels : channels,
+                    t ? n.format : format,
+                    t ? n.encodingType : encodingType,
+                    n.a(ChampMetadata.POCHETTE) ? n.pochette : pochette);
+        }
+
+        /**
+         * Reconstruit un objet {@link Metadata} neuf ; sa pochette éventuelle est paresseuse.
+         *
+         * @param chemin chemin absolu du fichier de l'entrée
+         * @param delegue extracteur relisant une pochette dont la position n'est pas connue
+         */
+        Metadata versMetadata(Path chemin, MetadataExtractor delegue) {
+            MetadataBuilder builder = new MetadataBuilder()
+                    .avecTitre(titre)
+                    .avecArtiste(artiste)
+                    .avecAlbum(album)
+                    .avecGenre(genre)
+                    .avecAnnee(annee)
+                    .avecNumeroPiste(numeroPiste)
+                    .avecDureeSecondes(dureeSecondes)
+                    .avecBitrate(bitrateKbps)
+                    .avecSampleRate(sampleRateHz)
+                    .avecChannels(channels)
+                    .avecFormat(format)
+                    .avecEncodingType(encodingType);
+            if (pochette != null) {
+                builder.avecPochette(pochette.versPochette(chemin, this, delegue));
+            }
+            return builder.construire();
+        }
+
+        void ecrire(DataOutputStream out) throws IOException {
+            out.writeLong(taille);
+            out.writeLong(dateModification);
+            out.writeInt(masque);
+            ecrireTexte(out, titre);
+            ecrireTexte(out, artiste);
+            ecrireTexte(out, album);
+            ecrireTexte(out, genre);
+            out.writeInt(annee);
+            out.writeInt(numeroPiste);
+            out.writeDouble(dureeSecondes);
+            out.writeInt(bitrateKbps);
+            out.writeInt(sampleRateHz);
+            ecrireTexte(out, channels);
+            ecrireTexte(out, format);
+            ecrireTexte(out, encodingType);
+            if (a(ChampMetadata.POCHETTE)) {
+                out.writeBoolean(pochette != null);
+                if (pochette != null) {
+                    pochette.ecrire(out);
+                }
+            }
+        }
+
+        static Entree lire(DataInputStream in, PoolCanonique pool) throws IOException {
+            long taille = in.readLong();
+            long date = in.readLong();
+            int masque = in.readInt();
+            String titre = lireTexte(in);
+            String artiste = pool.getArtistes().canoniser(lireTexte(in));
+            String album = pool.getAlbums().canoniser(lireTexte(in));
+            String genre = pool.getGenres().canoniser(lireTexte(in));
+            int annee = in.readInt();
+            int numeroPiste = in.readInt();
+            double duree = in.readDouble();
+            int bitrate = in.readInt();
+            int sampleRate = in.readInt();
+            String channels = pool.getTechniques().canoniser(lireTexte(in));
+            String format = pool.getTechniques().canoniser(lireTexte(in));
+            String encodingType = pool.getTechniques().canoniser(lireTexte(in));
+            DescriptionPochette pochette = ((masque & bit(ChampMetadata.POCHETTE)) != 0 && in.readBoolean())
+                    ? DescriptionPochette.lire(in) : null;
+            return new Entree(taille, date, masque, titre, artiste, album, genre, annee, numeroPiste,
+                    duree, bitrate, sampleRate, channels, format, encodingType, pochette);
+        }
+    }
+
+    /**
+     * Description d'une pochette en cache, sans ses octets. Si l'image est une zone
+     * connue du fichier audio, sa position est retenue ; sinon elle sera relue
+     * par l'extracteur délégué.
+     */
+    private static class DescriptionPochette {
+
+        /** Position de l'image dans le fichier audio, -1 si elle n'est pas connue. */
+        final long position;
+        final long taille;
+        final String typeMime;
+        final int largeur;
+        final int hauteur;
+        final String empreinte;
+
+        DescriptionPochette(long position, long taille, String typeMime,
+                            int largeur, int hauteur, String empreinte) {
+            this.position = position;
+            this.taille = taille;
+            this.typeMime = typeMime;
+            this.largeur = largeur;
+            this.hauteur = hauteur;
+            this.empreinte = empreinte;
+        }
+
+        /**
+         * Décrit la pochette extraite d'un fichier ; une pochette partagée est repérée
+         * par celle de ses sources qui se trouve dans ce fichier.
+         *
+         * @return description, ou null si le fichier n'a pas de pochette
+         */
+        static DescriptionPochette depuis(CoverImage pochette, Path chemin) {
+            if (pochette == null || pochette.estVide()) {
+                return null;
+            }
+            long position = -1;
+            for (SourcePochette source : pochette.getSources()) {
+                if (source instanceof PochetteFichier) {
+                    PochetteFichier zone = (PochetteFichier) source;
+                    if (zone.getChemin().toAbsolutePath().normalize().equals(chemin)) {
+                        position = zone.getPosition();
+                        break;
+                    }
+                }
+            }
+            return new DescriptionPochette(position, pochette.getTaille(), pochette.getTypeMime(),
+                    pochette.getLargeur(), pochette.getHauteur(), pochette.getEmpreinte());
+        }
+
+        /**
+         * Construit une pochette paresseuse ; la zone du fichier n'est relue
+         * que si celui-ci a encore la taille et la date de l'entrée.
+         */
+        CoverImage versPochette(Path chemin, Entree entree, MetadataExtractor delegue) {
+            SourcePochette source = (position >= 0)
+                    ? new PochetteFichier(chemin, position, (int) taille, entree.taille, entree.dateModification)
+                    : new PochetteDeleguee(delegue, chemin, taille);
+            return new CoverImage(source, typeMime, largeur, hauteur, empreinte);
+        }
+
+        void ecrire(DataOutputStream out) throws IOException {
+            out.writeLong(position);
+            out.writeLong(taille);
+            ecrireTexte(out, typeMime);
+            out.writeInt(largeur);
+            out.writeInt(hauteur);
+            ecrireTexte(out, empreinte);
+        }
+
+        static DescriptionPochette lire(DataInputStream in) throws IOException {
+            long position = in.readLong();
+            long taille = in.readLong();
+            String typeMime = lireTexte(in);
+            int largeur = in.readInt();
+            int hauteur = in.readInt();
+            String empreinte = lireTexte(in);
+            if (taille < 0 || taille > Integer.MAX_VALUE || largeur < 0 || hauteur < 0) {
+                throw new IOException("Description de pochette invalide");
+            }
+            return new DescriptionPochette(position, taille, typeMime, largeur, hauteur, empreinte);
+        }
+    }
+
+    /**
+     * Pochette relue par l'extracteur délégué, limité à la seule pochette,
+     * quand sa position dans le fichier audio n'est pas connue.
+     */
+    private static class PochetteDeleguee implements SourcePochette {
+
+        private final MetadataExtractor delegue;
+        private final Path chemin;
+        private final long taille;
+
+        PochetteDeleguee(MetadataExtractor delegue, Path chemin, long taille) {
+            this.delegue = delegue;
+            this.chemin = chemin;
+            this.taille = taille;
+        }
+
+        @Override
+        public byte[] charger() throws IOException {
+            Metadata metadata;
+            try {
+                metadata = delegue.extraire(chemin, POCHETTE_SEULE);
+            } catch (MetadataException e) {
+                throw new IOException("Pochette illisible : " + chemin, e);
+            }
+            CoverImage pochette = (metadata != null) ? metadata.getPochette() : null;
+            byte[] octets = (pochette != null) ? pochette.getDonnees() : null;
+            if (octets == null || octets.length == 0) {
+                throw new IOException("Pochette introuvable : " + chemin);
+            }
+            return octets;
+        }
+
+        @Override
+        public long getTaille() {
+            return taille;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PochetteDeleguee)) return false;
+            PochetteDeleguee autre = (PochetteDeleguee) o;
+            return taille == autre.taille && chemin.equals(autre.chemin);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(chemin, taille);
+        }
+    }
+}
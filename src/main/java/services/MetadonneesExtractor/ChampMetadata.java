@@ -0,0 +1,63 @@
+package services.MetadonneesExtractor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Champs de {@link modele.metadonnees.Metadata} pouvant être demandés à un extracteur.
+ *
+ * Une extraction limitée à quelques champs (projection) évite le travail inutile :
+ * par exemple, sans {@link #POCHETTE}, l'image n'est ni décodée ni empreintée,
+ * et sans {@link #DUREE} ni {@link #TECHNIQUE}, l'en-tête audio n'est pas analysé.
+ * Les champs non demandés gardent leur valeur par défaut (null ou 0).
+ * Les tags bruts ont leur propre projection, par identifiant de tag :
+ * {@link MetadataExtractor#extraireTagsBruts(java.nio.file.Path, Set)}.
+ */
+public enum ChampMetadata {
+
+    TITRE,
+    ARTISTE,
+    ALBUM,
+    GENRE,
+    ANNEE,
+    NUMERO_PISTE,
+    /** Durée en secondes (nécessite l'en-tête audio). */
+    DUREE,
+    /** Image de pochette. */
+    POCHETTE,
+    /** Débit, fréquence d'échantillonnage, canaux, format et encodage. */
+    TECHNIQUE;
+
+    /**
+     * Retourne l'ensemble de tous les champs (extraction complète).
+     *
+     * @return nouvel ensemble modifiable
+     */
+    public static EnumSet<ChampMetadata> tous() {
+        return EnumSet.allOf(ChampMetadata.class);
+    }
+
+    /**
+     * Retourne les seuls champs utilisés par l'export de playlists : titre et durée.
+     *
+     * @return nouvel ensemble modifiable
+     */
+    public static EnumSet<ChampMetadata> pourPlaylist() {
+        return EnumSet.of(TITRE, DUREE);
+    }
+
+    /**
+     * Indique si un ensemble de champs demande des informations textuelles du tag.
+     *
+     * @param champs champs demandés
+     * @return true si au moins un champ du tag est demandé
+     */
+    public static boolean demandeTag(Set<ChampMetadata> champs) {
+        for (ChampMetadata c : champs) {
+            if (c != DUREE && c != TECHNIQUE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,140 @@
+package services.MetadonneesExtractor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Lit la largeur et la hauteur d'une image de pochette dans son en-tête, sans la décoder.
+ *
+ * Les formats PNG (bloc IHDR), GIF (descripteur d'écran) et JPEG (segment SOFn,
+ * atteint en sautant les segments précédents) sont reconnus. Les deux chemins
+ * d'extraction ({@link NativeId3MetadataExtractor} et {@link LibraryMetadataExtractor})
+ * renseignent ainsi les mêmes dimensions.
+ */
+class DimensionsImage {
+
+    /** Nombre maximal de segments JPEG parcourus avant d'abandonner. */
+    private static final int SEGMENTS_MAX = 64;
+
+    final int largeur;
+    final int hauteur;
+
+    private DimensionsImage(int largeur, int hauteur) {
+        this.largeur = largeur;
+        this.hauteur = hauteur;
+    }
+
+    /**
+     * Accès aux octets de l'image, relatif à son début.
+     */
+    private interface Octets {
+        /** Retourne au plus {@code n} octets à partir de {@code position} (moins en fin d'image). */
+        byte[] lire(long position, int n) throws IOException;
+    }
+
+    /**
+     * Lit les dimensions d'une image présente dans un tableau.
+     *
+     * @param octets tableau contenant l'image
+     * @param debut position de l'image dans le tableau
+     * @param longueur longueur de l'image
+     * @return dimensions, ou null si le format n'est pas reconnu
+     */
+    static DimensionsImage lire(byte[] octets, int debut, int longueur) {
+        try {
+            return lire((position, n) -> {
+                int de = debut + (int) Math.min(position, longueur);
+                int a = debut + (int) Math.min(position + n, longueur);
+                return Arrays.copyOfRange(octets, de, a);
+            }, longueur);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lit les dimensions d'une image située dans un fichier ; seuls les en-têtes sont lus.
+     *
+     * @param canal fichier ouvert en lecture
+     * @param debut position de l'image dans le fichier
+     * @param longueur longueur de l'image
+     * @return dimensions, ou null si le format n'est pas reconnu
+     * @throws IOException en cas d'erreur de lecture
+     */
+    static DimensionsImage lire(FileChannel canal, long debut, long longueur) throws IOException {
+        return lire((position, n) -> {
+            int taille = (int) Math.max(0, Math.min(n, longueur - position));
+            ByteBuffer tampon = ByteBuffer.allocate(taille);
+            while (tampon.hasRemaining()) {
+                if (canal.read(tampon, debut + position + tampon.position()) < 0) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(tampon.array(), tampon.position());
+        }, longueur);
+    }
+
+    private static DimensionsImage lire(Octets image, long longueur) throws IOException {
+        byte[] e = image.lire(0, 24);
+        if (e.length >= 24 && (e[0] & 0xFF) == 0x89 && e[1] == 'P' && e[2] == 'N' && e[3] == 'G'
+                && e[12] == 'I' && e[13] == 'H' && e[14] == 'D' && e[15] == 'R') {
+            return valides(entier32(e, 16), entier32(e, 20));
+        }
+        if (e.length >= 10 && e[0] == 'G' && e[1] == 'I' && e[2] == 'F' && e[3] == '8') {
+            return valides((e[6] & 0xFF) | (e[7] & 0xFF) << 8, (e[8] & 0xFF) | (e[9] & 0xFF) << 8);
+        }
+        if (e.length >= 2 && (e[0] & 0xFF) == 0xFF && (e[1] & 0xFF) == 0xD8) {
+            return jpeg(image, longueur);
+        }
+        return null;
+    }
+
+    /**
+     * Parcourt les segments JPEG jusqu'au premier SOFn.
+     */
+    private static DimensionsImage jpeg(Octets image, long longueur) throws IOException {
+        long position = 2;
+        for (int i = 0; i < SEGMENTS_MAX && position + 4 <= longueur; i++) {
+            byte[] s = image.lire(position, 9);
+            if (s.length < 4 || (s[0] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marqueur = s[1] & 0xFF;
+            if (marqueur == 0xFF) {
+                position++; // octet de remplissage
+                continue;
+            }
+            if (marqueur == 0x01 || (marqueur >= 0xD0 && marqueur <= 0xD8)) {
+                position += 2; // marqueur sans longueur
+                continue;
+            }
+            if (marqueur == 0xD9 || marqueur == 0xDA) {
+                return null; // fin d'image ou données compressées avant tout SOFn
+            }
+            if (estSof(marqueur)) {
+                if (s.length < 9) {
+                    return null;
+                }
+                return valides((s[7] & 0xFF) << 8 | (s[8] & 0xFF), (s[5] & 0xFF) << 8 | (s[6] & 0xFF));
+            }
+            position += 2 + ((s[2] & 0xFF) << 8 | (s[3] & 0xFF));
+        }
+        return null;
+    }
+
+    private static boolean estSof(int marqueur) {
+        return marqueur >= 0xC0 && marqueur <= 0xCF
+                && marqueur != 0xC4 && marqueur != 0xC8 && marqueur != 0xCC;
+    }
+
+    private static DimensionsImage valides(int largeur, int hauteur) {
+        return (largeur > 0 && hauteur > 0) ? new DimensionsImage(largeur, hauteur) : null;
+    }
+
+    private static int entier32(byte[] o, int p) {
+        return ((o[p] & 0xFF) << 24) | ((o[p + 1] & 0xFF) << 16)
+                | ((o[p + 2] & 0xFF) << 8) | (o[p + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,212 @@
+package services.MetadonneesExtractor;
+
+/**
+ * En-tête (4 octets) d'une trame MPEG audio.
+ * Décode la version, la couche, le débit, la fréquence d'échantillonnage
+ * et le mode de canaux, et calcule la longueur de la trame.
+ *
+ * Les libellés produits reprennent ceux de jaudiotagger afin que les
+ * extracteurs rapides donnent les mêmes {@code Metadata} que l'extracteur de référence.
+ */
+public class EnTeteMpeg {
+
+    /** Débits (kb/s) indexés par [MPEG-1 ? 0 : 1][couche - 1][indice]. */
+    private static final int[][][] DEBITS = {
+            {
+                    {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448, 0},
+                    {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384, 0},
+                    {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 0}
+            },
+            {
+                    {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256, 0},
+                    {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160, 0},
+                    {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160, 0}
+            }
+    };
+
+    /** Fréquences (Hz) pour MPEG-1 ; divisées par 2 (MPEG-2) ou 4 (MPEG-2.5). */
+    private static final int[] FREQUENCES_MPEG1 = {44100, 48000, 32000};
+
+    /** Libellés des modes de canaux, tels que fournis par jaudiotagger. */
+    private static final String[] MODES_CANAUX = {"Stereo", "Joint Stereo", "Dual", "Mono"};
+
+    /** Code de version : 3 = MPEG-1, 2 = MPEG-2, 0 = MPEG-2.5. */
+    private final int version;
+    /** Couche 1, 2 ou 3. */
+    private final int couche;
+    private final int debitKbps;
+    private final int frequenceHz;
+    private final int modeCanaux;
+    private final boolean remplissage;
+
+    private EnTeteMpeg(int version, int couche, int debitKbps, int frequenceHz,
+                       int modeCanaux, boolean remplissage) {
+        this.version = version;
+        this.couche = couche;
+        this.debitKbps = debitKbps;
+        this.frequenceHz = frequenceHz;
+        this.modeCanaux = modeCanaux;
+        this.remplissage = remplissage;
+    }
+
+    /**
+     * Décode un en-tête de trame à la position donnée.
+     *
+     * @param octets tampon contenant l'en-tête
+     * @param position position du premier octet de synchronisation
+     * @return en-tête décodé, ou null si les octets ne forment pas un en-tête valide
+     */
+    public static EnTeteMpeg lire(byte[] octets, int position) {
+        if (octets == null || position < 0 || position + 4 > octets.length) {
+            return null;
+        }
+
+        int b1 = octets[position + 1] & 0xFF;
+        int b2 = octets[position + 2] & 0xFF;
+        int b3 = octets[position + 3] & 0xFF;
+
+        if ((octets[position] & 0xFF) != 0xFF || (b1 & 0xE0) != 0xE0) {
+            return null;
+        }
+
+        int version = (b1 >> 3) & 0x03;
+        int codeCouche = (b1 >> 1) & 0x03;
+        int indiceDebit = (b2 >> 4) & 0x0F;
+        int indiceFrequence = (b2 >> 2) & 0x03;
+
+        if (version == 0x01 || codeCouche == 0x00 || indiceDebit == 0x0F
+                || indiceDebit == 0x00 || indiceFrequence == 0x03) {
+            // Version / couche réservées, débit libre ou invalide : non pris en charge
+            return null;
+        }
+
+        int couche = 4 - codeCouche;
+        int debit = DEBITS[version == 3 ? 0 : 1][couche - 1][indiceDebit];
+
+        int frequence = FREQUENCES_MPEG1[indiceFrequence];
+        if (version == 2) {
+            frequence /= 2;
+        } else if (version == 0) {
+            frequence /= 4;
+        }
+
+        boolean remplissage = ((b2 >> 1) & 0x01) == 1;
+        int modeCanaux = (b3 >> 6) & 0x03;
+
+        return new EnTeteMpeg(version, couche, debit, frequence, modeCanaux, remplissage);
+    }
+
+    /**
+     * Recherche le premier en-tête de trame valide dans une fenêtre d'octets.
+     * Un en-tête n'est retenu que si la trame suivante commence bien
+     * là où la première se termine (ou si elle dépasse la fenêtre).
+     *
+     * @param octets tampon à parcourir
+     * @param debut position de départ
+     * @return position de l'en-tête trouvé, ou -1
+     */
+    public static int chercher(byte[] octets, int debut) {
+        for (int i = Math.max(0, debut); i + 4 <= octets.length; i++) {
+            EnTeteMpeg entete = lire(octets, i);
+            if (entete == null) {
+                continue;
+            }
+            int suivante = i + entete.getLongueurTrame();
+            if (suivante + 4 > octets.length) {
+                return i;
+            }
+            EnTeteMpeg confirmation = lire(octets, suivante);
+            if (confirmation != null && confirmation.version == entete.version
+                    && confirmation.couche == entete.couche) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne la longueur de la trame en octets (en-tête compris).
+     *
+     * @return longueur de la trame
+     */
+    public int getLongueurTrame() {
+        if (couche == 1) {
+            return (12 * debitKbps * 1000 / frequenceHz + (remplissage ? 1 : 0)) * 4;
+        }
+        int echantillonsParOctet = (couche == 3 && version != 3) ? 72 : 144;
+        return echantillonsParOctet * debitKbps * 1000 / frequenceHz + (remplissage ? 1 : 0);
+    }
+
+    /**
+     * Retourne le nombre d'échantillons PCM par trame.
+     *
+     * @return 384, 576 ou 1152
+     */
+    public int getEchantillonsParTrame() {
+        if (couche == 1) {
+            return 384;
+        }
+        if (couche == 3 && version != 3) {
+            return 576;
+        }
+        return 1152;
+    }
+
+    /**
+     * Retourne la position de l'éventuel en-tête Xing/Info par rapport au début de la trame.
+     *
+     * @return décalage en octets
+     */
+    public int getDecalageXing() {
+        boolean mono = modeCanaux == 3;
+        if (version == 3) {
+            return mono ? 21 : 36;
+        }
+        return mono ? 13 : 21;
+    }
+
+    public int getDebitKbps() {
+        return debitKbps;
+    }
+
+    public int getFrequenceHz() {
+        return frequenceHz;
+    }
+
+    public int getCouche() {
+        return couche;
+    }
+
+    /**
+     * @return true pour MPEG-1, false pour MPEG-2 / MPEG-2.5
+     */
+    public boolean estMpeg1() {
+        return version == 3;
+    }
+
+    /**
+     * Retourne le libellé du mode de canaux ("Stereo", "Joint Stereo", "Dual", "Mono").
+     *
+     * @return mode de canaux
+     */
+    public String getLibelleCanaux() {
+        return MODES_CANAUX[modeCanaux];
+    }
+
+    /**
+     * Retourne le libellé version + couche, par exemple "MPEG-1 Layer 3".
+     *
+     * @return libellé de l'encodage
+     */
+    public String getLibelleEncodage() {
+        String v;
+        if (version == 3) {
+            v = "MPEG-1";
+        } else if (version == 2) {
+            v = "MPEG-2";
+        } else {
+            v = "MPEG-2.5";
+        }
+        return v + " Layer " + couche;
+    }
+}
@@ -0,0 +1,92 @@
+package services.MetadonneesExtractor;
+
+/**
+ * Table des genres ID3v1 (liste standard et extensions Winamp).
+ * Sert à traduire les genres numériques ("17", "(17)") en libellés ("Rock").
+ */
+public class GenresId3 {
+
+    private static final String[] GENRES = {
+            "Blues", "Classic Rock", "Country", "Dance", "Disco", "Funk", "Grunge",
+            "Hip-Hop", "Jazz", "Metal", "New Age", "Oldies", "Other", "Pop", "R&B",
+            "Rap", "Reggae", "Rock", "Techno", "Industrial", "Alternative", "Ska",
+            "Death Metal", "Pranks", "Soundtrack", "Euro-Techno", "Ambient",
+            "Trip-Hop", "Vocal", "Jazz+Funk", "Fusion", "Trance", "Classical",
+            "Instrumental", "Acid", "House", "Game", "Sound Clip", "Gospel",
+            "Noise", "AlternRock", "Bass", "Soul", "Punk", "Space", "Meditative",
+            "Instrumental Pop", "Instrumental Rock", "Ethnic", "Gothic",
+            "Darkwave", "Techno-Industrial", "Electronic", "Pop-Folk",
+            "Eurodance", "Dream", "Southern Rock", "Comedy", "Cult", "Gangsta",
+            "Top 40", "Christian Rap", "Pop/Funk", "Jungle", "Native American",
+            "Cabaret", "New Wave", "Psychadelic", "Rave", "Showtunes", "Trailer",
+            "Lo-Fi", "Tribal", "Acid Punk", "Acid Jazz", "Polka", "Retro",
+            "Musical", "Rock & Roll", "Hard Rock", "Folk", "Folk-Rock",
+            "National Folk", "Swing", "Fast Fusion", "Bebob", "Latin", "Revival",
+            "Celtic", "Bluegrass", "Avantgarde", "Gothic Rock", "Progressive Rock",
+            "Psychedelic Rock", "Symphonic Rock", "Slow Rock", "Big Band",
+            "Chorus", "Easy Listening", "Acoustic", "Humour", "Speech", "Chanson",
+            "Opera", "Chamber Music", "Sonata", "Symphony", "Booty Bass", "Primus",
+            "Porn Groove", "Satire", "Slow Jam", "Club", "Tango", "Samba",
+            "Folklore", "Ballad", "Power Ballad", "Rhythmic Soul", "Freestyle",
+            "Duet", "Punk Rock", "Drum Solo", "Acapella", "Euro-House", "Dance Hall",
+            "Goa", "Drum & Bass", "Club-House", "Hardcore", "Terror", "Indie",
+            "BritPop", "Negerpunk", "Polsk Punk", "Beat", "Christian Gangsta Rap",
+            "Heavy Metal", "Black Metal", "Crossover", "Contemporary Christian",
+            "Christian Rock", "Merengue", "Salsa", "Thrash Metal", "Anime", "JPop",
+            "Synthpop"
+    };
+
+    /**
+     * Retourne le libellé d'un genre ID3v1.
+     *
+     * @param indice numéro du genre
+     * @return libellé, ou null si le numéro est inconnu
+     */
+    public String libelle(int indice) {
+        if (indice < 0 || indice >= GENRES.length) {
+            return null;
+        }
+        return GENRES[indice];
+    }
+
+    /**
+     * Normalise une valeur de genre ID3v2 : "(17)", "17" ou "(17)Rock" deviennent "Rock",
+     * les valeurs textuelles sont conservées telles quelles.
+     *
+     * @param valeur valeur brute du champ TCON
+     * @return genre lisible (éventuellement la valeur d'origine)
+     */
+    public String normaliser(String valeur) {
+        if (valeur == null) {
+            return null;
+        }
+        String v = valeur.trim();
+
+        if (v.startsWith("(")) {
+            int fin = v.indexOf(')');
+            if (fin > 1) {
+                String reste = v.substring(fin + 1).trim();
+                if (!reste.isEmpty()) {
+                    return reste;
+                }
+                String libelle = libelleNumerique(v.substring(1, fin));
+                return libelle != null ? libelle : v;
+            }
+        }
+
+        String libelle = libelleNumerique(v);
+        return libelle != null ? libelle : v;
+    }
+
+    private String libelleNumerique(String texte) {
+        if (texte.isEmpty() || texte.length() > 3) {
+            return null;
+        }
+        for (int i = 0; i < texte.length(); i++) {
+            if (!Character.isDigit(texte.charAt(i))) {
+                return null;
+            }
+        }
+        return libelle(Integer.parseInt(texte));
+    }
+}
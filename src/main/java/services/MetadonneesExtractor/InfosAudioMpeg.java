@@ -0,0 +1,132 @@
+package services.MetadonneesExtractor;
+
+import java.util.Locale;
+
+/**
+ * Caractéristiques d'un flux MPEG audio déterminées par {@link AnalyseurAudioMpeg} :
+ * durée, débit moyen, nombre de trames et, si l'encodeur les a notés,
+ * le retard et le bourrage introduits en début et fin de flux.
+ */
+public class InfosAudioMpeg {
+
+    /** Origine des valeurs calculées. */
+    public enum Source {
+        /** En-tête Xing (flux à débit variable). */
+        XING,
+        /** En-tête Info (variante Xing écrite pour les flux à débit constant). */
+        INFO,
+        /** En-tête VBRI (encodeurs Fraunhofer). */
+        VBRI,
+        /** Aucun en-tête : estimation à partir d'un échantillon de trames. */
+        ECHANTILLONNAGE
+    }
+
+    private final EnTeteMpeg premiereTrame;
+    private final Source source;
+    private final long nombreTrames;
+    private final long octetsAudio;
+    private final double dureeSecondes;
+    private final int debitMoyenKbps;
+    private final int retardEncodeur;
+    private final int bourrageEncodeur;
+    private final boolean debitVariable;
+
+    InfosAudioMpeg(EnTeteMpeg premiereTrame, Source source, long nombreTrames, long octetsAudio,
+                   double dureeSecondes, int debitMoyenKbps, int retardEncodeur,
+                   int bourrageEncodeur, boolean debitVariable) {
+        this.premiereTrame = premiereTrame;
+        this.source = source;
+        this.nombreTrames = nombreTrames;
+        this.octetsAudio = octetsAudio;
+        this.dureeSecondes = dureeSecondes;
+        this.debitMoyenKbps = debitMoyenKbps;
+        this.retardEncodeur = retardEncodeur;
+        this.bourrageEncodeur = bourrageEncodeur;
+        this.debitVariable = debitVariable;
+    }
+
+    /**
+     * Retourne l'en-tête de la première trame (fréquence, canaux, encodage).
+     *
+     * @return en-tête de la première trame
+     */
+    public EnTeteMpeg getPremiereTrame() {
+        return premiereTrame;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Indique si la durée provient d'un en-tête (exacte) plutôt que d'une estimation.
+     *
+     * @return true si la durée est exacte
+     */
+    public boolean estExacte() {
+        return source != Source.ECHANTILLONNAGE;
+    }
+
+    /**
+     * Retourne le nombre de trames audio (exact ou estimé).
+     *
+     * @return nombre de trames
+     */
+    public long getNombreTrames() {
+        return nombreTrames;
+    }
+
+    /**
+     * Retourne la taille du flux audio en octets.
+     *
+     * @return taille en octets
+     */
+    public long getOctetsAudio() {
+        return octetsAudio;
+    }
+
+    /**
+     * Retourne la durée en secondes, retard et bourrage de l'encodeur déduits.
+     *
+     * @return durée en secondes
+     */
+    public double getDureeSecondes() {
+        return dureeSecondes;
+    }
+
+    public int getDebitMoyenKbps() {
+        return debitMoyenKbps;
+    }
+
+    /**
+     * Retourne le nombre d'échantillons ajoutés par l'encodeur en début de flux
+     * (0 si inconnu).
+     *
+     * @return retard en échantillons
+     */
+    public int getRetardEncodeur() {
+        return retardEncodeur;
+    }
+
+    /**
+     * Retourne le nombre d'échantillons ajoutés par l'encodeur en fin de flux
+     * (0 si inconnu).
+     *
+     * @return bourrage en échantillons
+     */
+    public int getBourrageEncodeur() {
+        return bourrageEncodeur;
+    }
+
+    public boolean estDebitVariable() {
+        return debitVariable;
+    }
+
+    @Override
+    public String toString() {
+        return source + " : " + nombreTrames + " trames, "
+                + String.format(Locale.ROOT, "%.3f", dureeSecondes) + " s, "
+                + debitMoyenKbps + " kb/s" + (debitVariable ? " (VBR)" : "")
+                + ", retard " + retardEncodeur + ", bourrage " + bourrageEncodeur;
+    }
+}
@@ -5,6 +5,7 @@ import modele.metadonnees.Id3Tag;
 import modele.metadonnees.ID3TagSet;
 import modele.metadonnees.Metadata;
 import modele.metadonnees.MetadataBuilder;
+import modele.metadonnees.SourcePochette;
 
 import org.jaudiotagger.audio.AudioHeader;
 import org.jaudiotagger.tag.FieldKey;
@@ -14,8 +15,15 @@ import org.jaudiotagger.tag.images.Artwork;
 
 import services.mime.MimeChecker;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Extracteur de métadonnées basé sur une bibliothèque externe ID3.
@@ -28,6 +36,13 @@ public class LibraryMetadataExtractor implements MetadataExtractor {
 
     private  MimeChecker mimeChecker;
     private  ExternalId3LibraryAdapter adaptateur;
+    private  MagasinPochettes magasin;
+    private  LocalisateurPochette localisateur = new LocalisateurPochette();
+    private  GenresId3 genres = new GenresId3();
+
+    /** Projection complète, utilisée par {@link #extraire(Path)}. */
+    private static final Set<ChampMetadata> TOUS_LES_CHAMPS =
+            Collections.unmodifiableSet(ChampMetadata.tous());
 
     /**
      * Construit un extracteur de métadonnées à partir d’un vérificateur MIME
@@ -38,11 +53,25 @@ public class LibraryMetadataExtractor implements MetadataExtractor {
      */
     public LibraryMetadataExtractor(MimeChecker mimeChecker,
                                     ExternalId3LibraryAdapter adaptateur) {
+        this(mimeChecker, adaptateur, null);
+    }
+
+    /**
+     * Construit un extracteur de métadonnées dont les pochettes identiques sont partagées.
+     *
+     * @param mimeChecker service de vérification du type MIME
+     * @param adaptateur adaptateur de lecture des tags ID3 bruts
+     * @param magasin magasin de pochettes (null pour ne pas dédupliquer)
+     */
+    public LibraryMetadataExtractor(MimeChecker mimeChecker,
+                                    ExternalId3LibraryAdapter adaptateur,
+                                    MagasinPochettes magasin) {
         if (mimeChecker == null) throw new IllegalArgumentException("MimeChecker nul");
         if (adaptateur == null) throw new IllegalArgumentException("Adaptateur nul");
 
         this.mimeChecker = mimeChecker;
         this.adaptateur = adaptateur;
+        this.magasin = magasin;
     }
 
     /**
@@ -54,6 +83,40 @@ public class LibraryMetadataExtractor implements MetadataExtractor {
      */
     @Override
     public Metadata extraire(Path chemin) throws MetadataException {
+        return extraire(chemin, TOUS_LES_CHAMPS);
+    }
+
+    /**
+     * Extrait uniquement les champs demandés : la pochette n’est décrite
+     * et l’en-tête audio n’est interrogé que s’ils font partie de la projection.
+     *
+     * @param chemin chemin du fichier audio
+     * @param champs champs souhaités
+     * @return métadonnées extraites
+     * @throws MetadataException si le fichier n’est pas audio ou en cas d’erreur
+     */
+    @Override
+    public Metadata extraire(Path chemin, Set<ChampMetadata> champs) throws MetadataException {
+        if (chemin == null)
+            throw new IllegalArgumentException("Chemin nul");
+        if (champs == null)
+            throw new IllegalArgumentException("Champs nuls");
+
+        if (!mimeChecker.estAudio(chemin))
+            throw new MetadataException("Fichier non audio : " + chemin);
+
+        return convertirMetadata(adaptateur.lireTagsBruts(chemin), chemin, champs);
+    }
+
+    /**
+     * Extrait métadonnées et tags bruts à partir d’une seule lecture du fichier.
+     *
+     * @param chemin chemin du fichier audio
+     * @return métadonnées et tags bruts
+     * @throws MetadataException si le fichier n’est pas audio ou en cas d’erreur
+     */
+    @Override
+    public MetadonneesEtTags extraireTout(Path chemin) throws MetadataException {
         if (chemin == null)
             throw new IllegalArgumentException("Chemin nul");
 
@@ -61,37 +124,71 @@ public class LibraryMetadataExtractor implements MetadataExtractor {
             throw new MetadataException("Fichier non audio : " + chemin);
 
         ExternalRawTags raw = adaptateur.lireTagsBruts(chemin);
+        return new MetadonneesEtTags(convertirMetadata(raw, chemin, TOUS_LES_CHAMPS), convertirTags(raw.getTag()));
+    }
+
+    /**
+     * Convertit les données brutes jaudiotagger en métadonnées métier.
+     *
+     * @param raw données brutes du fichier
+     * @param chemin chemin du fichier audio
+     * @param champs champs à renseigner
+     * @return métadonnées construites
+     */
+    private Metadata convertirMetadata(ExternalRawTags raw, Path chemin, Set<ChampMetadata> champs) {
         Tag tag = raw.getTag();
         AudioHeader header = raw.getAudioHeader();
 
         MetadataBuilder builder = new MetadataBuilder();
 
         if (tag != null) {
-            builder.avecTitre(lireChamp(tag, FieldKey.TITLE))
-                    .avecArtiste(lireChamp(tag, FieldKey.ARTIST))
-                    .avecAlbum(lireChamp(tag, FieldKey.ALBUM))
-                    .avecGenre(lireChamp(tag, FieldKey.GENRE))
-                    .avecAnnee(lireEntier(tag, FieldKey.YEAR))
-                    .avecNumeroPiste(lireEntier(tag, FieldKey.TRACK));
-
-            CoverImage pochette = extrairePochette(tag);
-            if (pochette != null && !pochette.estVide()) {
-                builder.avecPochette(pochette);
+            if (champs.contains(ChampMetadata.TITRE)) builder.avecTitre(lireChamp(tag, FieldKey.TITLE));
+            if (champs.contains(ChampMetadata.ARTISTE)) builder.avecArtiste(lireChamp(tag, FieldKey.ARTIST));
+            if (champs.contains(ChampMetadata.ALBUM)) builder.avecAlbum(lireChamp(tag, FieldKey.ALBUM));
+            if (champs.contains(ChampMetadata.GENRE)) builder.avecGenre(lireGenre(tag));
+            if (champs.contains(ChampMetadata.ANNEE)) builder.avecAnnee(lireEntier(tag, FieldKey.YEAR));
+            if (champs.contains(ChampMetadata.NUMERO_PISTE)) builder.avecNumeroPiste(lireEntier(tag, FieldKey.TRACK));
+
+            if (champs.contains(ChampMetadata.POCHETTE)) {
+                CoverImage pochette = extrairePochette(tag, chemin);
+                if (pochette != null && !pochette.estVide()) {
+                    builder.avecPochette(pochette);
+                }
             }
         }
 
         if (header != null) {
-            builder.avecDureeSecondes(header.getTrackLength());
+            if (champs.contains(ChampMetadata.DUREE)) {
+                builder.avecDureeSecondes(dureePrecise(header));
+            }
 
-            try { builder.avecSampleRate(header.getSampleRateAsNumber()); } catch (Exception ignored) {}
-            try { builder.avecChannels(header.getChannels()); } catch (Exception ignored) {}
-            try { builder.avecFormat(header.getFormat()); } catch (Exception ignored) {}
-            try { builder.avecEncodingType(header.getEncodingType()); } catch (Exception ignored) {}
+            if (champs.contains(ChampMetadata.TECHNIQUE)) {
+                try { builder.avecBitrate((int) header.getBitRateAsNumber()); } catch (Exception ignored) {}
+                try { builder.avecSampleRate(header.getSampleRateAsNumber()); } catch (Exception ignored) {}
+                try { builder.avecChannels(header.getChannels()); } catch (Exception ignored) {}
+                try { builder.avecFormat(header.getFormat()); } catch (Exception ignored) {}
+                try { builder.avecEncodingType(header.getEncodingType()); } catch (Exception ignored) {}
+            }
         }
 
         return builder.construire();
     }
 
+    /**
+     * Retourne la durée calculée par jaudiotagger à partir de l’en-tête Xing / VBRI
+     * ou du débit, sans arrondi à la seconde ; à défaut, la durée entière.
+     */
+    private double dureePrecise(AudioHeader header) {
+        try {
+            double duree = header.getPreciseTrackLength();
+            if (duree > 0) {
+                return duree;
+            }
+        } catch (Exception ignored) {
+        }
+        return header.getTrackLength();
+    }
+
     /**
      * Extrait l’ensemble des tags ID3 bruts d’un fichier audio.
      *
@@ -104,27 +201,86 @@ public class LibraryMetadataExtractor implements MetadataExtractor {
         if (chemin == null)
             throw new IllegalArgumentException("Chemin nul");
 
-        ExternalRawTags raw = adaptateur.lireTagsBruts(chemin);
-        Tag tag = raw.getTag();
+        return convertirTags(adaptateur.lireTagsBruts(chemin).getTag());
+    }
+
+    /**
+     * Extrait les seuls tags bruts demandés : seules leurs clés sont interrogées,
+     * au lieu de l’ensemble des clés jaudiotagger.
+     *
+     * @param chemin chemin du fichier audio
+     * @param identifiants noms des clés jaudiotagger souhaitées (les noms inconnus sont ignorés)
+     * @return tags demandés présents dans le fichier
+     * @throws MetadataException en cas d’erreur de lecture
+     */
+    @Override
+    public ID3TagSet extraireTagsBruts(Path chemin, Set<String> identifiants) throws MetadataException {
+        if (chemin == null)
+            throw new IllegalArgumentException("Chemin nul");
+        if (identifiants == null)
+            throw new IllegalArgumentException("Tags demandés nuls");
+
         ID3TagSet set = new ID3TagSet();
+        if (identifiants.isEmpty()) return set;
 
-        if (tag == null) return set;
+        Tag tag = adaptateur.lireTagsBruts(chemin).getTag();
+        if (tag == null || tag.isEmpty()) return set;
 
-        for (FieldKey key : FieldKey.values()) {
-            try {
-                List<TagField> fields = tag.getFields(key);
-                if (fields == null || fields.isEmpty()) continue;
+        for (String identifiant : identifiants) {
+            FieldKey key = cle(identifiant);
+            if (key != null) ajouterTag(set, tag, key);
+        }
+        return set;
+    }
 
-                String val = tag.getFirst(key);
-                if (val == null || val.trim().isEmpty()) continue;
+    /**
+     * Convertit un tag jaudiotagger en ensemble de tags bruts.
+     *
+     * @param tag tag ID3 (peut être null)
+     * @return ensemble de tags, vide si le fichier n’a pas de tag
+     */
+    private ID3TagSet convertirTags(Tag tag) {
+        ID3TagSet set = new ID3TagSet();
 
-                set.ajouter(new Id3Tag(key.name(), key.name(), val));
+        // Fichier sans tag ou tag vide : inutile d’interroger chaque clé
+        if (tag == null || tag.isEmpty()) return set;
 
-            } catch (Exception ignored) {}
+        for (FieldKey key : FieldKey.values()) {
+            ajouterTag(set, tag, key);
         }
         return set;
     }
 
+    /**
+     * Ajoute la première valeur non vide d’une clé, si le tag la contient.
+     */
+    private void ajouterTag(ID3TagSet set, Tag tag, FieldKey key) {
+        try {
+            List<TagField> fields = tag.getFields(key);
+            if (fields == null || fields.isEmpty()) return;
+
+            String val = tag.getFirst(key);
+            if (val == null || val.trim().isEmpty()) return;
+
+            set.ajouter(new Id3Tag(key.name(), key.name(), val));
+
+        } catch (Exception ignored) {}
+    }
+
+    /**
+     * Retourne la clé jaudiotagger d’un identifiant de tag brut.
+     *
+     * @return clé, ou null si l’identifiant ne correspond à aucune clé
+     */
+    private static FieldKey cle(String identifiant) {
+        if (identifiant == null) return null;
+        try {
+            return FieldKey.valueOf(identifiant);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Lit un champ texte depuis un tag ID3.
      *
@@ -143,6 +299,18 @@ public class LibraryMetadataExtractor implements MetadataExtractor {
         }
     }
 
+    /**
+     * Lit le genre, les genres ID3v1 numériques ("17", "(17)") étant traduits
+     * comme le fait {@link NativeId3MetadataExtractor}.
+     *
+     * @param tag tag ID3
+     * @return genre lisible ou null
+     */
+    private String lireGenre(Tag tag) {
+        String genre = lireChamp(tag, FieldKey.GENRE);
+        return genre == null ? null : genres.normaliser(genre);
+    }
+
     /**
      * Lit un champ numérique depuis un tag ID3.
      *
@@ -162,27 +330,128 @@ public class LibraryMetadataExtractor implements MetadataExtractor {
     }
 
     /**
-     * Extrait la pochette intégrée au fichier audio.
+     * Décrit la pochette intégrée au fichier audio sans en copier les octets.
+     *
+     * Pour un tag ID3v2.3 / ID3v2.4, l'image est repérée directement dans le fichier :
+     * la pochette retournée pointe sur cette zone et son empreinte est calculée par blocs.
+     * Pour les autres formats, elle relit le tag via l'adaptateur quand l'image est demandée.
      *
      * @param tag tag ID3
+     * @param chemin fichier audio
      * @return image de pochette ou null
      */
-    private CoverImage extrairePochette(Tag tag) {
+    private CoverImage extrairePochette(Tag tag, Path chemin) {
         try {
+            CoverImage locale = pochetteLocalisee(chemin);
+            if (locale != null) return locale;
+
             Artwork art = tag.getFirstArtwork();
             if (art == null) return null;
 
             byte[] data = art.getBinaryData();
             if (data == null || data.length == 0) return null;
 
-            return new CoverImage(
-                    data,
+            PochetteTag source = new PochetteTag(adaptateur, chemin, data.length);
+
+            // jaudiotagger ne renseigne les dimensions que pour certains formats (FLAC)
+            DimensionsImage dimensions = (art.getWidth() > 0 && art.getHeight() > 0)
+                    ? null : DimensionsImage.lire(data, 0, data.length);
+            int largeur = dimensions != null ? dimensions.largeur : art.getWidth();
+            int hauteur = dimensions != null ? dimensions.hauteur : art.getHeight();
+
+            if (magasin == null) {
+                return new CoverImage(source, art.getMimeType(), largeur, hauteur);
+            }
+
+            // Une seule instance par image distincte : les pistes d'un album la partagent
+            String empreinte = magasin.empreinte(data, 0, data.length);
+            return magasin.partager(empreinte, source, () -> new CoverImage(
+                    source,
                     art.getMimeType(),
-                    art.getWidth(),
-                    art.getHeight()
-            );
+                    largeur,
+                    hauteur,
+                    empreinte
+            ));
         } catch (Exception e) {
             return null;
         }
     }
+
+    /**
+     * Repère la première image du tag ID3v2 directement dans le fichier.
+     *
+     * @return pochette paresseuse sur la zone de l'image, ou null si elle ne peut pas être repérée ainsi
+     */
+    private CoverImage pochetteLocalisee(Path chemin) throws IOException {
+        try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            LocalisateurPochette.Emplacement image = localisateur.localiser(canal);
+            if (image == null || image.longueur == 0) return null;
+
+            long tailleFichier = canal.size();
+            long dateModification = Files.getLastModifiedTime(chemin).toMillis();
+            PochetteFichier source = new PochetteFichier(chemin, image.position, image.longueur,
+                    tailleFichier, dateModification);
+
+            DimensionsImage dimensions = DimensionsImage.lire(canal, image.position, image.longueur);
+            int largeur = dimensions != null ? dimensions.largeur : 0;
+            int hauteur = dimensions != null ? dimensions.hauteur : 0;
+
+            if (magasin == null) {
+                return new CoverImage(source, image.typeMime, largeur, hauteur);
+            }
+            String empreinte = magasin.empreinte(canal, image.position, image.longueur);
+            return magasin.partager(empreinte, source,
+                    () -> new CoverImage(source, image.typeMime, largeur, hauteur, empreinte));
+        }
+    }
+
+    /**
+     * Pochette relue à la demande depuis le tag du fichier, via la bibliothèque externe.
+     */
+    private static class PochetteTag implements SourcePochette {
+
+        private final ExternalId3LibraryAdapter adaptateur;
+        private final Path chemin;
+        private final long taille;
+
+        PochetteTag(ExternalId3LibraryAdapter adaptateur, Path chemin, long taille) {
+            this.adaptateur = adaptateur;
+            this.chemin = chemin;
+            this.taille = taille;
+        }
+
+        @Override
+        public byte[] charger() throws IOException {
+            try {
+                Tag tag = adaptateur.lireTagsBruts(chemin).getTag();
+                Artwork art = (tag != null) ? tag.getFirstArtwork() : null;
+                if (art == null || art.getBinaryData() == null) {
+                    throw new IOException("Pochette introuvable : " + chemin);
+                }
+                return art.getBinaryData();
+            } catch (MetadataException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public long getTaille() {
+            return taille;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PochetteTag)) return false;
+            PochetteTag autre = (PochetteTag) o;
+            return adaptateur == autre.adaptateur
+                    && taille == autre.taille
+                    && chemin.equals(autre.chemin);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(chemin, taille);
+        }
+    }
 }
@@ -0,0 +1,158 @@
+package services.MetadonneesExtractor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Repère la première trame APIC d'un tag ID3v2.3 / ID3v2.4 sans en lire l'image.
+ *
+ * Seuls l'en-tête du tag, les en-têtes de trames et le début de la trame APIC
+ * (type MIME, description) sont lus ; les corps des autres trames sont sautés.
+ * Le résultat permet de décrire une pochette paresseuse ({@link PochetteFichier})
+ * sans copier les octets de l'image.
+ *
+ * Un tag désynchronisé, une trame APIC compressée ou chiffrée, ou tout autre
+ * format (ID3v2.2, FLAC...) donne null : l'appelant se rabat alors sur la bibliothèque externe.
+ */
+class LocalisateurPochette {
+
+    /** Longueur maximale lue pour décoder l'en-tête d'une trame APIC. */
+    private static final int TAILLE_MAX_ENTETE_APIC = 4096;
+
+    /**
+     * Emplacement d'une image dans le fichier.
+     */
+    static class Emplacement {
+
+        final long position;
+        final int longueur;
+        final String typeMime;
+
+        Emplacement(long position, int longueur, String typeMime) {
+            this.position = position;
+            this.longueur = longueur;
+            this.typeMime = typeMime;
+        }
+    }
+
+    /**
+     * Cherche la première image du tag ID3v2 en tête de fichier.
+     *
+     * @param canal fichier audio ouvert en lecture
+     * @return emplacement de l'image, ou null si elle ne peut pas être repérée ainsi
+     * @throws IOException en cas d'erreur de lecture
+     */
+    Emplacement localiser(FileChannel canal) throws IOException {
+        byte[] entete = lire(canal, 0, 10);
+        if (entete.length < 10 || entete[0] != 'I' || entete[1] != 'D' || entete[2] != '3') {
+            return null;
+        }
+
+        int version = entete[3] & 0xFF;
+        int drapeaux = entete[5] & 0xFF;
+        if ((version != 3 && version != 4) || (drapeaux & 0x80) != 0) {
+            return null;
+        }
+
+        long fin = 10L + entierSynchsafe(entete, 6);
+        long position = 10;
+
+        if ((drapeaux & 0x40) != 0) {
+            // En-tête étendu : taille hors champ en v2.3, incluse en v2.4
+            byte[] etendu = lire(canal, position, 4);
+            if (etendu.length < 4) {
+                return null;
+            }
+            position += (version == 3) ? entier32(etendu, 0) + 4L : entierSynchsafe(etendu, 0);
+            if (position < 10 || position > fin) {
+                return null;
+            }
+        }
+
+        while (position + 10 <= fin) {
+            byte[] trame = lire(canal, position, 10);
+            if (trame.length < 10 || trame[0] == 0) {
+                return null; // remplissage : aucune image
+            }
+
+            int taille = (version == 4) ? entierSynchsafe(trame, 4) : entier32(trame, 4);
+            long debut = position + 10;
+            if (taille < 0 || debut + taille > fin) {
+                return null;
+            }
+
+            if (trame[0] == 'A' && trame[1] == 'P' && trame[2] == 'I' && trame[3] == 'C') {
+                int interdits = (version == 4) ? 0x4F : 0xE0;
+                if ((trame[9] & interdits) != 0) {
+                    return null;
+                }
+                return lireApic(canal, debut, taille);
+            }
+
+            position = debut + taille;
+        }
+        return null;
+    }
+
+    /**
+     * Décode l'en-tête d'une trame APIC (encodage, type MIME, type d'image, description).
+     */
+    private Emplacement lireApic(FileChannel canal, long debut, int taille) throws IOException {
+        byte[] apic = lire(canal, debut, Math.min(taille, TAILLE_MAX_ENTETE_APIC));
+        if (apic.length < 4) {
+            return null;
+        }
+
+        int codeEncodage = apic[0] & 0xFF;
+        int position = 1;
+
+        int finMime = position;
+        while (finMime < apic.length && apic[finMime] != 0) finMime++;
+        String mime = new String(apic, position, finMime - position, StandardCharsets.ISO_8859_1);
+        position = finMime + 2; // nul du type MIME puis type d'image
+
+        boolean large = codeEncodage == 1 || codeEncodage == 2;
+        boolean termine = false;
+        while (position < apic.length && !termine) {
+            if (large) {
+                termine = position + 1 < apic.length && apic[position] == 0 && apic[position + 1] == 0;
+                position += 2;
+            } else {
+                termine = apic[position] == 0;
+                position++;
+            }
+        }
+
+        if (!termine || position >= taille) {
+            return null;
+        }
+        return new Emplacement(debut + position, taille - position, mime.isEmpty() ? null : mime);
+    }
+
+    private int entierSynchsafe(byte[] o, int p) {
+        return ((o[p] & 0x7F) << 21) | ((o[p + 1] & 0x7F) << 14)
+                | ((o[p + 2] & 0x7F) << 7) | (o[p + 3] & 0x7F);
+    }
+
+    private int entier32(byte[] o, int p) {
+        return ((o[p] & 0xFF) << 24) | ((o[p + 1] & 0xFF) << 16)
+                | ((o[p + 2] & 0xFF) << 8) | (o[p + 3] & 0xFF);
+    }
+
+    /**
+     * Lit au plus {@code longueur} octets à une position donnée (moins si la fin du fichier est atteinte).
+     */
+    private byte[] lire(FileChannel canal, long position, int longueur) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(longueur);
+        while (tampon.hasRemaining()) {
+            if (canal.read(tampon, position + tampon.position()) < 0) {
+                break;
+            }
+        }
+        byte[] octets = new byte[tampon.position()];
+        tampon.flip().get(octets);
+        return octets;
+    }
+}
@@ -0,0 +1,194 @@
+package services.MetadonneesExtractor;
+
+import modele.metadonnees.CoverImage;
+import modele.metadonnees.SourcePochette;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Magasin de pochettes adressé par contenu.
+ *
+ * Les pistes d'un même album intègrent en général la même image : le magasin
+ * identifie chaque image par l'empreinte SHA-256 de ses octets et fait partager
+ * une unique instance de {@link CoverImage} à toutes les pistes qui la contiennent.
+ *
+ * Les instances ne sont retenues que par des références faibles : une image
+ * qui n'est plus référencée par aucune métadonnée disparaît du magasin.
+ * L'empreinte sert aussi de clé stable (par exemple pour mettre en cache des vignettes).
+ *
+ * Chaque piste qui retrouve une image déjà connue y ajoute son propre emplacement :
+ * l'instance partagée reste lisible tant qu'une des pistes contient encore l'image,
+ * même si le fichier qui l'a fournie en premier est modifié ou supprimé.
+ *
+ * Le magasin peut être partagé entre plusieurs extracteurs et plusieurs threads.
+ */
+public class MagasinPochettes {
+
+    /** Pochettes vivantes indexées par empreinte. */
+    private final Map<String, RefPochette> pochettes = new HashMap<>();
+
+    /** File des références libérées par le ramasse-miettes. */
+    private final ReferenceQueue<CoverImage> liberees = new ReferenceQueue<>();
+
+    private long partages;
+
+    /**
+     * Calcule l'empreinte (SHA-256, en hexadécimal) d'une zone d'octets.
+     *
+     * @param octets tampon contenant l'image
+     * @param debut position du premier octet de l'image
+     * @param longueur longueur de l'image
+     * @return empreinte hexadécimale
+     */
+    public String empreinte(byte[] octets, int debut, int longueur) {
+        if (octets == null) {
+            throw new IllegalArgumentException("Les octets ne doivent pas être nuls.");
+        }
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(octets, debut, longueur);
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 est toujours disponible sur la plateforme Java
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Calcule l'empreinte (SHA-256, en hexadécimal) d'une zone d'un fichier,
+     * par blocs de 64 Ko : l'image n'est jamais chargée en entier.
+     *
+     * @param canal fichier contenant l'image
+     * @param position position du premier octet de l'image
+     * @param longueur longueur de l'image
+     * @return empreinte hexadécimale
+     * @throws IOException si la zone ne peut pas être lue en entier
+     */
+    public String empreinte(FileChannel canal, long position, long longueur) throws IOException {
+        if (canal == null) {
+            throw new IllegalArgumentException("Le canal ne doit pas être nul.");
+        }
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ByteBuffer tampon = ByteBuffer.allocate((int) Math.min(longueur, 64 * 1024));
+        long lus = 0;
+        while (lus < longueur) {
+            tampon.clear().limit((int) Math.min(tampon.capacity(), longueur - lus));
+            int n = canal.read(tampon, position + lus);
+            if (n < 0) {
+                throw new IOException("Image tronquée");
+            }
+            tampon.flip();
+            sha.update(tampon);
+            lus += n;
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    /**
+     * Retourne la pochette partagée pour une empreinte, en la créant si aucune
+     * instance vivante n'existe encore.
+     *
+     * @param empreinte empreinte du contenu de l'image (non nulle)
+     * @param creation fabrique appelée uniquement si l'image n'est pas encore connue
+     * @return instance partagée
+     */
+    public CoverImage partager(String empreinte, Supplier<CoverImage> creation) {
+        return partager(empreinte, null, creation);
+    }
+
+    /**
+     * Retourne la pochette partagée pour une empreinte, en la créant si aucune
+     * instance vivante n'existe encore. Si l'image est déjà connue, l'emplacement
+     * du demandeur lui est ajouté comme source de secours.
+     *
+     * @param empreinte empreinte du contenu de l'image (non nulle)
+     * @param source emplacement de l'image chez le demandeur (peut être null)
+     * @param creation fabrique appelée uniquement si l'image n'est pas encore connue
+     * @return instance partagée
+     */
+    public synchronized CoverImage partager(String empreinte, SourcePochette source,
+                                            Supplier<CoverImage> creation) {
+        if (empreinte == null) {
+            throw new IllegalArgumentException("L'empreinte ne doit pas être nulle.");
+        }
+        if (creation == null) {
+            throw new IllegalArgumentException("La fabrique de pochette ne doit pas être nulle.");
+        }
+        purger();
+
+        RefPochette ref = pochettes.get(empreinte);
+        CoverImage existante = (ref != null) ? ref.get() : null;
+        if (existante != null) {
+            existante.ajouterSource(source);
+            partages++;
+            return existante;
+        }
+
+        CoverImage nouvelle = creation.get();
+        if (nouvelle != null) {
+            pochettes.put(empreinte, new RefPochette(empreinte, nouvelle, liberees));
+        }
+        return nouvelle;
+    }
+
+    /**
+     * Retourne le nombre d'images distinctes encore référencées.
+     *
+     * @return nombre de pochettes vivantes
+     */
+    public synchronized int taille() {
+        purger();
+        return pochettes.size();
+    }
+
+    /**
+     * Retourne le nombre de fois où une pochette existante a été réutilisée.
+     *
+     * @return nombre de partages
+     */
+    public synchronized long getPartages() {
+        return partages;
+    }
+
+    /**
+     * Retire les entrées dont la pochette a été libérée.
+     */
+    private void purger() {
+        RefPochette ref;
+        while ((ref = (RefPochette) liberees.poll()) != null) {
+            // Une nouvelle instance a pu remplacer l'ancienne sous la même empreinte
+            if (pochettes.get(ref.empreinte) == ref) {
+                pochettes.remove(ref.empreinte);
+            }
+        }
+    }
+
+    /**
+     * Référence faible mémorisant son empreinte, pour la purge.
+     */
+    private static class RefPochette extends WeakReference<CoverImage> {
+
+        final String empreinte;
+
+        RefPochette(String empreinte, CoverImage pochette, ReferenceQueue<CoverImage> file) {
+            super(pochette, file);
+            this.empreinte = empreinte;
+        }
+    }
+}
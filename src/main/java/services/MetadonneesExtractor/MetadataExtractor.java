@@ -1,8 +1,10 @@
 package services.MetadonneesExtractor;
 import modele.metadonnees.ID3TagSet;
+import modele.metadonnees.Id3Tag;
 import modele.metadonnees.Metadata;
 
 import java.nio.file.Path;
+import java.util.Set;
 
 /**
  * Cette class  d'extraction des métadonnées à partir d'un fichier audio.
@@ -27,4 +29,60 @@ public interface MetadataExtractor {
      * @throws MetadataException en cas d'erreur d'extraction
      */
     ID3TagSet extraireTagsBruts(Path chemin) throws MetadataException;
+
+    /**
+     * Extrait uniquement les tags bruts demandés (projection), désignés par leur
+     * identifiant ({@link Id3Tag#getId()}, par exemple "TITLE" ou "ARTIST").
+     * Par défaut, tous les tags sont extraits puis filtrés ; une implémentation
+     * peut n'interroger que les clés demandées.
+     *
+     * @param chemin chemin du fichier audio
+     * @param identifiants identifiants des tags souhaités (non nul)
+     * @return tags demandés présents dans le fichier
+     * @throws MetadataException en cas d'erreur d'extraction
+     */
+    default ID3TagSet extraireTagsBruts(Path chemin, Set<String> identifiants) throws MetadataException {
+        if (identifiants == null) {
+            throw new IllegalArgumentException("Les tags demandés ne doivent pas être nuls.");
+        }
+        ID3TagSet tous = extraireTagsBruts(chemin);
+        ID3TagSet resultat = new ID3TagSet();
+        for (String identifiant : identifiants) {
+            Id3Tag tag = tous.obtenir(identifiant);
+            if (tag != null) {
+                resultat.ajouter(tag);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Extrait uniquement les champs demandés (projection).
+     * Les champs non demandés gardent leur valeur par défaut ; une implémentation
+     * peut toutefois en renseigner davantage. Par défaut, l'extraction est complète.
+     *
+     * @param chemin chemin du fichier audio
+     * @param champs champs souhaités (non nul)
+     * @return métadonnées contenant au moins les champs demandés
+     * @throws MetadataException en cas d'erreur d'extraction
+     */
+    default Metadata extraire(Path chemin, Set<ChampMetadata> champs) throws MetadataException {
+        if (champs == null) {
+            throw new IllegalArgumentException("Les champs demandés ne doivent pas être nuls.");
+        }
+        return extraire(chemin);
+    }
+
+    /**
+     * Extrait à la fois les métadonnées et les tags bruts d'un fichier.
+     * Par défaut, les deux extractions sont faites l'une après l'autre ;
+     * les implémentations capables de tout obtenir en une seule lecture la redéfinissent.
+     *
+     * @param chemin chemin du fichier audio
+     * @return métadonnées et tags bruts
+     * @throws MetadataException en cas d'erreur d'extraction
+     */
+    default MetadonneesEtTags extraireTout(Path chemin) throws MetadataException {
+        return new MetadonneesEtTags(extraire(chemin), extraireTagsBruts(chemin));
+    }
 }
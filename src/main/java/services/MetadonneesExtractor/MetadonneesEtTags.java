@@ -0,0 +1,35 @@
+package services.MetadonneesExtractor;
+
+import modele.metadonnees.ID3TagSet;
+import modele.metadonnees.Metadata;
+
+/**
+ * Résultat d'une extraction complète : métadonnées métier et tags bruts ID3
+ * d'un même fichier, obtenus à partir d'une seule lecture.
+ */
+public class MetadonneesEtTags {
+
+    private final Metadata metadata;
+    private final ID3TagSet tags;
+
+    /**
+     * Construit le résultat d'une extraction complète.
+     *
+     * @param metadata métadonnées métier
+     * @param tags tags bruts ID3
+     */
+    public MetadonneesEtTags(Metadata metadata, ID3TagSet tags) {
+        this.metadata = metadata;
+        this.tags = tags;
+    }
+
+    /** Retourne les métadonnées métier. */
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    /** Retourne les tags bruts ID3. */
+    public ID3TagSet getTags() {
+        return tags;
+    }
+}
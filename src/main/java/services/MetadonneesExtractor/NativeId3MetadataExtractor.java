@@ -0,0 +1,505 @@
+package services.MetadonneesExtractor;
+
+import modele.metadonnees.CoverImage;
+import modele.metadonnees.ID3TagSet;
+import modele.metadonnees.Metadata;
+import modele.metadonnees.MetadataBuilder;
+import services.mime.MimeChecker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Extracteur de métadonnées rapide lisant directement les tags ID3.
+ *
+ * Seuls l'en-tête et les trames ID3v2.3 / ID3v2.4, le bloc ID3v1 de 128 octets
+ * et la première trame MPEG sont lus, par quelques lectures bornées via un {@link FileChannel} :
+ * aucune structure jaudiotagger n'est construite et le flux audio n'est pas parcouru.
+ * La durée et le débit sont déterminés par {@link AnalyseurAudioMpeg}
+ * (en-têtes Xing / Info / VBRI, y compris pour les fichiers à débit variable).
+ *
+ * Les métadonnées produites sont celles de {@link LibraryMetadataExtractor} :
+ * même nettoyage des textes, genres ID3v1 numériques traduits par {@link GenresId3},
+ * dimensions de la pochette lues dans l'en-tête de l'image ({@link DimensionsImage}).
+ *
+ * Dès qu'une caractéristique non prise en charge est rencontrée (ID3v2.2,
+ * désynchronisation, trames compressées ou chiffrées...),
+ * l'extraction est confiée à l'extracteur de repli (en général {@link LibraryMetadataExtractor}).
+ *
+ * @version 1.0
+ */
+public class NativeId3MetadataExtractor implements MetadataExtractor {
+
+    /** Taille maximale d'un tag ID3v2 lu par le chemin rapide (16 Mo). */
+    public static final int TAILLE_MAX_TAG = 16 * 1024 * 1024;
+
+    private MimeChecker mimeChecker;
+    private MetadataExtractor repli;
+    private GenresId3 genres;
+    private MagasinPochettes magasin;
+    private AnalyseurAudioMpeg analyseur;
+
+    /** Projection complète, utilisée par {@link #extraire(Path)}. */
+    private static final Set<ChampMetadata> TOUS_LES_CHAMPS =
+            Collections.unmodifiableSet(ChampMetadata.tous());
+
+    /**
+     * Construit un extracteur rapide.
+     *
+     * @param mimeChecker service de vérification du type MIME
+     * @param repli extracteur utilisé pour les fichiers non pris en charge
+     */
+    public NativeId3MetadataExtractor(MimeChecker mimeChecker, MetadataExtractor repli) {
+        this(mimeChecker, repli, null);
+    }
+
+    /**
+     * Construit un extracteur rapide dont les pochettes identiques sont partagées.
+     *
+     * @param mimeChecker service de vérification du type MIME
+     * @param repli extracteur utilisé pour les fichiers non pris en charge
+     * @param magasin magasin de pochettes (null pour ne pas dédupliquer)
+     */
+    public NativeId3MetadataExtractor(MimeChecker mimeChecker, MetadataExtractor repli,
+                                      MagasinPochettes magasin) {
+        if (mimeChecker == null) throw new IllegalArgumentException("MimeChecker nul");
+        if (repli == null) throw new IllegalArgumentException("Extracteur de repli nul");
+
+        this.mimeChecker = mimeChecker;
+        this.repli = repli;
+        this.genres = new GenresId3();
+        this.magasin = magasin;
+        this.analyseur = new AnalyseurAudioMpeg();
+    }
+
+    /**
+     * Extrait les métadonnées par le chemin rapide, ou via l'extracteur de repli
+     * si le fichier utilise une caractéristique non prise en charge.
+     *
+     * @param chemin chemin du fichier audio
+     * @return métadonnées extraites
+     * @throws MetadataException si le fichier n’est pas audio ou en cas d’erreur
+     */
+    @Override
+    public Metadata extraire(Path chemin) throws MetadataException {
+        return extraire(chemin, TOUS_LES_CHAMPS);
+    }
+
+    /**
+     * Extrait uniquement les champs demandés : le corps du tag n'est lu que si un champ
+     * textuel ou la pochette est demandé, et la première trame MPEG seulement pour
+     * la durée ou les informations techniques.
+     *
+     * @param chemin chemin du fichier audio
+     * @param champs champs souhaités
+     * @return métadonnées extraites
+     * @throws MetadataException si le fichier n’est pas audio ou en cas d’erreur
+     */
+    @Override
+    public Metadata extraire(Path chemin, Set<ChampMetadata> champs) throws MetadataException {
+        if (chemin == null)
+            throw new IllegalArgumentException("Chemin nul");
+        if (champs == null)
+            throw new IllegalArgumentException("Champs nuls");
+
+        if (!mimeChecker.estAudio(chemin))
+            throw new MetadataException("Fichier non audio : " + chemin);
+
+        try {
+            return lireRapide(chemin, champs);
+        } catch (NonPrisEnCharge | IOException e) {
+            return repli.extraire(chemin, champs);
+        }
+    }
+
+    /**
+     * Les tags bruts sont nommés selon les clés jaudiotagger :
+     * ils sont toujours lus par l'extracteur de repli.
+     */
+    @Override
+    public ID3TagSet extraireTagsBruts(Path chemin) throws MetadataException {
+        return repli.extraireTagsBruts(chemin);
+    }
+
+    @Override
+    public ID3TagSet extraireTagsBruts(Path chemin, Set<String> identifiants) throws MetadataException {
+        return repli.extraireTagsBruts(chemin, identifiants);
+    }
+
+    /**
+     * Les tags bruts exigent une lecture par l'extracteur de repli :
+     * celui-ci produit aussi les métadonnées au cours de la même lecture.
+     */
+    @Override
+    public MetadonneesEtTags extraireTout(Path chemin) throws MetadataException {
+        return repli.extraireTout(chemin);
+    }
+
+    /**
+     * Chemin rapide : tag ID3v2 (ou ID3v1 à défaut) puis première trame MPEG,
+     * chaque partie n'étant lue que si la projection en a besoin.
+     */
+    private Metadata lireRapide(Path chemin, Set<ChampMetadata> champs) throws IOException, NonPrisEnCharge {
+        boolean avecTag = ChampMetadata.demandeTag(champs);
+        boolean avecAudio = champs.contains(ChampMetadata.DUREE) || champs.contains(ChampMetadata.TECHNIQUE);
+
+        try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            long tailleFichier = canal.size();
+            long dateModification = Files.getLastModifiedTime(chemin).toMillis();
+            MetadataBuilder builder = new MetadataBuilder();
+
+            long debutAudio = 0;
+            boolean tagV2 = false;
+
+            byte[] entete = lire(canal, 0, 10);
+            if (entete.length == 10 && entete[0] == 'I' && entete[1] == 'D' && entete[2] == '3') {
+                int version = entete[3] & 0xFF;
+                int drapeaux = entete[5] & 0xFF;
+
+                if (version != 3 && version != 4) {
+                    throw new NonPrisEnCharge("ID3v2." + version);
+                }
+                if ((drapeaux & 0x80) != 0) {
+                    throw new NonPrisEnCharge("désynchronisation");
+                }
+
+                int taille = entierSynchsafe(entete, 6);
+                if (taille < 0 || taille > TAILLE_MAX_TAG) {
+                    throw new NonPrisEnCharge("taille de tag");
+                }
+
+                if (avecTag) {
+                    byte[] tag = lire(canal, 10, taille);
+                    if (tag.length < taille) {
+                        throw new NonPrisEnCharge("tag tronqué");
+                    }
+
+                    int position = 0;
+                    if ((drapeaux & 0x40) != 0) {
+                        if (tag.length < 4) {
+                            throw new NonPrisEnCharge("en-tête étendu tronqué");
+                        }
+                        // En-tête étendu : taille hors champ en v2.3, incluse en v2.4
+                        position = (version == 3) ? entier32(tag, 0) + 4 : entierSynchsafe(tag, 0);
+                        if (position < 0 || position > tag.length) {
+                            throw new NonPrisEnCharge("taille d'en-tête étendu");
+                        }
+                    }
+
+                    lireTrames(tag, position, version, champs, builder, chemin, tailleFichier, dateModification);
+                }
+
+                boolean pied = version == 4 && (drapeaux & 0x10) != 0;
+                debutAudio = 10L + taille + (pied ? 10 : 0);
+                tagV2 = true;
+            }
+
+            boolean tagV1 = false;
+            boolean besoinV1 = (avecTag && !tagV2) || avecAudio;
+            if (besoinV1 && tailleFichier >= 128) {
+                byte[] v1 = lire(canal, tailleFichier - 128, 128);
+                if (v1.length == 128 && v1[0] == 'T' && v1[1] == 'A' && v1[2] == 'G') {
+                    tagV1 = true;
+                    if (!tagV2) {
+                        lireId3v1(v1, builder);
+                    }
+                }
+            }
+
+            if (!avecAudio) {
+                return builder.construire();
+            }
+
+            long finAudio = tailleFichier - (tagV1 ? 128 : 0);
+            InfosAudioMpeg audio = analyseur.analyser(canal, Math.min(debutAudio, finAudio), finAudio);
+            if (audio == null) {
+                throw new NonPrisEnCharge("aucune trame MPEG");
+            }
+
+            if (champs.contains(ChampMetadata.DUREE)) {
+                builder.avecDureeSecondes(audio.getDureeSecondes());
+            }
+            if (champs.contains(ChampMetadata.TECHNIQUE)) {
+                EnTeteMpeg trame = audio.getPremiereTrame();
+                builder.avecBitrate(audio.getDebitMoyenKbps())
+                        .avecSampleRate(trame.getFrequenceHz())
+                        .avecChannels(trame.getLibelleCanaux())
+                        .avecFormat(trame.getLibelleEncodage())
+                        .avecEncodingType(trame.getLibelleEncodage());
+            }
+
+            return builder.construire();
+        }
+    }
+
+    /**
+     * Parcourt les trames ID3v2 et renseigne les champs connus du builder.
+     * Seule la première occurrence de chaque champ est retenue.
+     * La taille et la date du fichier servent à créer la pochette paresseuse.
+     */
+    private void lireTrames(byte[] tag, int position, int version, Set<ChampMetadata> champs,
+                            MetadataBuilder builder, Path chemin, long tailleFichier, long dateModification)
+            throws NonPrisEnCharge {
+
+        String titre = null, artiste = null, album = null, genre = null;
+        String annee = null, piste = null;
+        CoverImage pochette = null;
+
+        while (position + 10 <= tag.length) {
+            if (tag[position] == 0) {
+                break; // remplissage
+            }
+
+            String id = new String(tag, position, 4, StandardCharsets.ISO_8859_1);
+            if (!estIdentifiantTrame(id)) {
+                throw new NonPrisEnCharge("trame invalide");
+            }
+
+            int taille = (version == 4) ? entierSynchsafe(tag, position + 4) : entier32(tag, position + 4);
+            int drapeaux = tag[position + 9] & 0xFF;
+            int debut = position + 10;
+
+            if (taille < 0 || debut + taille > tag.length) {
+                throw new NonPrisEnCharge("taille de trame");
+            }
+
+            ChampMetadata champ = champTrame(id);
+
+            if (champ != null && champs.contains(champ)) {
+                int interdits = (version == 4) ? 0x4F : 0xE0;
+                if ((drapeaux & interdits) != 0) {
+                    throw new NonPrisEnCharge("trame compressée ou chiffrée");
+                }
+
+                switch (id) {
+                    case "TIT2": if (titre == null) titre = lireTexte(tag, debut, taille); break;
+                    case "TPE1": if (artiste == null) artiste = lireTexte(tag, debut, taille); break;
+                    case "TALB": if (album == null) album = lireTexte(tag, debut, taille); break;
+                    case "TCON": if (genre == null) genre = lireTexte(tag, debut, taille); break;
+                    case "TYER":
+                    case "TDRC": if (annee == null) annee = lireTexte(tag, debut, taille); break;
+                    case "TRCK": if (piste == null) piste = lireTexte(tag, debut, taille); break;
+                    case "APIC":
+                        if (pochette == null) {
+                            pochette = lirePochette(tag, debut, taille, chemin, tailleFichier, dateModification);
+                        }
+                        break;
+                    default: break;
+                }
+            }
+
+            position = debut + taille;
+        }
+
+        builder.avecTitre(nettoyer(titre))
+                .avecArtiste(nettoyer(artiste))
+                .avecAlbum(nettoyer(album))
+                .avecGenre(nettoyer(genres.normaliser(nettoyer(genre))))
+                .avecAnnee(entier(nettoyer(annee)))
+                .avecNumeroPiste(entier(nettoyer(numeroSeul(piste))));
+
+        if (pochette != null && !pochette.estVide()) {
+            builder.avecPochette(pochette);
+        }
+    }
+
+    /**
+     * Retourne le champ renseigné par une trame ID3v2, ou null si la trame n'est pas exploitée.
+     */
+    private ChampMetadata champTrame(String id) {
+        switch (id) {
+            case "TIT2": return ChampMetadata.TITRE;
+            case "TPE1": return ChampMetadata.ARTISTE;
+            case "TALB": return ChampMetadata.ALBUM;
+            case "TCON": return ChampMetadata.GENRE;
+            case "TYER":
+            case "TDRC": return ChampMetadata.ANNEE;
+            case "TRCK": return ChampMetadata.NUMERO_PISTE;
+            case "APIC": return ChampMetadata.POCHETTE;
+            default: return null;
+        }
+    }
+
+    /**
+     * Lit le bloc ID3v1 (ou v1.1 avec numéro de piste) de fin de fichier.
+     */
+    private void lireId3v1(byte[] v1, MetadataBuilder builder) {
+        builder.avecTitre(nettoyer(latin1(v1, 3, 30)))
+                .avecArtiste(nettoyer(latin1(v1, 33, 30)))
+                .avecAlbum(nettoyer(latin1(v1, 63, 30)))
+                .avecAnnee(entier(nettoyer(latin1(v1, 93, 4))))
+                .avecGenre(genres.libelle(v1[127] & 0xFF));
+
+        if (v1[125] == 0 && v1[126] != 0) {
+            builder.avecNumeroPiste(v1[126] & 0xFF);
+        }
+    }
+
+    /**
+     * Décode une trame texte : octet d'encodage puis valeur ; seule la première
+     * valeur (avant le premier caractère nul) est retenue.
+     */
+    private String lireTexte(byte[] tag, int debut, int taille) {
+        if (taille < 1) {
+            return null;
+        }
+        String texte = new String(tag, debut + 1, taille - 1, encodage(tag[debut]));
+        int nul = texte.indexOf('\0');
+        return (nul >= 0) ? texte.substring(0, nul) : texte;
+    }
+
+    /**
+     * Décode l'en-tête d'une trame APIC (encodage, type MIME, type d'image, description)
+     * et retourne une pochette paresseuse pointant sur les données de l'image dans le fichier :
+     * les octets de l'image ne sont pas copiés.
+     */
+    private CoverImage lirePochette(byte[] tag, int debut, int taille,
+                                    Path chemin, long tailleFichier, long dateModification) {
+        int fin = debut + taille;
+        if (taille < 4) {
+            return null;
+        }
+
+        int codeEncodage = tag[debut] & 0xFF;
+        int position = debut + 1;
+
+        int finMime = position;
+        while (finMime < fin && tag[finMime] != 0) finMime++;
+        String mime = new String(tag, position, finMime - position, StandardCharsets.ISO_8859_1);
+        position = finMime + 1;
+
+        position++; // type d'image
+
+        boolean large = codeEncodage == 1 || codeEncodage == 2;
+        while (position < fin) {
+            if (large) {
+                if (position + 1 < fin && tag[position] == 0 && tag[position + 1] == 0) {
+                    position += 2;
+                    break;
+                }
+                position += 2;
+            } else {
+                if (tag[position] == 0) {
+                    position++;
+                    break;
+                }
+                position++;
+            }
+        }
+
+        if (position >= fin) {
+            return null;
+        }
+
+        // Le tag est lu à partir de l'octet 10 du fichier, sans désynchronisation
+        PochetteFichier source = new PochetteFichier(chemin, 10L + position, fin - position,
+                tailleFichier, dateModification);
+        String typeMime = mime.isEmpty() ? null : mime;
+        DimensionsImage dimensions = DimensionsImage.lire(tag, position, fin - position);
+        int largeur = dimensions != null ? dimensions.largeur : 0;
+        int hauteur = dimensions != null ? dimensions.hauteur : 0;
+
+        if (magasin == null) {
+            return new CoverImage(source, typeMime, largeur, hauteur);
+        }
+        String empreinte = magasin.empreinte(tag, position, fin - position);
+        return magasin.partager(empreinte, source,
+                () -> new CoverImage(source, typeMime, largeur, hauteur, empreinte));
+    }
+
+    private Charset encodage(byte code) {
+        switch (code) {
+            case 1: return StandardCharsets.UTF_16;
+            case 2: return StandardCharsets.UTF_16BE;
+            case 3: return StandardCharsets.UTF_8;
+            default: return StandardCharsets.ISO_8859_1;
+        }
+    }
+
+    /** Même normalisation que {@link LibraryMetadataExtractor} : trim, vide → null. */
+    private String nettoyer(String val) {
+        if (val == null) return null;
+        val = val.trim();
+        return val.isEmpty() ? null : val;
+    }
+
+    /** Même conversion numérique que {@link LibraryMetadataExtractor}. */
+    private int entier(String txt) {
+        if (txt == null) return 0;
+
+        try {
+            return Integer.parseInt(txt.replaceAll("[^0-9]", ""));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /** "3/12" → "3" : seul le numéro de piste est conservé. */
+    private String numeroSeul(String piste) {
+        if (piste == null) return null;
+        int barre = piste.indexOf('/');
+        return (barre >= 0) ? piste.substring(0, barre) : piste;
+    }
+
+    private String latin1(byte[] octets, int debut, int longueur) {
+        int fin = debut;
+        while (fin < debut + longueur && octets[fin] != 0) fin++;
+        return new String(octets, debut, fin - debut, StandardCharsets.ISO_8859_1);
+    }
+
+    private boolean estIdentifiantTrame(String id) {
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int entierSynchsafe(byte[] o, int p) {
+        return ((o[p] & 0x7F) << 21) | ((o[p + 1] & 0x7F) << 14)
+                | ((o[p + 2] & 0x7F) << 7) | (o[p + 3] & 0x7F);
+    }
+
+    private int entier32(byte[] o, int p) {
+        return ((o[p] & 0xFF) << 24) | ((o[p + 1] & 0xFF) << 16)
+                | ((o[p + 2] & 0xFF) << 8) | (o[p + 3] & 0xFF);
+    }
+
+    /**
+     * Lit au plus {@code longueur} octets à une position donnée (moins si la fin du fichier est atteinte).
+     */
+    private byte[] lire(FileChannel canal, long position, int longueur) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(longueur);
+        while (tampon.hasRemaining()) {
+            int lus = canal.read(tampon, position + tampon.position());
+            if (lus < 0) {
+                break;
+            }
+        }
+        return (tampon.position() == longueur)
+                ? tampon.array()
+                : Arrays.copyOf(tampon.array(), tampon.position());
+    }
+
+    /**
+     * Signale une caractéristique du fichier non gérée par le chemin rapide.
+     */
+    private static class NonPrisEnCharge extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        NonPrisEnCharge(String raison) {
+            super(raison, null, false, false);
+        }
+    }
+}
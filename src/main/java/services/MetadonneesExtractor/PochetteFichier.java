@@ -0,0 +1,106 @@
+package services.MetadonneesExtractor;
+
+import modele.metadonnees.SourcePochette;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Pochette située dans une zone contiguë d'un fichier audio (données d'une trame APIC).
+ *
+ * Seuls le chemin, la position et la longueur de l'image sont retenus.
+ * La taille et la date de modification du fichier sont notées à l'extraction :
+ * si le fichier a changé depuis, la relecture échoue plutôt que de
+ * renvoyer des octets qui ne sont plus ceux de l'image.
+ */
+public class PochetteFichier implements SourcePochette {
+
+    private final Path chemin;
+    private final long position;
+    private final int longueur;
+    private final long tailleFichier;
+    private final long dateModification;
+
+    /**
+     * Construit l'emplacement d'une pochette.
+     *
+     * @param chemin fichier audio contenant l'image
+     * @param position position du premier octet de l'image dans le fichier
+     * @param longueur longueur de l'image en octets
+     * @param tailleFichier taille du fichier lors de l'extraction
+     * @param dateModification date de modification (ms) du fichier lors de l'extraction
+     */
+    public PochetteFichier(Path chemin, long position, int longueur,
+                           long tailleFichier, long dateModification) {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Le chemin ne doit pas être nul.");
+        }
+        if (position < 0 || longueur < 0) {
+            throw new IllegalArgumentException("Position et longueur doivent être >= 0.");
+        }
+        this.chemin = chemin;
+        this.position = position;
+        this.longueur = longueur;
+        this.tailleFichier = tailleFichier;
+        this.dateModification = dateModification;
+    }
+
+    @Override
+    public byte[] charger() throws IOException {
+        BasicFileAttributes attributs = Files.readAttributes(chemin, BasicFileAttributes.class);
+        if (attributs.size() != tailleFichier
+                || attributs.lastModifiedTime().toMillis() != dateModification) {
+            throw new IOException("Fichier modifié depuis l'extraction : " + chemin);
+        }
+
+        ByteBuffer tampon = ByteBuffer.allocate(longueur);
+        try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            while (tampon.hasRemaining()) {
+                if (canal.read(tampon, position + tampon.position()) < 0) {
+                    throw new IOException("Pochette tronquée : " + chemin);
+                }
+            }
+        }
+        return tampon.array();
+    }
+
+    @Override
+    public long getTaille() {
+        return longueur;
+    }
+
+    public Path getChemin() {
+        return chemin;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public int getLongueur() {
+        return longueur;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PochetteFichier)) return false;
+        PochetteFichier autre = (PochetteFichier) o;
+        return position == autre.position
+                && longueur == autre.longueur
+                && tailleFichier == autre.tailleFichier
+                && dateModification == autre.dateModification
+                && chemin.equals(autre.chemin);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chemin, position, longueur);
+    }
+}
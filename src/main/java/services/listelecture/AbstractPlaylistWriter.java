@@ -1,20 +1,89 @@
 package services.listelecture;
 
+import modele.playlist.Playable;
 import modele.playlist.Playlist;
-import modele.playlist.PlaylistEntry;
 
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Classe abstraite définissant le squelette d’écriture d’une playlist sur disque.
- * @version 1.0
+ *
+ * L’écriture se fait toujours en flux : en-tête, puis chaque élément dès qu’il
+ * est lu, puis pied. Une {@link Playlist} est écrite en parcourant ses entrées.
+ *
+ * En mode parallèle, les entrées sont découpées en blocs de {@link #TAILLE_BLOC}
+ * mis en forme en UTF-8 par plusieurs threads, puis écrits dans l’ordre par écritures
+ * groupées sur un {@link FileChannel}. Les mêmes méthodes d’en-tête, d’élément et de pied
+ * sont utilisées, avec le même rang pour chaque élément : le fichier est identique
+ * à celui de l’écriture séquentielle.
+ *
+ * Dans les deux modes, la playlist est écrite dans un fichier temporaire du même
+ * répertoire, renommé atomiquement sur la cible une fois complet : une exportation
+ * interrompue laisse l’ancienne playlist intacte. Ce qui est forcé sur le disque
+ * dépend de la {@link Durabilite} choisie.
+ * @version 4.0
  */
 public abstract class AbstractPlaylistWriter implements PlaylistWriter {
 
+    /** Nombre d’entrées mises en forme par bloc en mode parallèle. */
+    public static final int TAILLE_BLOC = 4096;
+
+    /** Estimation de la taille d’un élément mis en forme, pour dimensionner les tampons des blocs. */
+    private static final int OCTETS_PAR_ELEMENT = 128;
+
+    /** Capacité initiale des tampons d’en-tête et de pied, agrandis au besoin. */
+    private static final int TAILLE_ENTETE_PIED = 256;
+
+    /** Durabilité utilisée par défaut. */
+    public static final Durabilite DURABILITE_PAR_DEFAUT = Durabilite.DONNEES;
+
+    private final Durabilite durabilite;
+
+    /**
+     * Initialise un writer avec la durabilité par défaut ({@link #DURABILITE_PAR_DEFAUT}).
+     */
+    protected AbstractPlaylistWriter() {
+        this(DURABILITE_PAR_DEFAUT);
+    }
+
+    /**
+     * Initialise un writer avec une durabilité donnée.
+     *
+     * @param durabilite niveau de durabilité des écritures (non nul)
+     * @throws IllegalArgumentException si la durabilité est nulle
+     */
+    protected AbstractPlaylistWriter(Durabilite durabilite) {
+        if (durabilite == null) {
+            throw new IllegalArgumentException("La durabilité ne doit pas être nulle.");
+        }
+        this.durabilite = durabilite;
+    }
+
+    /**
+     * Retourne le niveau de durabilité des écritures.
+     *
+     * @return durabilité
+     */
+    public Durabilite obtenirDurabilite() {
+        return durabilite;
+    }
+
     /**
      * Écrit une playlist sur disque en suivant les étapes génériques d’export.
      *
@@ -27,22 +96,46 @@ public abstract class AbstractPlaylistWriter implements PlaylistWriter {
         if (playlist == null) {
             throw new IllegalArgumentException("La playlist ne doit pas être nulle.");
         }
+        ecrire(playlist.obtenirNom(), playlist.obtenirElements().iterator(), out);
+    }
+
+    /**
+     * Écrit une playlist sur disque au fur et à mesure de la lecture des éléments.
+     *
+     * @param nom nom de la playlist (peut être null)
+     * @param elements éléments à écrire
+     * @param out chemin du fichier de sortie
+     * @throws PlaylistWriteException en cas d’erreur d’écriture
+     */
+    @Override
+    public void ecrire(String nom, Iterator<? extends Playable> elements, Path out)
+            throws PlaylistWriteException {
+        if (elements == null) {
+            throw new IllegalArgumentException("Les éléments ne doivent pas être nuls.");
+        }
         if (out == null) {
             throw new IllegalArgumentException("Le chemin de sortie ne doit pas être nul.");
         }
 
-        try (BufferedWriter writer =
-                     Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+        try (EcritureAtomique fichier = new EcritureAtomique(out, durabilite)) {
+
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(fichier.canal()), StandardCharsets.UTF_8));
 
-            ecrireEnTete(writer, playlist);
+            ecrireEnTete(writer, nom);
 
-            for (PlaylistEntry entree : playlist.obtenirElements()) {
-                ecrireElement(writer, entree);
+            long rang = 0;
+            while (elements.hasNext()) {
+                Playable element = elements.next();
+                if (element != null) {
+                    ecrireElement(writer, element, rang++);
+                }
             }
 
-            ecrirePied(writer, playlist);
+            ecrirePied(writer, nom, rang);
 
             writer.flush();
+            fichier.valider();
 
         } catch (IOException e) {
             throw new PlaylistWriteException(
@@ -52,45 +145,189 @@ public abstract class AbstractPlaylistWriter implements PlaylistWriter {
     }
 
     /**
-     * Nettoie une chaîne de caractères pour un usage sûr dans un fichier texte.
+     * Écrit une playlist en mettant en forme ses entrées par blocs sur plusieurs threads.
+     * Au plus {@code 2 × concurrence} blocs sont en mémoire à la fois.
+     * Les éléments nuls sont ignorés, comme en écriture séquentielle.
      *
-     * @param texte chaîne brute
-     * @return chaîne nettoyée
+     * @param nom nom de la playlist (peut être null)
+     * @param elements éléments à écrire (non modifiés pendant l’écriture)
+     * @param out chemin du fichier de sortie
+     * @param concurrence nombre maximal de threads de mise en forme (doit être >= 1)
+     * @throws PlaylistWriteException en cas d’erreur d’écriture ou d’interruption
      */
-    public String nettoyer(String texte) {
-        if (texte == null) {
-            return "";
+    @Override
+    public void ecrireEnParallele(String nom, List<? extends Playable> elements, Path out, int concurrence)
+            throws PlaylistWriteException {
+        if (elements == null) {
+            throw new IllegalArgumentException("Les éléments ne doivent pas être nuls.");
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("Le chemin de sortie ne doit pas être nul.");
+        }
+        if (concurrence < 1) {
+            throw new IllegalArgumentException("Le niveau de concurrence doit être >= 1.");
+        }
+
+        int nombreBlocs = (elements.size() + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        if (concurrence == 1 || nombreBlocs < 2) {
+            ecrire(nom, elements.iterator(), out);
+            return;
+        }
+
+        // Rang du premier élément de chaque bloc : les éléments nuls ne sont pas comptés
+        long[] premierRang = new long[nombreBlocs + 1];
+        for (int b = 0; b < nombreBlocs; b++) {
+            long rang = premierRang[b];
+            for (int i = b * TAILLE_BLOC, fin = Math.min(elements.size(), i + TAILLE_BLOC); i < fin; i++) {
+                if (elements.get(i) != null) {
+                    rang++;
+                }
+            }
+            premierRang[b + 1] = rang;
+        }
+
+        ExecutorService executeur = Executors.newFixedThreadPool(
+                Math.min(concurrence, nombreBlocs), tache -> {
+                    Thread t = new Thread(tache, "ecriture-playlist");
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        try (EcritureAtomique fichier = new EcritureAtomique(out, durabilite)) {
+            FileChannel canal = fichier.canal();
+
+            ecrireTout(canal, new ByteBuffer[] {mettreEnForme(TAILLE_ENTETE_PIED, writer -> ecrireEnTete(writer, nom))});
+
+            Deque<Future<ByteBuffer>> enCours = new ArrayDeque<>();
+            int suivant = 0;
+            while (suivant < nombreBlocs || !enCours.isEmpty()) {
+                while (suivant < nombreBlocs && enCours.size() < 2 * concurrence) {
+                    int bloc = suivant++;
+                    int debut = bloc * TAILLE_BLOC;
+                    int fin = Math.min(elements.size(), debut + TAILLE_BLOC);
+                    int capacite = (fin - debut) * OCTETS_PAR_ELEMENT;
+                    enCours.add(executeur.submit(() -> mettreEnForme(capacite, writer -> {
+                        long rang = premierRang[bloc];
+                        for (int i = debut; i < fin; i++) {
+                            Playable element = elements.get(i);
+                            if (element != null) {
+                                ecrireElement(writer, element, rang++);
+                            }
+                        }
+                    })));
+                }
+
+                // Écriture groupée des blocs déjà prêts, dans l’ordre
+                int prets = 0;
+                for (Future<ByteBuffer> bloc : enCours) {
+                    if (prets > 0 && !bloc.isDone()) {
+                        break;
+                    }
+                    prets++;
+                }
+                ByteBuffer[] tampons = new ByteBuffer[prets];
+                for (int i = 0; i < tampons.length; i++) {
+                    tampons[i] = enCours.poll().get();
+                }
+                ecrireTout(canal, tampons);
+            }
+
+            ecrireTout(canal, new ByteBuffer[] {
+                    mettreEnForme(TAILLE_ENTETE_PIED, writer -> ecrirePied(writer, nom, premierRang[nombreBlocs]))});
+            fichier.valider();
+
+        } catch (IOException e) {
+            throw new PlaylistWriteException(
+                    "Erreur lors de l'écriture de la playlist : " + out, e
+            );
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new PlaylistWriteException(
+                    "Erreur lors de l'écriture de la playlist : " + out, cause
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PlaylistWriteException("Écriture de la playlist interrompue : " + out, e);
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+
+    /** Partie d’une playlist mise en forme par les méthodes d’écriture. */
+    private interface MiseEnForme {
+        void ecrire(BufferedWriter writer) throws IOException;
+    }
+
+    /**
+     * Met en forme une partie de la playlist dans un tampon UTF-8.
+     *
+     * @param capacite capacité initiale du tampon, agrandi au besoin
+     * @param miseEnForme écriture à effectuer
+     * @return tampon prêt à être écrit
+     * @throws IOException en cas d’erreur de mise en forme
+     */
+    private static ByteBuffer mettreEnForme(int capacite, MiseEnForme miseEnForme) throws IOException {
+        TamponOctets tampon = new TamponOctets(capacite);
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(tampon, StandardCharsets.UTF_8))) {
+            miseEnForme.ecrire(writer);
+        }
+        return tampon.enByteBuffer();
+    }
+
+    /**
+     * Écrit entièrement des tampons par écritures groupées.
+     */
+    private static void ecrireTout(FileChannel canal, ByteBuffer[] tampons) throws IOException {
+        int premier = 0;
+        while (premier < tampons.length) {
+            canal.write(tampons, premier, tampons.length - premier);
+            while (premier < tampons.length && !tampons[premier].hasRemaining()) {
+                premier++;
+            }
+        }
+    }
+
+    /** Tampon d’octets exposé sans copie. */
+    private static final class TamponOctets extends ByteArrayOutputStream {
+
+        TamponOctets(int capacite) {
+            super(capacite);
+        }
+
+        ByteBuffer enByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
         }
-        return texte
-                .replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;");
     }
 
     /**
      * Écrit l’en-tête du fichier de playlist.
      *
      * @param writer flux d’écriture
-     * @param playlist playlist concernée
+     * @param nom nom de la playlist (peut être null)
      * @throws IOException en cas d’erreur d’E/S
      */
-    protected abstract void ecrireEnTete(BufferedWriter writer, Playlist playlist) throws IOException;
+    protected abstract void ecrireEnTete(BufferedWriter writer, String nom) throws IOException;
 
     /**
      * Écrit un élément de playlist.
      *
      * @param writer flux d’écriture
-     * @param entry entrée de playlist
+     * @param element élément à écrire
+     * @param rang rang de l’élément parmi les éléments écrits (à partir de 0)
      * @throws IOException en cas d’erreur d’E/S
      */
-    protected abstract void ecrireElement(BufferedWriter writer, PlaylistEntry entry) throws IOException;
+    protected abstract void ecrireElement(BufferedWriter writer, Playable element, long rang) throws IOException;
 
     /**
      * Écrit le pied du fichier de playlist.
      *
      * @param writer flux d’écriture
-     * @param playlist playlist concernée
+     * @param nom nom de la playlist (peut être null)
+     * @param nombre nombre d’éléments écrits
      * @throws IOException en cas d’erreur d’E/S
      */
-    protected abstract void ecrirePied(BufferedWriter writer, Playlist playlist) throws IOException;
+    protected abstract void ecrirePied(BufferedWriter writer, String nom, long nombre) throws IOException;
 }
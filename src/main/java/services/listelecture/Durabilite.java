@@ -0,0 +1,32 @@
+package services.listelecture;
+
+/**
+ * Niveaux de durabilité d’une écriture de playlist.
+ *
+ * Quel que soit le niveau, la playlist est écrite dans un fichier temporaire
+ * du même répertoire puis renommée atomiquement sur la cible : un lecteur voit
+ * toujours l’ancienne playlist ou la nouvelle, jamais un fichier à moitié écrit.
+ * Le niveau indique seulement ce qui est forcé sur le disque avant de rendre la main,
+ * ce qui détermine ce qui survit à une coupure de courant.
+ */
+public enum Durabilite {
+
+    /**
+     * Aucune synchronisation : le plus rapide, adapté aux traitements par lots
+     * que l’on peut relancer. Après une coupure, la cible peut être l’ancienne
+     * playlist, la nouvelle, ou (selon le système de fichiers) un fichier vide.
+     */
+    AUCUNE,
+
+    /**
+     * Le contenu du fichier temporaire est forcé sur le disque avant le renommage :
+     * après une coupure, la cible est l’ancienne playlist ou la nouvelle, complète.
+     */
+    DONNEES,
+
+    /**
+     * Comme {@link #DONNEES}, puis le répertoire est forcé après le renommage :
+     * une fois l’écriture terminée, la nouvelle playlist survit à une coupure.
+     */
+    DONNEES_ET_REPERTOIRE
+}
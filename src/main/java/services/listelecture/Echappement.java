@@ -0,0 +1,159 @@
+package services.listelecture;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Échappement des textes écrits dans les fichiers de playlist.
+ *
+ * Chaque méthode parcourt la chaîne une seule fois et écrit directement dans le flux :
+ * les portions sans caractère spécial sont recopiées telles quelles, sans créer
+ * de chaîne intermédiaire. Une chaîne nulle n’écrit rien.
+ */
+final class Echappement {
+
+    private static final char[] HEXA = "0123456789abcdef".toCharArray();
+
+    private Echappement() {
+    }
+
+    /**
+     * Écrit un texte dans un contenu ou un attribut XML.
+     * Les caractères interdits en XML 1.0 sont omis : caractères de contrôle,
+     * U+FFFE, U+FFFF et demi-paires de substitution isolées.
+     *
+     * @param writer flux d’écriture
+     * @param valeur texte brut (peut être null)
+     * @throws IOException en cas d’erreur d’E/S
+     */
+    static void xml(Writer writer, String valeur) throws IOException {
+        if (valeur == null) {
+            return;
+        }
+        int debut = 0;
+        int longueur = valeur.length();
+        for (int i = 0; i < longueur; i++) {
+            char c = valeur.charAt(i);
+            String remplacement;
+            switch (c) {
+                case '&': remplacement = "&amp;"; break;
+                case '<': remplacement = "&lt;"; break;
+                case '>': remplacement = "&gt;"; break;
+                case '"': remplacement = "&quot;"; break;
+                case '\'': remplacement = "&apos;"; break;
+                default:
+                    if (Character.isHighSurrogate(c) && i + 1 < longueur
+                            && Character.isLowSurrogate(valeur.charAt(i + 1))) {
+                        i++; // paire valide, recopiée telle quelle
+                        continue;
+                    }
+                    if (estCaractereXml(c)) {
+                        continue;
+                    }
+                    remplacement = "";
+                    break;
+            }
+            writer.write(valeur, debut, i - debut);
+            writer.write(remplacement);
+            debut = i + 1;
+        }
+        writer.write(valeur, debut, longueur - debut);
+    }
+
+    /**
+     * Indique si un caractère isolé (hors paire de substitution) est autorisé en XML 1.0.
+     */
+    private static boolean estCaractereXml(char c) {
+        if (c < 0x20) {
+            return c == '\t' || c == '\n' || c == '\r';
+        }
+        return !Character.isSurrogate(c) && c != '\uFFFE' && c != '\uFFFF';
+    }
+
+    /**
+     * Écrit un texte dans une chaîne JSON (sans les guillemets qui l’entourent).
+     *
+     * @param writer flux d’écriture
+     * @param valeur texte brut (peut être null)
+     * @throws IOException en cas d’erreur d’E/S
+     */
+    static void json(Writer writer, String valeur) throws IOException {
+        if (valeur == null) {
+            return;
+        }
+        int debut = 0;
+        int longueur = valeur.length();
+        for (int i = 0; i < longueur; i++) {
+            char c = valeur.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            writer.write(valeur, debut, i - debut);
+            switch (c) {
+                case '"': writer.write("\\\""); break;
+                case '\\': writer.write("\\\\"); break;
+                case '\n': writer.write("\\n"); break;
+                case '\r': writer.write("\\r"); break;
+                case '\t': writer.write("\\t"); break;
+                default:
+                    writer.write("\\u00");
+                    writer.write(HEXA[c >> 4]);
+                    writer.write(HEXA[c & 0xF]);
+                    break;
+            }
+            debut = i + 1;
+        }
+        writer.write(valeur, debut, longueur - debut);
+    }
+
+    /**
+     * Écrit un entier en décimal, chiffre par chiffre.
+     *
+     * @param writer flux d’écriture
+     * @param valeur entier à écrire
+     * @throws IOException en cas d’erreur d’E/S
+     */
+    static void nombre(Writer writer, long valeur) throws IOException {
+        if (valeur == Long.MIN_VALUE) {
+            writer.write(Long.toString(valeur));
+            return;
+        }
+        if (valeur < 0) {
+            writer.write('-');
+            valeur = -valeur;
+        }
+        long puissance = 1;
+        while (valeur / puissance >= 10) {
+            puissance *= 10;
+        }
+        for (; puissance > 0; puissance /= 10) {
+            writer.write((char) ('0' + (valeur / puissance) % 10));
+        }
+    }
+
+    /**
+     * Écrit un texte sur une seule ligne : les retours à la ligne,
+     * qui couperaient une entrée M3U8 en deux, sont remplacés par des espaces.
+     *
+     * @param writer flux d’écriture
+     * @param valeur texte brut (peut être null)
+     * @throws IOException en cas d’erreur d’E/S
+     */
+    static void ligne(Writer writer, String valeur) throws IOException {
+        if (valeur == null) {
+            return;
+        }
+        int debut = 0;
+        int longueur = valeur.length();
+        for (int i = 0; i < longueur; i++) {
+            char c = valeur.charAt(i);
+            if (c != '\n' && c != '\r') {
+                continue;
+            }
+            writer.write(valeur, debut, i - debut);
+            writer.write(' ');
+            debut = i + 1;
+        }
+        writer.write(valeur, debut, longueur - debut);
+    }
+}
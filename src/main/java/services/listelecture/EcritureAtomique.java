@@ -0,0 +1,211 @@
+package services.listelecture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture d’un fichier par l’intermédiaire d’un fichier temporaire du même répertoire,
+ * renommé sur la cible une fois le contenu complet.
+ *
+ * Tant que {@link #valider()} (ou {@link #remplacer()}) n’a pas été appelée, la cible n’est pas modifiée ;
+ * {@link #close()} supprime alors le fichier temporaire. Si la cible existe,
+ * ses permissions POSIX sont reportées sur le fichier temporaire.
+ *
+ * Un arrêt brutal entre la création et le renommage laisse un fichier temporaire
+ * orphelin ({@code .<nom>.<hexa>.tmp}). Chaque nouvelle écriture de la même cible
+ * supprime ceux qui n’ont pas été modifiés depuis {@link #AGE_ORPHELIN_MS} :
+ * un fichier plus récent peut appartenir à une écriture encore en cours.
+ */
+final class EcritureAtomique implements Closeable {
+
+    /** Âge minimal (ms) d’un fichier temporaire pour le considérer comme orphelin. */
+    static final long AGE_ORPHELIN_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final Path cible;
+    private final Path temporaire;
+    private final Durabilite durabilite;
+    private final FileChannel canal;
+    private boolean valide;
+
+    /**
+     * Crée le fichier temporaire et l’ouvre en écriture.
+     *
+     * @param cible fichier à remplacer
+     * @param durabilite niveau de durabilité
+     * @throws IOException si le fichier temporaire ne peut pas être créé
+     */
+    EcritureAtomique(Path cible, Durabilite durabilite) throws IOException {
+        this.cible = cible.toAbsolutePath();
+        this.durabilite = durabilite;
+
+        supprimerOrphelins(this.cible);
+
+        Path temporaireCree;
+        FileChannel canalOuvert;
+        while (true) {
+            temporaireCree = this.cible.resolveSibling("." + this.cible.getFileName() + "."
+                    + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1) + ".tmp");
+            try {
+                canalOuvert = FileChannel.open(temporaireCree,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // Nom déjà pris : on en tire un autre
+            }
+        }
+        this.temporaire = temporaireCree;
+        this.canal = canalOuvert;
+
+        try {
+            if (Files.exists(this.cible)) {
+                Files.setPosixFilePermissions(temporaire, Files.getPosixFilePermissions(this.cible));
+            }
+        } catch (UnsupportedOperationException | IOException e) {
+            // Système sans permissions POSIX, ou cible illisible : permissions par défaut
+        }
+    }
+
+    /**
+     * Retourne le canal d’écriture du fichier temporaire.
+     *
+     * @return canal ouvert en écriture
+     */
+    FileChannel canal() {
+        return canal;
+    }
+
+    /**
+     * Force le contenu selon le niveau de durabilité, puis remplace la cible.
+     * Équivaut à {@link #forcer()} suivi de {@link #remplacer()}.
+     *
+     * @throws IOException si la synchronisation ou le renommage échoue
+     */
+    void valider() throws IOException {
+        forcer();
+        remplacer();
+    }
+
+    /**
+     * Première étape de la validation : force le contenu du fichier temporaire
+     * selon le niveau de durabilité et ferme son canal. La cible n’est pas modifiée.
+     *
+     * @throws IOException si la synchronisation échoue
+     */
+    void forcer() throws IOException {
+        if (durabilite != Durabilite.AUCUNE) {
+            canal.force(true);
+        }
+        canal.close();
+    }
+
+    /**
+     * Seconde étape de la validation : renomme le fichier temporaire sur la cible,
+     * puis force l’entrée du répertoire si le niveau de durabilité l’exige.
+     * Doit suivre {@link #forcer()}.
+     *
+     * @throws IOException si le renommage échoue
+     */
+    void remplacer() throws IOException {
+        try {
+            Files.move(temporaire, cible, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaire, cible, StandardCopyOption.REPLACE_EXISTING);
+        }
+        valide = true;
+
+        if (durabilite == Durabilite.DONNEES_ET_REPERTOIRE) {
+            forcerRepertoire(cible.getParent());
+        }
+    }
+
+    /**
+     * Ferme le canal et, si l’écriture n’a pas été validée, supprime le fichier temporaire.
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+        if (!valide) {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    /**
+     * Supprime les fichiers temporaires anciens laissés par des écritures interrompues
+     * de la même cible. Le nettoyage est au mieux : une erreur est ignorée.
+     */
+    private static void supprimerOrphelins(Path cible) {
+        Path repertoire = cible.getParent();
+        if (repertoire == null) {
+            return;
+        }
+        String prefixe = "." + cible.getFileName() + ".";
+        long limite = System.currentTimeMillis() - AGE_ORPHELIN_MS;
+
+        DirectoryStream.Filter<Path> filtre = p -> estTemporaire(p.getFileName().toString(), prefixe);
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire, filtre)) {
+            for (Path fichier : fichiers) {
+                try {
+                    if (Files.getLastModifiedTime(fichier).toMillis() < limite) {
+                        Files.deleteIfExists(fichier);
+                    }
+                } catch (IOException e) {
+                    // Fichier disparu ou protégé : on passe au suivant
+                }
+            }
+        } catch (IOException | SecurityException e) {
+            // Répertoire illisible : l’écriture elle-même signalera l’erreur éventuelle
+        }
+    }
+
+    /**
+     * Indique si un nom est celui d’un fichier temporaire de la cible :
+     * {@code prefixe}, puis 1 à 16 chiffres hexadécimaux, puis {@code .tmp}.
+     */
+    private static boolean estTemporaire(String nom, String prefixe) {
+        if (!nom.startsWith(prefixe) || !nom.endsWith(".tmp")) {
+            return false;
+        }
+        int debut = prefixe.length();
+        int fin = nom.length() - 4;
+        if (fin <= debut || fin - debut > 16) {
+            return false;
+        }
+        for (int i = debut; i < fin; i++) {
+            char c = nom.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Force l’entrée du répertoire sur le disque. Les systèmes qui ne permettent pas
+     * d’ouvrir un répertoire (Windows) gèrent cette durabilité eux-mêmes : l’erreur d’ouverture
+     * est alors ignorée.
+     */
+    private static void forcerRepertoire(Path repertoire) throws IOException {
+        if (repertoire == null) {
+            return;
+        }
+        FileChannel canalRepertoire;
+        try {
+            canalRepertoire = FileChannel.open(repertoire, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (FileChannel c = canalRepertoire) {
+            c.force(true);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package services.listelecture;
+
+import modele.playlist.Playable;
+import modele.playlist.Playlist;
+import modele.playlist.PlaylistFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exporte une même playlist dans plusieurs formats en un seul parcours de ses éléments.
+ *
+ * L’emplacement, le titre et la durée de chaque élément ne sont calculés qu’une fois ;
+ * les éléments ainsi calculés sont transmis par lots de {@link #TAILLE_LOT} à un thread
+ * d’écriture par format, qui les met en forme avec les méthodes de son writer.
+ * Les formats sont donc écrits en même temps, et chaque fichier est identique
+ * à celui qu’aurait produit le writer seul.
+ *
+ * Chaque fichier est écrit dans un fichier temporaire avec la durabilité de son writer
+ * (voir {@link Durabilite}). La validation se fait en deux temps : tous les fichiers
+ * temporaires sont d’abord forcés sur le disque, puis seulement les cibles sont renommées
+ * l’une après l’autre. Une erreur d’écriture ou de synchronisation ne modifie donc aucune cible.
+ *
+ * Les renommages ne forment pas une opération atomique unique : un arrêt brutal
+ * (ou l’échec d’un renommage) entre deux renommages laisse les premières cibles
+ * remplacées et les suivantes dans leur état précédent. Chaque cible reste toutefois
+ * complète, soit ancienne, soit nouvelle.
+ */
+public class ExportMultiFormat {
+
+    /** Nombre d’éléments transmis à la fois aux threads d’écriture. */
+    public static final int TAILLE_LOT = 1024;
+
+    /** Nombre maximal de lots en attente d’écriture pour un format. */
+    private static final int LOTS_EN_ATTENTE = 8;
+
+    /** Fabrique fournissant le writer de chaque format. */
+    private final FabriqueEcriturePlaylist fabrique;
+
+    /**
+     * Construit un exportateur utilisant les writers par défaut.
+     */
+    public ExportMultiFormat() {
+        this(new FabriqueEcriturePlaylist());
+    }
+
+    /**
+     * Construit un exportateur utilisant les writers d’une fabrique.
+     *
+     * @param fabrique fabrique de writers (non nulle)
+     * @throws IllegalArgumentException si la fabrique est nulle
+     */
+    public ExportMultiFormat(FabriqueEcriturePlaylist fabrique) {
+        if (fabrique == null) {
+            throw new IllegalArgumentException("La factory de writer ne doit pas être nulle.");
+        }
+        this.fabrique = fabrique;
+    }
+
+    /**
+     * Exporte une playlist dans plusieurs formats.
+     *
+     * @param playlist playlist à exporter (non nulle)
+     * @param sorties fichier de sortie de chaque format (non vide)
+     * @throws PlaylistWriteException en cas d’erreur d’écriture
+     */
+    public void exporter(Playlist playlist, Map<PlaylistFormat, Path> sorties) throws PlaylistWriteException {
+        if (playlist == null) {
+            throw new IllegalArgumentException("La playlist ne doit pas être nulle.");
+        }
+        exporter(playlist.obtenirNom(), playlist.obtenirElements().iterator(), sorties);
+    }
+
+    /**
+     * Exporte des éléments dans plusieurs formats, en les parcourant une seule fois.
+     * Les éléments nuls sont ignorés.
+     *
+     * @param nom nom de la playlist (peut être null)
+     * @param elements éléments à exporter (non nul)
+     * @param sorties fichier de sortie de chaque format (non vide)
+     * @throws PlaylistWriteException en cas d’erreur d’écriture ou d’interruption
+     */
+    public void exporter(String nom, Iterator<? extends Playable> elements, Map<PlaylistFormat, Path> sorties)
+            throws PlaylistWriteException {
+        if (elements == null) {
+            throw new IllegalArgumentException("Les éléments ne doivent pas être nuls.");
+        }
+        if (sorties == null || sorties.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un format de sortie doit être demandé.");
+        }
+        List<AbstractPlaylistWriter> writers = new ArrayList<>(sorties.size());
+        for (Map.Entry<PlaylistFormat, Path> sortie : sorties.entrySet()) {
+            if (sortie.getValue() == null) {
+                throw new IllegalArgumentException("Le chemin de sortie ne doit pas être nul.");
+            }
+            PlaylistWriter writer = fabrique.pourFormat(sortie.getKey());
+            if (!(writer instanceof AbstractPlaylistWriter)) {
+                throw new IllegalArgumentException("Format non pris en charge par l'export multi-format : "
+                        + sortie.getKey());
+            }
+            writers.add((AbstractPlaylistWriter) writer);
+        }
+
+        List<Sortie> ouvertes = new ArrayList<>(sorties.size());
+        try {
+            int i = 0;
+            for (Path chemin : sorties.values()) {
+                ouvertes.add(new Sortie(writers.get(i++), chemin));
+            }
+
+            for (Sortie sortie : ouvertes) {
+                sortie.soumettre(() -> sortie.writer.ecrireEnTete(sortie.flux, nom));
+            }
+
+            long rang = 0;
+            List<ElementCalcule> lot = new ArrayList<>(TAILLE_LOT);
+            while (elements.hasNext()) {
+                Playable element = elements.next();
+                if (element == null) {
+                    continue;
+                }
+                lot.add(new ElementCalcule(element));
+                if (lot.size() == TAILLE_LOT) {
+                    diffuser(ouvertes, lot, rang);
+                    rang += lot.size();
+                    lot = new ArrayList<>(TAILLE_LOT);
+                }
+            }
+            if (!lot.isEmpty()) {
+                diffuser(ouvertes, lot, rang);
+                rang += lot.size();
+            }
+
+            long nombre = rang;
+            for (Sortie sortie : ouvertes) {
+                sortie.soumettre(() -> {
+                    sortie.writer.ecrirePied(sortie.flux, nom, nombre);
+                    sortie.flux.flush();
+                });
+            }
+            for (Sortie sortie : ouvertes) {
+                sortie.attendre();
+            }
+
+            // Toutes les sorties sont complètes : on les force toutes avant de remplacer la moindre cible
+            for (Sortie sortie : ouvertes) {
+                sortie.fichier.forcer();
+            }
+            for (Sortie sortie : ouvertes) {
+                sortie.fichier.remplacer();
+            }
+
+        } catch (IOException e) {
+            throw new PlaylistWriteException("Erreur lors de l'export de la playlist : " + sorties.values(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new PlaylistWriteException("Erreur lors de l'export de la playlist : " + sorties.values(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PlaylistWriteException("Export de la playlist interrompu : " + sorties.values(), e);
+        } finally {
+            for (Sortie sortie : ouvertes) {
+                sortie.fermer();
+            }
+        }
+    }
+
+    /**
+     * Transmet un lot d’éléments calculés à chaque format.
+     */
+    private static void diffuser(List<Sortie> sorties, List<ElementCalcule> lot, long premierRang)
+            throws ExecutionException, InterruptedException {
+        List<ElementCalcule> partage = Collections.unmodifiableList(lot);
+        for (Sortie sortie : sorties) {
+            sortie.soumettre(() -> {
+                long rang = premierRang;
+                for (ElementCalcule element : partage) {
+                    sortie.writer.ecrireElement(sortie.flux, element, rang++);
+                }
+            });
+        }
+    }
+
+    /** Écriture effectuée par le thread d’un format. */
+    private interface Ecriture {
+        void executer() throws IOException;
+    }
+
+    /**
+     * Fichier de sortie d’un format, avec son thread d’écriture.
+     * Les écritures soumises sont exécutées dans l’ordre de soumission.
+     */
+    private static final class Sortie {
+
+        private final AbstractPlaylistWriter writer;
+        private final EcritureAtomique fichier;
+        private final BufferedWriter flux;
+        private final ExecutorService executeur;
+        private final Deque<Future<?>> enCours = new ArrayDeque<>();
+
+        Sortie(AbstractPlaylistWriter writer, Path chemin) throws IOException {
+            this.writer = writer;
+            this.fichier = new EcritureAtomique(chemin, writer.obtenirDurabilite());
+            this.flux = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(fichier.canal()), StandardCharsets.UTF_8));
+            this.executeur = Executors.newSingleThreadExecutor(tache -> {
+                Thread t = new Thread(tache, "export-" + writer.obtenirFormat());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        /**
+         * Soumet une écriture ; si trop de lots sont en attente, attend la plus ancienne.
+         */
+        void soumettre(Ecriture ecriture) throws ExecutionException, InterruptedException {
+            enCours.add(executeur.submit(() -> {
+                ecriture.executer();
+                return null;
+            }));
+            if (enCours.size() > LOTS_EN_ATTENTE) {
+                enCours.poll().get();
+            }
+        }
+
+        /** Attend la fin de toutes les écritures soumises. */
+        void attendre() throws ExecutionException, InterruptedException {
+            while (!enCours.isEmpty()) {
+                enCours.poll().get();
+            }
+        }
+
+        /** Arrête le thread d’écriture et supprime le fichier temporaire s’il n’a pas été validé. */
+        void fermer() {
+            executeur.shutdownNow();
+            try {
+                fichier.close();
+            } catch (IOException e) {
+                // Fichier temporaire non supprimé : sans effet sur la cible
+            }
+        }
+    }
+
+    /**
+     * Élément dont l’emplacement, le titre et la durée ont été calculés une fois
+     * pour tous les formats.
+     */
+    private static final class ElementCalcule implements Playable {
+
+        private final String emplacement;
+        private final String titre;
+        private final double dureeSecondes;
+
+        ElementCalcule(Playable element) {
+            this.emplacement = element.obtenirEmplacement();
+            this.titre = element.obtenirTitreAffichage();
+            this.dureeSecondes = element.obtenirDureeSecondes();
+        }
+
+        @Override
+        public String obtenirEmplacement() {
+            return emplacement;
+        }
+
+        @Override
+        public String obtenirTitreAffichage() {
+            return titre;
+        }
+
+        @Override
+        public double obtenirDureeSecondes() {
+            return dureeSecondes;
+        }
+    }
+}
@@ -7,6 +7,30 @@ import modele.playlist.PlaylistFormat;
  */
 public class FabriqueEcriturePlaylist {
 
+    /** Durabilité des writers fournis. */
+    private final Durabilite durabilite;
+
+    /**
+     * Construit une fabrique de writers utilisant la durabilité par défaut.
+     */
+    public FabriqueEcriturePlaylist() {
+        this(AbstractPlaylistWriter.DURABILITE_PAR_DEFAUT);
+    }
+
+    /**
+     * Construit une fabrique de writers utilisant une durabilité donnée,
+     * par exemple {@link Durabilite#AUCUNE} pour un traitement par lots.
+     *
+     * @param durabilite niveau de durabilité des écritures (non nul)
+     * @throws IllegalArgumentException si la durabilité est nulle
+     */
+    public FabriqueEcriturePlaylist(Durabilite durabilite) {
+        if (durabilite == null) {
+            throw new IllegalArgumentException("La durabilité ne doit pas être nulle.");
+        }
+        this.durabilite = durabilite;
+    }
+
     /**
      * Retourne un writer adapté au format demandé.
      *
@@ -21,11 +45,11 @@ public class FabriqueEcriturePlaylist {
 
         switch (format) {
             case XSPF:
-                return new XSPFWriter();
+                return new XSPFWriter(durabilite);
             case JSPF:
-                return new JSPFWriter();
+                return new JSPFWriter(durabilite);
             case M3U8:
-                return new M3U8Writer();
+                return new M3U8Writer(durabilite);
             default:
                 throw new IllegalArgumentException("Format de playlist non supporté : " + format);
         }
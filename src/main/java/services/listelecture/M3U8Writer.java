@@ -1,7 +1,6 @@
 package services.listelecture;
 
-import modele.playlist.Playlist;
-import modele.playlist.PlaylistEntry;
+import modele.playlist.Playable;
 import modele.playlist.PlaylistFormat;
 
 import java.io.BufferedWriter;
@@ -14,6 +13,22 @@ import java.io.IOException;
  */
 public class M3U8Writer extends AbstractPlaylistWriter {
 
+    /**
+     * Construit un writer M3U8 avec la durabilité par défaut.
+     */
+    public M3U8Writer() {
+        super();
+    }
+
+    /**
+     * Construit un writer M3U8 avec une durabilité donnée.
+     *
+     * @param durabilite niveau de durabilité des écritures (non nul)
+     */
+    public M3U8Writer(Durabilite durabilite) {
+        super(durabilite);
+    }
+
     /**
      * Retourne le format de playlist pris en charge par ce writer.
      *
@@ -28,11 +43,11 @@ public class M3U8Writer extends AbstractPlaylistWriter {
      * Écrit l’en-tête du fichier M3U8
      *
      * @param writer flux d’écriture
-     * @param playlist playlist concernée
+     * @param nom nom de la playlist
      * @throws IOException en cas d’erreur d’E/S
      */
     @Override
-    protected void ecrireEnTete(BufferedWriter writer, Playlist playlist) throws IOException {
+    protected void ecrireEnTete(BufferedWriter writer, String nom) throws IOException {
         writer.write("#EXTM3U");
         writer.newLine();
     }
@@ -41,32 +56,29 @@ public class M3U8Writer extends AbstractPlaylistWriter {
      * Écrit une entrée de playlist au format M3U8.
      *
      * @param writer flux d’écriture
-     * @param entry entrée de playlist
+     * @param entry élément de playlist
+     * @param rang rang de l’élément
      * @throws IOException en cas d’erreur d’E/S
      */
     @Override
-    protected void ecrireElement(BufferedWriter writer, PlaylistEntry entry) throws IOException {
+    protected void ecrireElement(BufferedWriter writer, Playable entry, long rang) throws IOException {
 
         double dureeSec = entry.obtenirDureeSecondes();
         int dureeInt = (dureeSec > 0) ? (int) Math.round(dureeSec) : -1;
 
-        String titre = nettoyer(entry.obtenirTitreAffichage());
+        String titre = entry.obtenirTitreAffichage();
         if (titre == null || titre.isBlank()) {
             titre = "Piste sans titre";
         }
 
-        String chemin = entry.obtenirEmplacement();
-        if (chemin == null) {
-            chemin = "";
-        }
-
         writer.write("#EXTINF:");
-        writer.write(Integer.toString(dureeInt));
+        Echappement.nombre(writer, dureeInt);
         writer.write(",");
-        writer.write(titre);
+        // Le titre et le chemin sont écrits tels quels, sur une seule ligne chacun
+        Echappement.ligne(writer, titre);
         writer.newLine();
 
-        writer.write(chemin);
+        Echappement.ligne(writer, entry.obtenirEmplacement());
         writer.newLine();
     }
 
@@ -75,11 +87,12 @@ public class M3U8Writer extends AbstractPlaylistWriter {
      * Aucun contenu supplémentaire n’est requis pour ce format.
      *
      * @param writer flux d’écriture
-     * @param playlist playlist concernée
+     * @param nom nom de la playlist
+     * @param nombre nombre d’éléments écrits
      * @throws IOException en cas d’erreur d’Entree et de sortie
      */
     @Override
-    protected void ecrirePied(BufferedWriter writer, Playlist playlist) throws IOException {
+    protected void ecrirePied(BufferedWriter writer, String nom, long nombre) throws IOException {
         // Aucun pied spécifique pour le format M3U8
     }
 }
@@ -0,0 +1,45 @@
+package services.listelecture;
+
+import modele.playlist.Playable;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Contrat d’écriture d’une playlist en flux : les éléments sont lus un par un
+ * et écrits au fur et à mesure, sans construire de {@link modele.playlist.Playlist}.
+ * La mémoire utilisée ne dépend pas du nombre d’éléments, ce qui permet de brancher
+ * directement un scan de répertoire sur un fichier de plusieurs millions d’entrées.
+ */
+public interface PlaylistStreamWriter {
+
+    /**
+     * Écrit une playlist à partir d’un itérateur d’éléments.
+     * Les éléments nuls sont ignorés.
+     *
+     * @param nom nom de la playlist (peut être null)
+     * @param elements éléments à écrire, parcourus une seule fois (non nul)
+     * @param out chemin du fichier de sortie (non nul)
+     * @throws PlaylistWriteException si une erreur survient lors de l’écriture
+     */
+    void ecrire(String nom, Iterator<? extends Playable> elements, Path out) throws PlaylistWriteException;
+
+    /**
+     * Écrit une playlist à partir d’un flux d’éléments, puis ferme le flux.
+     * Les éléments nuls sont ignorés.
+     *
+     * @param nom nom de la playlist (peut être null)
+     * @param elements flux des éléments à écrire (non nul)
+     * @param out chemin du fichier de sortie (non nul)
+     * @throws PlaylistWriteException si une erreur survient lors de l’écriture
+     */
+    default void ecrire(String nom, Stream<? extends Playable> elements, Path out) throws PlaylistWriteException {
+        if (elements == null) {
+            throw new IllegalArgumentException("Le flux d'éléments ne doit pas être nul.");
+        }
+        try (Stream<? extends Playable> flux = elements) {
+            ecrire(nom, flux.iterator(), out);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package services.listelecture;
+import modele.playlist.Playable;
 import modele.playlist.Playlist;
 import modele.playlist.PlaylistFormat;
 import java.nio.file.Path;
-public interface PlaylistWriter {
+import java.util.List;
+public interface PlaylistWriter extends PlaylistStreamWriter {
     /**
      * Interface définissant un service chargé de sérialiser une playlist
      * et de l’enregistrer sur le disque dans un format spécifique
@@ -16,6 +18,44 @@ public interface PlaylistWriter {
      */
     void ecrire(Playlist playlist, Path out) throws PlaylistWriteException;
 
+    /**
+     * Écrit une playlist en répartissant la mise en forme des entrées sur plusieurs threads.
+     * Le fichier produit est identique à celui de {@link #ecrire(Playlist, Path)}.
+     *
+     * @param playlist playlist à exporter (ne doit pas être nul)
+     * @param out chemin du fichier de sortie (ne doit pas être nul)
+     * @param concurrence nombre maximal de threads de mise en forme (doit être >= 1)
+     * @throws PlaylistWriteException si une erreur survient lors de l’écriture
+     */
+    default void ecrireEnParallele(Playlist playlist, Path out, int concurrence) throws PlaylistWriteException {
+        if (playlist == null) {
+            throw new IllegalArgumentException("La playlist ne doit pas être nulle.");
+        }
+        ecrireEnParallele(playlist.obtenirNom(), playlist.obtenirElements(), out, concurrence);
+    }
+
+    /**
+     * Écrit une liste d’éléments en répartissant leur mise en forme sur plusieurs threads.
+     * Le fichier produit est identique à celui de l’écriture en flux des mêmes éléments.
+     * Par défaut, l’écriture est séquentielle.
+     *
+     * @param nom nom de la playlist (peut être null)
+     * @param elements éléments à écrire, non modifiés pendant l’écriture (non nul)
+     * @param out chemin du fichier de sortie (ne doit pas être nul)
+     * @param concurrence nombre maximal de threads de mise en forme (doit être >= 1)
+     * @throws PlaylistWriteException si une erreur survient lors de l’écriture
+     */
+    default void ecrireEnParallele(String nom, List<? extends Playable> elements, Path out, int concurrence)
+            throws PlaylistWriteException {
+        if (elements == null) {
+            throw new IllegalArgumentException("Les éléments ne doivent pas être nuls.");
+        }
+        if (concurrence < 1) {
+            throw new IllegalArgumentException("Le niveau de concurrence doit être >= 1.");
+        }
+        ecrire(nom, elements.iterator(), out);
+    }
+
     /**
      * Indique le format de playlist pris en charge par cette implémentation.
      *
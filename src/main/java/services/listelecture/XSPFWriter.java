@@ -1,7 +1,6 @@
 package services.listelecture;
 
-import modele.playlist.Playlist;
-import modele.playlist.PlaylistEntry;
+import modele.playlist.Playable;
 import modele.playlist.PlaylistFormat;
 
 import java.io.BufferedWriter;
@@ -10,10 +9,27 @@ import java.io.IOException;
 /**
  * Writer pour le format de playlist XSPF.
  * Génère un fichier XML valide compatible avec VLC, Audacity, etc.
- * @version 3
+ * Les textes sont échappés une seule fois, directement dans le flux d'écriture.
+ * @version 4
  */
 public class XSPFWriter extends AbstractPlaylistWriter {
 
+    /**
+     * Construit un writer XSPF avec la durabilité par défaut.
+     */
+    public XSPFWriter() {
+        super();
+    }
+
+    /**
+     * Construit un writer XSPF avec une durabilité donnée.
+     *
+     * @param durabilite niveau de durabilité des écritures (non nul)
+     */
+    public XSPFWriter(Durabilite durabilite) {
+        super(durabilite);
+    }
+
     @Override
     public PlaylistFormat obtenirFormat() {
         return PlaylistFormat.XSPF;
@@ -24,7 +40,7 @@ public class XSPFWriter extends AbstractPlaylistWriter {
      * Cette méthode n'est appelée qu'une seule fois au début.
      */
     @Override
-    protected void ecrireEnTete(BufferedWriter writer, Playlist playlist) throws IOException {
+    protected void ecrireEnTete(BufferedWriter writer, String nom) throws IOException {
         writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
         writer.newLine();
         writer.write("<playlist version=\"1\" xmlns=\"http://xspf.org/ns/0/\">");
@@ -32,8 +48,7 @@ public class XSPFWriter extends AbstractPlaylistWriter {
 
         // Titre global de la playlist
         writer.write("  <title>");
-        // On suppose que la méthode 'nettoyer' est dans la classe parente AbstractPlaylistWriter
-        writer.write(echapperXml(nettoyer(playlist.getNom())));
+        Echappement.xml(writer, nom);
         writer.write("</title>");
         writer.newLine();
 
@@ -47,9 +62,9 @@ public class XSPFWriter extends AbstractPlaylistWriter {
      * Cette méthode sera appelée en boucle par la classe parente pour chaque chanson.
      */
     @Override
-    protected void ecrireElement(BufferedWriter writer, PlaylistEntry entry) throws IOException {
-        String emplacement = nettoyer(entry.obtenirEmplacement());
-        String titre = nettoyer(entry.obtenirTitreAffichage());
+    protected void ecrireElement(BufferedWriter writer, Playable entry, long rang) throws IOException {
+        String emplacement = entry.obtenirEmplacement();
+        String titre = entry.obtenirTitreAffichage();
         // Conversion secondes -> millisecondes (requis par XSPF)
         long dureeMs = (long) (entry.obtenirDureeSecondes() * 1000.0);
 
@@ -59,7 +74,7 @@ public class XSPFWriter extends AbstractPlaylistWriter {
         // location : Le chemin vers le fichier mp3
         if (emplacement != null && !emplacement.isBlank()) {
             writer.write("      <location>");
-            writer.write(echapperXml(emplacement));
+            Echappement.xml(writer, emplacement);
             writer.write("</location>");
             writer.newLine();
         }
@@ -67,7 +82,7 @@ public class XSPFWriter extends AbstractPlaylistWriter {
         // title : Le nom affiché de la chanson
         if (titre != null && !titre.isBlank()) {
             writer.write("      <title>");
-            writer.write(echapperXml(titre));
+            Echappement.xml(writer, titre);
             writer.write("</title>");
             writer.newLine();
         }
@@ -75,7 +90,7 @@ public class XSPFWriter extends AbstractPlaylistWriter {
         // duration
         if (dureeMs > 0) {
             writer.write("      <duration>");
-            writer.write(Long.toString(dureeMs));
+            Echappement.nombre(writer, dureeMs);
             writer.write("</duration>");
             writer.newLine();
         }
@@ -90,47 +105,11 @@ public class XSPFWriter extends AbstractPlaylistWriter {
      * Cette méthode n'est appelée qu'une seule fois à la toute fin.
      */
     @Override
-    protected void ecrirePied(BufferedWriter writer, Playlist playlist) throws IOException {
+    protected void ecrirePied(BufferedWriter writer, String nom, long nombre) throws IOException {
         writer.write("  </trackList>");
         writer.newLine();
         writer.write("</playlist>");
         writer.newLine();
 
     }
-
-
-    /**
-     * Remplace les caractères interdits (&, <, >, ", ') par leur code.
-     */
-    private String echapperXml(String valeur) {
-        if (valeur == null) {
-            return "";
-        }
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < valeur.length(); i++) {
-            char c = valeur.charAt(i);
-            switch (c) {
-                case '&':
-                    sb.append("&amp;");
-                    break;
-                case '<':
-                    sb.append("&lt;");
-                    break;
-                case '>':
-                    sb.append("&gt;");
-                    break;
-                case '"':
-                    sb.append("&quot;");
-                    break;
-                case '\'':
-                    sb.append("&apos;");
-                    break;
-                default:
-                    sb.append(c);
-                    break;
-            }
-        }
-        return sb.toString();
-    }
-
-}
\ No newline at end of file
+}
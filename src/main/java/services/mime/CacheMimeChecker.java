@@ -0,0 +1,227 @@
+package services.mime;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Décorateur de {@link MimeChecker} mémorisant les résultats de détection.
+ *
+ * Chaque résultat est associé au chemin du fichier ainsi qu'à sa taille et sa date
+ * de modification : si le fichier change, l'entrée est ignorée et recalculée.
+ * Le cache est borné et évince l'entrée la moins récemment utilisée (LRU).
+ * Les compteurs de succès / échecs permettent de mesurer son efficacité.
+ * @version 1
+ */
+public class CacheMimeChecker implements MimeChecker {
+
+    /** Capacité par défaut du cache. */
+    public static final int CAPACITE_PAR_DEFAUT = 10_000;
+
+    /** Détecteur réellement interrogé en cas d'échec du cache. */
+    private final MimeChecker delegue;
+
+    /** Nombre maximal d'entrées conservées. */
+    private final int capacite;
+
+    /** Entrées du cache, en ordre d'accès (LRU). */
+    private final LinkedHashMap<Path, Entree> entrees;
+
+    private final AtomicLong succes = new AtomicLong();
+    private final AtomicLong echecs = new AtomicLong();
+
+    /**
+     * Construit un cache de capacité par défaut.
+     *
+     * @param delegue détecteur MIME décoré (ne doit pas être null)
+     */
+    public CacheMimeChecker(MimeChecker delegue) {
+        this(delegue, CAPACITE_PAR_DEFAUT);
+    }
+
+    /**
+     * Construit un cache borné.
+     *
+     * @param delegue détecteur MIME décoré (ne doit pas être null)
+     * @param capacite nombre maximal d'entrées (doit être >= 1)
+     * @throws IllegalArgumentException si un paramètre est invalide
+     */
+    public CacheMimeChecker(MimeChecker delegue, int capacite) {
+        if (delegue == null) {
+            throw new IllegalArgumentException("Le MimeChecker délégué ne doit pas être nul.");
+        }
+        if (capacite < 1) {
+            throw new IllegalArgumentException("La capacité du cache doit être >= 1.");
+        }
+        this.delegue = delegue;
+        this.capacite = capacite;
+        this.entrees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Entree> plusAncienne) {
+                return size() > CacheMimeChecker.this.capacite;
+            }
+        };
+    }
+
+    @Override
+    public boolean estMp3(Path chemin) {
+        if (chemin == null) {
+            return false;
+        }
+        return estMp3(chemin, lireAttributs(chemin));
+    }
+
+    @Override
+    public boolean estMp3(Path chemin, BasicFileAttributes attributs) {
+        if (chemin == null) {
+            return false;
+        }
+        if (attributs == null || !attributs.isRegularFile()) {
+            return delegue.estMp3(chemin, attributs);
+        }
+
+        Entree entree = obtenir(chemin, attributs);
+        synchronized (entree) {
+            if (entree.mp3 == null) {
+                echecs.incrementAndGet();
+                entree.mp3 = delegue.estMp3(chemin, attributs);
+            } else {
+                succes.incrementAndGet();
+            }
+            return entree.mp3;
+        }
+    }
+
+    @Override
+    public boolean estAudio(Path chemin) {
+        if (chemin == null) {
+            return false;
+        }
+        BasicFileAttributes attributs = lireAttributs(chemin);
+        if (attributs == null || !attributs.isRegularFile()) {
+            return delegue.estAudio(chemin);
+        }
+
+        Entree entree = obtenir(chemin, attributs);
+        synchronized (entree) {
+            if (entree.audio == null) {
+                echecs.incrementAndGet();
+                entree.audio = delegue.estAudio(chemin);
+            } else {
+                succes.incrementAndGet();
+            }
+            return entree.audio;
+        }
+    }
+
+    @Override
+    public String detecterTypeMime(Path chemin) {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Le chemin ne doit pas être nul.");
+        }
+        BasicFileAttributes attributs = lireAttributs(chemin);
+        if (attributs == null || !attributs.isRegularFile()) {
+            return delegue.detecterTypeMime(chemin);
+        }
+
+        Entree entree = obtenir(chemin, attributs);
+        synchronized (entree) {
+            if (!entree.mimeConnu) {
+                echecs.incrementAndGet();
+                entree.mime = delegue.detecterTypeMime(chemin);
+                entree.mimeConnu = true;
+            } else {
+                succes.incrementAndGet();
+            }
+            return entree.mime;
+        }
+    }
+
+    /**
+     * Retourne le nombre de détections servies par le cache.
+     *
+     * @return nombre de succès
+     */
+    public long getSucces() {
+        return succes.get();
+    }
+
+    /**
+     * Retourne le nombre de détections ayant dû interroger le détecteur décoré.
+     *
+     * @return nombre d'échecs
+     */
+    public long getEchecs() {
+        return echecs.get();
+    }
+
+    /**
+     * Retourne le nombre d'entrées actuellement en cache.
+     *
+     * @return taille du cache
+     */
+    public synchronized int taille() {
+        return entrees.size();
+    }
+
+    /**
+     * Vide le cache et remet les compteurs à zéro.
+     */
+    public synchronized void vider() {
+        entrees.clear();
+        succes.set(0);
+        echecs.set(0);
+    }
+
+    /**
+     * Retourne l'entrée du fichier si elle correspond à sa taille et sa date actuelles,
+     * sinon en crée une nouvelle (l'ancienne version est alors oubliée).
+     */
+    private synchronized Entree obtenir(Path chemin, BasicFileAttributes attributs) {
+        Path cle = chemin.toAbsolutePath().normalize();
+        long taille = attributs.size();
+        long date = attributs.lastModifiedTime().toMillis();
+
+        Entree entree = entrees.get(cle);
+        if (entree != null && entree.taille == taille && entree.date == date) {
+            return entree;
+        }
+
+        entree = new Entree(taille, date);
+        entrees.put(cle, entree);
+        return entree;
+    }
+
+    /**
+     * Lit les attributs d'un fichier, ou null s'il est illisible.
+     */
+    private BasicFileAttributes lireAttributs(Path chemin) {
+        try {
+            return Files.readAttributes(chemin, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Résultats mémorisés pour une version donnée d'un fichier.
+     * Chaque résultat est calculé à la première demande.
+     */
+    private static class Entree {
+        final long taille;
+        final long date;
+        String mime;
+        boolean mimeConnu;
+        Boolean mp3;
+        Boolean audio;
+
+        Entree(long taille, long date) {
+            this.taille = taille;
+            this.date = date;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package services.mime;
 
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * Interface définissant les opérations liées à la détection du type MIME.
@@ -16,6 +17,19 @@ public interface MimeChecker {
      * @return true si le fichier correspond à un MP3, false sinon
      */
     boolean estMp3(Path chemin);
+
+    /**
+     * Indique si le fichier est un MP3 en réutilisant des attributs déjà lus,
+     * sans revérifier son existence ni sa nature sur le disque.
+     * Par défaut, les attributs sont ignorés.
+     * @param chemin chemin du fichier à tester (ne doit pas être null)
+     * @param attributs attributs du fichier (peuvent être null si inconnus)
+     * @return true si le fichier correspond à un MP3, false sinon
+     */
+    default boolean estMp3(Path chemin, BasicFileAttributes attributs) {
+        return estMp3(chemin);
+    }
+
     boolean estAudio(Path chemin);
     /**
      * Détecte le type MIME du fichier spécifié.
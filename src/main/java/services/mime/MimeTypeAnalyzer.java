@@ -4,6 +4,7 @@ import services.systeme.MimeTypeDetector;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * Analyseur de type MIME basé sur un détecteur technique (MimeTypeDetector).
@@ -54,6 +55,39 @@ public class MimeTypeAnalyzer implements MimeChecker {
             return false;
         }
 
+        return classerMp3(chemin);
+    }
+
+    /**
+     * Variante de {@link #estMp3(Path)} qui s'appuie sur les attributs fournis
+     * par le scan au lieu d'interroger à nouveau le système de fichiers.
+     *
+     * @param chemin chemin du fichier à analyser
+     * @param attributs attributs déjà lus (si null, on revient à {@link #estMp3(Path)})
+     * @return true si le fichier est reconnu comme un MP3 ou un format audio supporté, false sinon
+     */
+    @Override
+    public boolean estMp3(Path chemin, BasicFileAttributes attributs) {
+        if (chemin == null) {
+            return false;
+        }
+        if (attributs == null) {
+            return estMp3(chemin);
+        }
+        if (!attributs.isRegularFile()) {
+            return false;
+        }
+        return classerMp3(chemin);
+    }
+
+    /**
+     * Classe un fichier régulier existant comme MP3 / audio supporté
+     * à partir de son type MIME puis, à défaut, de son extension.
+     *
+     * @param chemin chemin d'un fichier régulier
+     * @return true si le fichier est reconnu, false sinon
+     */
+    private boolean classerMp3(Path chemin) {
         //Vérification via le type MIME détecté
         String typeMime = detecterTypeMime(chemin);
         if (estMimeAudioSupporte(typeMime)) {
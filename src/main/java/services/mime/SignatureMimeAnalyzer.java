@@ -0,0 +1,111 @@
+package services.mime;
+
+import services.systeme.SignatureMimeDetector;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Analyseur de type MIME basé sur la signature binaire des fichiers
+ * ({@link SignatureMimeDetector}), utilisable à la place de {@link MimeTypeAnalyzer}.
+ *
+ * Comme ce dernier, {@link #estMp3(Path)} accepte les formats audio supportés
+ * (MP3, FLAC, WAV). Contrairement à lui, aucun repli sur l'extension n'est effectué :
+ * un fichier n'est retenu que si ses premiers octets le confirment,
+ * ce qui écarte notamment les fichiers AppleDouble {@code ._foo.mp3}.
+ * @version 2
+ */
+public class SignatureMimeAnalyzer implements MimeChecker {
+
+    /** Détecteur technique par signature. */
+    private final SignatureMimeDetector detecteur;
+
+    /**
+     * Construit un analyseur MIME par signature.
+     *
+     * @param detecteur détecteur utilisé pour lire l'en-tête des fichiers
+     * @throws IllegalArgumentException si le détecteur est null
+     */
+    public SignatureMimeAnalyzer(SignatureMimeDetector detecteur) {
+        if (detecteur == null) {
+            throw new IllegalArgumentException("Le détecteur MIME ne doit pas être nul.");
+        }
+        this.detecteur = detecteur;
+    }
+
+    /**
+     * Vérifie si le fichier indiqué est un MP3 ou un format audio supporté (FLAC, WAV).
+     *
+     * @param chemin chemin du fichier à analyser
+     * @return true si la signature correspond à un format audio supporté, false sinon
+     */
+    @Override
+    public boolean estMp3(Path chemin) {
+        if (chemin == null) {
+            return false;
+        }
+        if (!Files.isRegularFile(chemin)) {
+            return false;
+        }
+        return estMimeAudioSupporte(detecteur.detecterTypeMime(chemin));
+    }
+
+    /**
+     * Variante de {@link #estMp3(Path)} s'appuyant sur les attributs lus par le scan.
+     *
+     * @param chemin chemin du fichier à analyser
+     * @param attributs attributs déjà lus (si null, on revient à {@link #estMp3(Path)})
+     * @return true si la signature correspond à un format audio supporté, false sinon
+     */
+    @Override
+    public boolean estMp3(Path chemin, BasicFileAttributes attributs) {
+        if (chemin == null) {
+            return false;
+        }
+        if (attributs == null) {
+            return estMp3(chemin);
+        }
+        if (!attributs.isRegularFile()) {
+            return false;
+        }
+        return estMimeAudioSupporte(detecteur.detecterTypeMime(chemin));
+    }
+
+    /**
+     * Indique si un type MIME détecté correspond à un format audio supporté
+     * par l'application, comme le fait {@link MimeTypeAnalyzer}.
+     *
+     * @param mime type MIME (peut être null)
+     * @return true si supporté, false sinon
+     */
+    private static boolean estMimeAudioSupporte(String mime) {
+        return "audio/mpeg".equals(mime)
+                || "audio/flac".equals(mime)
+                || "audio/wav".equals(mime);
+    }
+
+    @Override
+    public boolean estAudio(Path chemin) {
+        if (chemin == null) {
+            return false;
+        }
+        String mime = detecteur.detecterTypeMime(chemin);
+        return mime != null && mime.startsWith("audio/");
+    }
+
+    /**
+     * Détecte le type MIME du fichier à partir de sa signature.
+     *
+     * @param chemin chemin du fichier
+     * @return type MIME détecté ou null si la signature est inconnue
+     * @throws IllegalArgumentException si le chemin est null
+     */
+    @Override
+    public String detecterTypeMime(Path chemin) {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Le chemin ne doit pas être nul.");
+        }
+        return detecteur.detecterTypeMime(chemin);
+    }
+}
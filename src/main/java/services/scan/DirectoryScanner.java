@@ -1,7 +1,13 @@
 package services.scan;
+import services.systeme.EntreeRepertoire;
+import services.systeme.FileUtils;
+
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Cette interface définit un mécanisme de parcours récursif de l’arborescence
@@ -22,4 +28,39 @@ public interface DirectoryScanner {
      * @throws IllegalArgumentException si {@code racine} est nul ou ne désigne pas un répertoire
      */
     List<Path> scanner(Path repertoire) throws IOException;
+
+    /**
+     * Scanne récursivement le répertoire racine et fournit les fichiers acceptés
+     * sous forme de flux, au fur et à mesure de leur découverte.
+     * L'implémentation par défaut matérialise la liste complète via {@link #scanner(Path)} ;
+     * les implémentations capables de parcourir l'arborescence à la demande la redéfinissent.
+     *
+     * @param repertoire répertoire racine à scanner
+     * @return flux séquentiel et ordonné des chemins de fichiers acceptés
+     * @throws IllegalArgumentException si {@code racine} est nul ou ne désigne pas un répertoire
+     */
+    default Stream<Path> scannerEnFlux(Path repertoire) throws IOException {
+        return scanner(repertoire).stream();
+    }
+
+    /**
+     * Scanne récursivement le répertoire racine et fournit les fichiers acceptés
+     * avec les attributs (taille, date de modification) lus pendant le parcours.
+     * L'implémentation par défaut relit les attributs de chaque fichier de {@link #scannerEnFlux(Path)}
+     * et ignore ceux qui ont disparu entre-temps ; les implémentations qui lisent déjà
+     * les attributs lors du listage la redéfinissent pour éviter ces appels.
+     *
+     * @param repertoire répertoire racine à scanner
+     * @return flux séquentiel et ordonné des fichiers acceptés et de leurs attributs
+     * @throws IllegalArgumentException si {@code racine} est nul ou ne désigne pas un répertoire
+     */
+    default Stream<EntreeRepertoire> scannerAvecAttributs(Path repertoire) throws IOException {
+        FileUtils fileUtils = new FileUtils();
+        return scannerEnFlux(repertoire)
+                .map(chemin -> {
+                    BasicFileAttributes attributs = fileUtils.lireAttributs(chemin);
+                    return (attributs != null) ? new EntreeRepertoire(chemin, attributs) : null;
+                })
+                .filter(Objects::nonNull);
+    }
 }
@@ -1,5 +1,6 @@
 package services.scan;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * Filtre générique de fichiers basé sur leur chemin.
@@ -14,4 +15,18 @@ public interface FileFilter {
      * @return {@code true} si le chemin est accepté, {@code false} sinon
      */
     boolean accepter(Path path);
+
+    /**
+     * Indique si le chemin est accepté, en s'appuyant sur des attributs déjà lus
+     * lors du parcours. Les implémentations qui testent la nature du fichier
+     * peuvent ainsi éviter de nouveaux appels au système de fichiers.
+     * Par défaut, les attributs sont ignorés.
+     *
+     * @param path chemin à tester
+     * @param attributs attributs du chemin (peuvent être {@code null} si inconnus)
+     * @return {@code true} si le chemin est accepté, {@code false} sinon
+     */
+    default boolean accepter(Path path, BasicFileAttributes attributs) {
+        return accepter(path);
+    }
 }
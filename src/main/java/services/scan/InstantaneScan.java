@@ -0,0 +1,195 @@
+package services.scan;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Instantané d'un scan : pour chaque fichier retenu, conserve son chemin,
+ * sa taille et sa date de dernière modification.
+ *
+ * Comparé au scan suivant, il permet de savoir quels fichiers ont été ajoutés,
+ * modifiés ou supprimés sans relire leur contenu. L'instantané est persisté
+ * dans un petit fichier binaire.
+ */
+public class InstantaneScan {
+
+    /** Signature du fichier binaire ("MPSN"). */
+    private static final int SIGNATURE = 0x4D50534E;
+
+    /** Version du format binaire. */
+    private static final int VERSION = 1;
+
+    /** Taille et date de modification (ms) indexées par chemin absolu. */
+    private Map<String, long[]> entrees;
+
+    /**
+     * Construit un instantané vide.
+     */
+    public InstantaneScan() {
+        this.entrees = new HashMap<>();
+    }
+
+    /**
+     * Retourne l'emplacement par défaut de l'instantané d'un répertoire,
+     * dans le répertoire de l'utilisateur (un fichier par répertoire scanné).
+     *
+     * @param racine répertoire scanné (ne doit pas être null)
+     * @return chemin du fichier d'instantané
+     */
+    public static Path emplacementParDefaut(Path racine) {
+        if (racine == null) {
+            throw new IllegalArgumentException("La racine ne doit pas être nulle.");
+        }
+        String cle = racine.toAbsolutePath().normalize().toString();
+        UUID nom = UUID.nameUUIDFromBytes(cle.getBytes(StandardCharsets.UTF_8));
+        return Path.of(System.getProperty("user.home"), ".audioexplorer", "instantanes", nom + ".scan");
+    }
+
+    /**
+     * Enregistre l'état d'un fichier.
+     *
+     * @param chemin chemin absolu normalisé du fichier (ne doit pas être null)
+     * @param taille taille en octets
+     * @param dateModification date de dernière modification en millisecondes
+     */
+    public void enregistrer(Path chemin, long taille, long dateModification) {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Le chemin ne doit pas être nul.");
+        }
+        entrees.put(chemin.toString(), new long[]{taille, dateModification});
+    }
+
+    /**
+     * Indique si le fichier figure dans l'instantané.
+     *
+     * @param chemin chemin absolu normalisé
+     * @return true si le fichier est connu
+     */
+    public boolean contient(Path chemin) {
+        if (chemin == null) {
+            return false;
+        }
+        return entrees.containsKey(chemin.toString());
+    }
+
+    /**
+     * Indique si le fichier figure dans l'instantané avec la même taille
+     * et la même date de modification.
+     *
+     * @param chemin chemin absolu normalisé
+     * @param taille taille actuelle en octets
+     * @param dateModification date de modification actuelle en millisecondes
+     * @return true si le fichier est inchangé
+     */
+    public boolean estInchange(Path chemin, long taille, long dateModification) {
+        if (chemin == null) {
+            return false;
+        }
+        long[] etat = entrees.get(chemin.toString());
+        return etat != null && etat[0] == taille && etat[1] == dateModification;
+    }
+
+    /**
+     * Retourne les chemins connus de l'instantané.
+     *
+     * @return ensemble non modifiable des chemins
+     */
+    public Set<String> chemins() {
+        return Collections.unmodifiableSet(entrees.keySet());
+    }
+
+    /**
+     * Retourne le nombre de fichiers de l'instantané.
+     *
+     * @return nombre d'entrées
+     */
+    public int taille() {
+        return entrees.size();
+    }
+
+    /**
+     * Écrit l'instantané dans un fichier binaire.
+     * L'écriture passe par un fichier temporaire renommé à la fin,
+     * pour ne jamais laisser un instantané à moitié écrit.
+     *
+     * @param fichier fichier de destination (ne doit pas être null)
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void sauvegarder(Path fichier) throws IOException {
+        if (fichier == null) {
+            throw new IllegalArgumentException("Le fichier d'instantané ne doit pas être nul.");
+        }
+
+        Path absolu = fichier.toAbsolutePath();
+        Path temporaire = absolu.resolveSibling(absolu.getFileName() + ".tmp");
+        if (absolu.getParent() != null) {
+            Files.createDirectories(absolu.getParent());
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+            out.writeInt(SIGNATURE);
+            out.writeInt(VERSION);
+            out.writeInt(entrees.size());
+            for (Map.Entry<String, long[]> e : entrees.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue()[0]);
+                out.writeLong(e.getValue()[1]);
+            }
+        }
+
+        Files.move(temporaire, absolu, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Charge un instantané depuis un fichier binaire.
+     * Un fichier absent ou illisible donne un instantané vide :
+     * le scan suivant est alors équivalent à un import complet.
+     *
+     * @param fichier fichier d'instantané (ne doit pas être null)
+     * @return instantané chargé, éventuellement vide
+     */
+    public static InstantaneScan charger(Path fichier) {
+        if (fichier == null) {
+            throw new IllegalArgumentException("Le fichier d'instantané ne doit pas être nul.");
+        }
+
+        InstantaneScan instantane = new InstantaneScan();
+        if (!Files.isRegularFile(fichier)) {
+            return instantane;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(fichier)))) {
+            if (in.readInt() != SIGNATURE || in.readInt() != VERSION) {
+                return instantane;
+            }
+            int nombre = in.readInt();
+            Map<String, long[]> entrees = new HashMap<>(Math.max(16, nombre * 4 / 3 + 1));
+            for (int i = 0; i < nombre; i++) {
+                String chemin = in.readUTF();
+                long taille = in.readLong();
+                long date = in.readLong();
+                entrees.put(chemin, new long[]{taille, date});
+            }
+            instantane.entrees = entrees;
+        } catch (IOException e) {
+            // Instantané corrompu : on repart d'un état vide
+            return new InstantaneScan();
+        }
+
+        return instantane;
+    }
+}
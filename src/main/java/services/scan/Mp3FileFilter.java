@@ -4,6 +4,7 @@ import  services.mime.MimeChecker;
 import  services.systeme.FileUtils;
 
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * Filtre permettant de déterminer si un chemin représente un fichier MP3 valide.
@@ -64,4 +65,30 @@ public class Mp3FileFilter implements FileFilter {
 
         return mimeChecker.estMp3(path);
     }
-}
\ No newline at end of file
+
+    /**
+     * Variante utilisée pendant le scan : l'existence et la nature du fichier
+     * sont déduites des attributs déjà lus, sans nouvel appel système.
+     *
+     * @param path chemin à analyser
+     * @param attributs attributs lus lors du listage (si null, on revient à {@link #accepter(Path)})
+     * @return true si le chemin correspond à un MP3 valide, false sinon
+     */
+    @Override
+    public boolean accepter(Path path, BasicFileAttributes attributs) {
+
+        if (path == null) {
+            return false;
+        }
+
+        if (attributs == null) {
+            return accepter(path);
+        }
+
+        if (!attributs.isRegularFile()) {
+            return false;
+        }
+
+        return mimeChecker.estMp3(path, attributs);
+    }
+}
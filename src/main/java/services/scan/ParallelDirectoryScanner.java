@@ -0,0 +1,178 @@
+package services.scan;
+
+import services.systeme.EntreeRepertoire;
+import services.systeme.FileSystemPort;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Implémentation parallèle de {@link DirectoryScanner} basée sur le framework fork/join.
+ * Chaque sous-répertoire est confié à une tâche distincte ; les threads inactifs
+ * du pool "volent" les tâches en attente des autres threads (work stealing),
+ * ce qui répartit le parcours d'une grande arborescence sur plusieurs cœurs.
+ *
+ * Les contrats de {@link FileFilter} et de {@link FileSystemPort} sont les mêmes
+ * que pour {@link RecursiveDirectoryScanner} : ils doivent toutefois pouvoir être
+ * appelés depuis plusieurs threads simultanément.
+ */
+public class ParallelDirectoryScanner implements DirectoryScanner {
+
+    private FileFilter filtre;
+    private FileSystemPort fileSystem;
+    private int parallelisme;
+    private boolean ordreDeterministe;
+
+    /**
+     * Construit un scanner parallèle utilisant autant de threads que de processeurs
+     * disponibles, avec un ordre de résultat déterministe.
+     *
+     * @param filtre      filtre à appliquer sur les fichiers (ne doit pas être {@code null})
+     * @param fileSystem  port d'accès au système de fichiers (ne doit pas être {@code null})
+     */
+    public ParallelDirectoryScanner(FileFilter filtre, FileSystemPort fileSystem) {
+        this(filtre, fileSystem, Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * Construit un scanner parallèle.
+     *
+     * @param filtre            filtre à appliquer sur les fichiers (ne doit pas être {@code null})
+     * @param fileSystem        port d'accès au système de fichiers (ne doit pas être {@code null})
+     * @param parallelisme      nombre de threads du pool (doit être >= 1)
+     * @param ordreDeterministe si {@code true}, les entrées de chaque répertoire sont triées
+     *                          et le résultat est identique d'une exécution à l'autre
+     */
+    public ParallelDirectoryScanner(FileFilter filtre, FileSystemPort fileSystem,
+                                    int parallelisme, boolean ordreDeterministe) {
+        if (filtre == null) {
+            throw new IllegalArgumentException("Le filtre ne doit pas être nul.");
+        }
+        if (fileSystem == null) {
+            throw new IllegalArgumentException("Le FileSystemPort ne doit pas être nul.");
+        }
+        if (parallelisme < 1) {
+            throw new IllegalArgumentException("Le niveau de parallélisme doit être >= 1.");
+        }
+        this.filtre = filtre;
+        this.fileSystem = fileSystem;
+        this.parallelisme = parallelisme;
+        this.ordreDeterministe = ordreDeterministe;
+    }
+
+    /**
+     * Retourne le nombre de threads utilisés pour le parcours.
+     *
+     * @return niveau de parallélisme
+     */
+    public int getParallelisme() {
+        return parallelisme;
+    }
+
+    /**
+     * Indique si le résultat est produit dans un ordre déterministe.
+     *
+     * @return {@code true} si les entrées sont triées
+     */
+    public boolean estOrdreDeterministe() {
+        return ordreDeterministe;
+    }
+
+    /**
+     * Lance une tâche fork/join sur la racine puis attend la fin du parcours.
+     * Un pool dédié est créé pour chaque scan afin de respecter le parallélisme demandé.
+     */
+    @Override
+    public List<Path> scanner(Path racine) {
+        List<EntreeRepertoire> entrees = scannerEntrees(racine);
+        List<Path> chemins = new ArrayList<>(entrees.size());
+        for (EntreeRepertoire entree : entrees) {
+            chemins.add(entree.getChemin());
+        }
+        return chemins;
+    }
+
+    /**
+     * Même parcours que {@link #scanner(Path)} : les attributs fournis sont
+     * ceux lus lors du listage de chaque répertoire, sans nouvel appel système.
+     */
+    @Override
+    public Stream<EntreeRepertoire> scannerAvecAttributs(Path racine) {
+        return scannerEntrees(racine).stream();
+    }
+
+    /**
+     * Parcourt l'arborescence et retourne les fichiers acceptés avec leurs attributs.
+     */
+    private List<EntreeRepertoire> scannerEntrees(Path racine) {
+        if (racine == null) {
+            throw new IllegalArgumentException("La racine ne doit pas être nulle.");
+        }
+        if (!fileSystem.existe(racine)) {
+            throw new IllegalArgumentException("La racine n'existe pas : " + racine);
+        }
+        if (!fileSystem.estRepertoire(racine)) {
+            throw new IllegalArgumentException("La racine n'est pas un répertoire : " + racine);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelisme);
+        try {
+            return pool.invoke(new TacheRepertoire(racine));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tâche de parcours d'un répertoire : filtre ses fichiers et crée
+     * une sous-tâche par sous-répertoire.
+     */
+    private class TacheRepertoire extends RecursiveTask<List<EntreeRepertoire>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path repertoire;
+
+        TacheRepertoire(Path repertoire) {
+            this.repertoire = repertoire;
+        }
+
+        @Override
+        protected List<EntreeRepertoire> compute() {
+            List<EntreeRepertoire> contenus = fileSystem.listerRepertoireAvecAttributs(repertoire);
+            if (ordreDeterministe) {
+                contenus = new ArrayList<>(contenus);
+                contenus.sort(Comparator.comparing(EntreeRepertoire::getChemin));
+            }
+
+            List<EntreeRepertoire> resultats = new ArrayList<>();
+            List<TacheRepertoire> sousTaches = new ArrayList<>();
+
+            for (EntreeRepertoire enfant : contenus) {
+                if (enfant.estRepertoire()) {
+                    // Chaque sous-répertoire devient une tâche que d'autres threads peuvent voler
+                    TacheRepertoire tache = new TacheRepertoire(enfant.getChemin());
+                    tache.fork();
+                    sousTaches.add(tache);
+                } else if (enfant.estFichier()) {
+                    if (filtre.accepter(enfant.getChemin(), enfant.getAttributs())) {
+                        resultats.add(enfant);
+                    }
+                }
+            }
+
+            // Jointure dans l'ordre de création : les fichiers du répertoire courant
+            // précèdent ceux de ses sous-répertoires, eux-mêmes triés.
+            for (TacheRepertoire tache : sousTaches) {
+                resultats.addAll(tache.join());
+            }
+
+            return resultats;
+        }
+    }
+}
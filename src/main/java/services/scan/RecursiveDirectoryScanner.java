@@ -1,12 +1,19 @@
 package services.scan;
 
+import services.systeme.EntreeRepertoire;
 import services.systeme.FileSystemPort;
 
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implémentation de {@link DirectoryScanner} qui parcourt récursivement
@@ -40,6 +47,67 @@ public class RecursiveDirectoryScanner implements DirectoryScanner {
      */
     @Override
     public List<Path> scanner(Path racine) {
+        verifierRacine(racine);
+
+        List<Path> resultats = new ArrayList<>();
+        Deque<Path> pile = new ArrayDeque<>();
+
+        pile.push(racine);
+
+        while (!pile.isEmpty()) {
+            Path courant = pile.pop();
+
+            // Les attributs sont lus une seule fois par entrée lors du listage
+            List<EntreeRepertoire> contenus = fileSystem.listerRepertoireAvecAttributs(courant);
+            for (EntreeRepertoire enfant : contenus) {
+                if (enfant.estRepertoire()) {
+                    // On empile les sous-répertoires pour les parcourir
+                    pile.push(enfant.getChemin());
+                } else if (enfant.estFichier()) {
+                    // On applique le filtre sur les fichiers
+                    if (filtre.accepter(enfant.getChemin(), enfant.getAttributs())) {
+                        resultats.add(enfant.getChemin());
+                    }
+                }
+            }
+        }
+
+        return resultats;
+    }
+
+    /**
+     * Parcourt la hiérarchie à la demande : un répertoire n'est listé que lorsque
+     * le consommateur du flux a épuisé les fichiers déjà découverts.
+     * La mémoire utilisée dépend de la taille des répertoires en attente,
+     * et non du nombre total de fichiers.
+     */
+    @Override
+    public Stream<Path> scannerEnFlux(Path racine) {
+        return scannerAvecAttributs(racine).map(EntreeRepertoire::getChemin);
+    }
+
+    /**
+     * Même parcours que {@link #scannerEnFlux(Path)} : les attributs fournis sont
+     * ceux lus lors du listage de chaque répertoire, sans nouvel appel système.
+     */
+    @Override
+    public Stream<EntreeRepertoire> scannerAvecAttributs(Path racine) {
+        verifierRacine(racine);
+
+        Spliterator<EntreeRepertoire> spliterator = Spliterators.spliteratorUnknownSize(
+                new IterateurScan(racine),
+                Spliterator.ORDERED | Spliterator.NONNULL
+        );
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Vérifie que la racine est non nulle, existe et désigne un répertoire.
+     *
+     * @param racine racine à vérifier
+     * @throws IllegalArgumentException si la racine est invalide
+     */
+    private void verifierRacine(Path racine) {
         if (racine == null) {
             throw new IllegalArgumentException("La racine ne doit pas être nulle.");
         }
@@ -50,29 +118,55 @@ public class RecursiveDirectoryScanner implements DirectoryScanner {
         if (!fileSystem.estRepertoire(racine)) {
             throw new IllegalArgumentException("La racine n'est pas un répertoire : " + racine);
         }
+    }
 
-        List<Path> resultats = new ArrayList<>();
-        Deque<Path> pile = new ArrayDeque<>();
+    /**
+     * Itérateur paresseux reprenant le parcours DFS de {@link #scanner(Path)}.
+     */
+    private class IterateurScan implements Iterator<EntreeRepertoire> {
 
-        pile.push(racine);
+        /** Répertoires restant à lister. */
+        private final Deque<Path> pile = new ArrayDeque<>();
 
-        while (!pile.isEmpty()) {
-            Path courant = pile.pop();
+        /** Entrées du répertoire courant non encore examinées. */
+        private Iterator<EntreeRepertoire> contenus = null;
 
-            List<Path> contenus = fileSystem.listerRepertoire(courant);
-            for (Path enfant : contenus) {
-                if (fileSystem.estRepertoire(enfant)) {
-                    // On empile les sous-répertoires pour les parcourir
-                    pile.push(enfant);
-                } else if (fileSystem.estFichier(enfant)) {
-                    // On applique le filtre sur les fichiers
-                    if (filtre.accepter(enfant)) {
-                        resultats.add(enfant);
+        /** Prochain fichier accepté, ou null s'il reste à chercher. */
+        private EntreeRepertoire suivant = null;
+
+        IterateurScan(Path racine) {
+            pile.push(racine);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (suivant == null) {
+                if (contenus != null && contenus.hasNext()) {
+                    EntreeRepertoire enfant = contenus.next();
+                    if (enfant.estRepertoire()) {
+                        pile.push(enfant.getChemin());
+                    } else if (enfant.estFichier()) {
+                        if (filtre.accepter(enfant.getChemin(), enfant.getAttributs())) {
+                            suivant = enfant;
+                        }
                     }
+                } else if (!pile.isEmpty()) {
+                    contenus = fileSystem.listerRepertoireAvecAttributs(pile.pop()).iterator();
+                } else {
+                    return false;
                 }
             }
+            return true;
         }
 
-        return resultats;
+        @Override
+        public EntreeRepertoire next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            EntreeRepertoire resultat = suivant;
+            suivant = null;
+            return resultat;
+        }
     }
 }
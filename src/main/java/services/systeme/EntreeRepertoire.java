@@ -0,0 +1,57 @@
+package services.systeme;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Entrée d'un répertoire associée à ses attributs de base.
+ * Les attributs sont lus une seule fois lors du listage, ce qui évite
+ * de réinterroger le système de fichiers pour chaque test (répertoire, fichier, taille...).
+ */
+public class EntreeRepertoire {
+
+    /** Chemin de l'entrée. */
+    private final Path chemin;
+
+    /** Attributs lus lors du listage. */
+    private final BasicFileAttributes attributs;
+
+    /**
+     * Construit une entrée de répertoire.
+     *
+     * @param chemin     chemin de l'entrée (ne doit pas être null)
+     * @param attributs  attributs de l'entrée (ne doivent pas être null)
+     */
+    public EntreeRepertoire(Path chemin, BasicFileAttributes attributs) {
+        if (chemin == null) {
+            throw new IllegalArgumentException("Le chemin ne doit pas être nul.");
+        }
+        if (attributs == null) {
+            throw new IllegalArgumentException("Les attributs ne doivent pas être nuls.");
+        }
+        this.chemin = chemin;
+        this.attributs = attributs;
+    }
+
+    public Path getChemin() {
+        return chemin;
+    }
+
+    public BasicFileAttributes getAttributs() {
+        return attributs;
+    }
+
+    /**
+     * @return true si l'entrée désigne un répertoire
+     */
+    public boolean estRepertoire() {
+        return attributs.isDirectory();
+    }
+
+    /**
+     * @return true si l'entrée désigne un fichier régulier
+     */
+    public boolean estFichier() {
+        return attributs.isRegularFile();
+    }
+}
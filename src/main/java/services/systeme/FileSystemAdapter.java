@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -82,4 +83,39 @@ public class FileSystemAdapter implements FileSystemPort {
 
         return resultat;
     }
+
+    @Override
+    public List<EntreeRepertoire> listerRepertoireAvecAttributs(Path path) {
+
+        if (path == null) {
+            throw new IllegalArgumentException("Le chemin ne doit pas être nul.");
+        }
+
+        if (!fileUtils.estRepertoire(path)) {
+            throw new IllegalArgumentException("Le chemin n'est pas un répertoire : " + path);
+        }
+
+        List<EntreeRepertoire> resultat = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path enfant : stream) {
+                BasicFileAttributes attributs;
+                try {
+                    // Un seul appel système par entrée (suit les liens, comme Files.isDirectory)
+                    attributs = Files.readAttributes(enfant, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    // Entrée illisible : ni fichier ni répertoire pour le scan
+                    continue;
+                }
+                resultat.add(new EntreeRepertoire(enfant, attributs));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "Erreur lors de la liste du répertoire : " + path,
+                    e
+            );
+        }
+
+        return resultat;
+    }
 }
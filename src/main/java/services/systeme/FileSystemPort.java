@@ -43,6 +43,15 @@ public interface FileSystemPort {
      */
     List<Path> listerRepertoire(Path path);
 
+    /**
+     * Liste les éléments directement contenus dans un répertoire, accompagnés
+     * de leurs attributs de base lus en une seule fois.
+     * Les entrées dont les attributs sont illisibles (lien cassé, droits...) sont ignorées.
+     * @param path répertoire à lister
+     * @return liste des entrées filles (liste vide si le répertoire est vide)
+     */
+    List<EntreeRepertoire> listerRepertoireAvecAttributs(Path path);
+
     /**
      * Retourne la taille du fichier en octets.
      * @param path chemin du fichier
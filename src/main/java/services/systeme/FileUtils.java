@@ -2,6 +2,7 @@ package services.systeme;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  *  cette Classe elle sert permettant d’interagir avec le système de fichiers.
@@ -66,4 +67,21 @@ public class FileUtils {
             throw new RuntimeException("Impossible de lire la taille du fichier : " + path, e);
         }
     }
+
+    /**
+     * Lit en une seule fois les attributs de base d’un chemin (taille, date de modification...).
+     *
+     * @param path chemin à lire
+     * @return attributs du chemin, ou null si le chemin est null ou illisible
+     */
+    public BasicFileAttributes lireAttributs(Path path) {
+        if (path == null) {
+            return null;
+        }
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
 }
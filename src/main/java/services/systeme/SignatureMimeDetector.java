@@ -0,0 +1,152 @@
+package services.systeme;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * cette classe sert a détecter le type MIME d'un fichier audio à partir
+ * de sa signature binaire ("magic bytes") et non de son extension.
+ *
+ * Seuls les premiers octets du fichier sont lus via un {@link FileChannel} :
+ * en-tête ID3v2, synchronisation de trame MPEG, "fLaC" et "RIFF....WAVE".
+ * Les fichiers AppleDouble ({@code ._foo.mp3}) sont ainsi correctement rejetés.
+ */
+public class SignatureMimeDetector {
+
+    /** Nombre d'octets lus en tête de fichier. */
+    public static final int TAILLE_EN_TETE = 16;
+
+    /** Signature des fichiers AppleDouble / AppleSingle (métadonnées macOS). */
+    private static final int SIGNATURE_APPLE_DOUBLE = 0x00051607;
+    private static final int SIGNATURE_APPLE_SINGLE = 0x00051600;
+
+    /**
+     * Détecte le type MIME d'un fichier à partir de ses premiers octets.
+     *
+     * @param path chemin du fichier (ne doit pas être null)
+     * @return "audio/mpeg", "audio/flac", "audio/wav" ou null si la signature est inconnue
+     *         ou si le fichier est illisible
+     * @throws IllegalArgumentException si le chemin est null
+     */
+    public String detecterTypeMime(Path path) {
+
+        if (path == null) {
+            throw new IllegalArgumentException("Le chemin ne doit pas être nul.");
+        }
+
+        ByteBuffer tampon = ByteBuffer.allocate(TAILLE_EN_TETE);
+
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (tampon.hasRemaining()) {
+                if (canal.read(tampon) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        tampon.flip();
+        byte[] entete = new byte[tampon.remaining()];
+        tampon.get(entete);
+
+        return detecterTypeMime(entete);
+    }
+
+    /**
+     * Détecte le type MIME à partir d'un en-tête déjà lu.
+     *
+     * @param entete premiers octets du fichier (peut être plus court que {@link #TAILLE_EN_TETE})
+     * @return type MIME reconnu, ou null si inconnu
+     */
+    public String detecterTypeMime(byte[] entete) {
+
+        if (entete == null || entete.length < 4) {
+            return null;
+        }
+
+        int quatrePremiers = ((entete[0] & 0xFF) << 24) | ((entete[1] & 0xFF) << 16)
+                | ((entete[2] & 0xFF) << 8) | (entete[3] & 0xFF);
+
+        if (quatrePremiers == SIGNATURE_APPLE_DOUBLE || quatrePremiers == SIGNATURE_APPLE_SINGLE) {
+            return null;
+        }
+
+        if (estEnTeteId3v2(entete)) {
+            return "audio/mpeg";
+        }
+
+        if (commencePar(entete, 0, "fLaC")) {
+            return "audio/flac";
+        }
+
+        if (entete.length >= 12 && commencePar(entete, 0, "RIFF") && commencePar(entete, 8, "WAVE")) {
+            return "audio/wav";
+        }
+
+        if (estTrameMpegAudio(entete)) {
+            return "audio/mpeg";
+        }
+
+        return null;
+    }
+
+    /**
+     * En-tête ID3v2 : "ID3", version majeure 2 à 4, révision != 0xFF,
+     * puis une taille codée sur 4 octets "synchsafe" (bit de poids fort à 0).
+     */
+    private boolean estEnTeteId3v2(byte[] e) {
+        if (e.length < 10 || !commencePar(e, 0, "ID3")) {
+            return false;
+        }
+        int version = e[3] & 0xFF;
+        if (version < 2 || version > 4 || (e[4] & 0xFF) == 0xFF) {
+            return false;
+        }
+        return (e[6] & 0x80) == 0 && (e[7] & 0x80) == 0
+                && (e[8] & 0x80) == 0 && (e[9] & 0x80) == 0;
+    }
+
+    /**
+     * Synchronisation de trame MPEG audio (11 bits à 1) avec des champs cohérents :
+     * version et couche non réservées, débit et fréquence valides.
+     * La couche 00 (réservée) écarte aussi les flux AAC ADTS.
+     */
+    private boolean estTrameMpegAudio(byte[] e) {
+        int b0 = e[0] & 0xFF;
+        int b1 = e[1] & 0xFF;
+        int b2 = e[2] & 0xFF;
+
+        if (b0 != 0xFF || (b1 & 0xE0) != 0xE0) {
+            return false;
+        }
+
+        int version = (b1 >> 3) & 0x03;
+        int couche = (b1 >> 1) & 0x03;
+        int indiceDebit = (b2 >> 4) & 0x0F;
+        int indiceFrequence = (b2 >> 2) & 0x03;
+
+        return version != 0x01
+                && couche != 0x00
+                && indiceDebit != 0x0F
+                && indiceFrequence != 0x03;
+    }
+
+    /**
+     * Compare des octets à une signature ASCII à partir d'une position donnée.
+     */
+    private boolean commencePar(byte[] e, int position, String signature) {
+        if (e.length < position + signature.length()) {
+            return false;
+        }
+        for (int i = 0; i < signature.length(); i++) {
+            if (e[position + i] != (byte) signature.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}